@@ -18,10 +18,15 @@ public final class InOrderExecutionManager {
 		this.nextOperation = operation;
 		if (nextOperation == null) {
 			//System.out.println("Updating the future to include a run of the next operation");
-			this.lastOperation = this.lastOperation.thenComposeAsync((o) -> {
+			// NOTE: run the next operation whether or not the last one failed
+			this.lastOperation = this.lastOperation.handle((o, t) -> o).thenComposeAsync((o) -> {
 				//System.out.println("Next operation is about to be called, so clearing it");
-				final Supplier<CompletableFuture<Void>> toExecute = this.nextOperation;
-				this.nextOperation = null;
+				// NOTE: this runs on another thread, so it must be synchronized with execute
+				final Supplier<CompletableFuture<Void>> toExecute;
+				synchronized (this) {
+					toExecute = this.nextOperation;
+					this.nextOperation = null;
+				}
 				//System.out.println("Running the next operation");
 				return toExecute.get();
 			});
@@ -2,23 +2,16 @@ package org.praisenter.data;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.praisenter.LockMap;
 import org.praisenter.utility.MimeType;
 
 public abstract class AbstractFilePersistAdapter<T extends Persistable, E extends PathResolver<T>> implements PersistAdapter<T> {
-	/** The class-level logger */
-	private static final Logger LOGGER = LogManager.getLogger();
-	
 	private final LockMap<UUID> locks;
 	protected final E pathResolver;
 	
@@ -41,21 +34,12 @@ public abstract class AbstractFilePersistAdapter<T extends Persistable, E extend
 	
 	@Override
 	public List<T> load() throws IOException {
-		List<T> items = new ArrayList<T>();
-		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.pathResolver.getBasePath())) {
-			for (Path file : stream) {
-				if (Files.isRegularFile(file)) {
-					String mimeType = MimeType.get(file);
-					try (InputStream is = Files.newInputStream(file)) {
-						T m = this.read(mimeType, is);
-						items.add(m);
-					} catch (Exception ex) {
-						LOGGER.error("Failed to load '" + file.toAbsolutePath() + "' due to: " + ex.getMessage(), ex);
-					}
-				}
+		return DirectoryLoader.load(this.pathResolver.getBasePath(), (file) -> {
+			String mimeType = MimeType.getTrusted(file);
+			try (InputStream is = Files.newInputStream(file)) {
+				return this.read(mimeType, is);
 			}
-		}
-		return items;
+		});
 	}
 
 	@Override
@@ -5,10 +5,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import org.praisenter.utility.StringManipulator;
 
 public class BasicPathResolver<T extends Identifiable> implements PathResolver<T> {
+	/** The pattern of an id in a file name (a UUID without dashes) */
+	private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-fA-F]{32}");
+	
 	protected final Path basePath;
 	protected final String exportBasePath;
 	protected final String extension;
@@ -30,6 +34,33 @@ public class BasicPathResolver<T extends Identifiable> implements PathResolver<T
 		}
 		return Paths.get(id.toString().replaceAll("-", "") + ext);
 	}
+	
+	/**
+	 * Returns the id from the name of the given file or null if it isn't named like
+	 * the files produced by {@link #getFileName(UUID, String)} with this resolver's
+	 * extension.
+	 * @param path the file
+	 * @return UUID
+	 */
+	public UUID getId(Path path) {
+		Path name = path.getFileName();
+		if (name == null) return null;
+		
+		String id = name.toString();
+		if (!StringManipulator.isNullOrEmpty(this.extension)) {
+			String ext = "." + this.extension;
+			if (!id.endsWith(ext)) return null;
+			id = id.substring(0, id.length() - ext.length());
+		}
+		
+		if (!ID_PATTERN.matcher(id).matches()) return null;
+		return UUID.fromString(
+				id.substring(0, 8) + "-" +
+				id.substring(8, 12) + "-" +
+				id.substring(12, 16) + "-" +
+				id.substring(16, 20) + "-" +
+				id.substring(20));
+	}
 
 	@Override
 	public void initialize() throws IOException {
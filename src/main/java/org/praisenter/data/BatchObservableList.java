@@ -0,0 +1,100 @@
+package org.praisenter.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.collections.ModifiableObservableListBase;
+
+/**
+ * An observable list that can group any number of modifications into a single
+ * change notification.
+ * <p>
+ * Listeners (sorted and filtered views for example) receive one change with a
+ * segment per modification instead of one change per modification.
+ * @author William Bittle
+ * @version 3.0.0
+ * @param <E> the element type
+ */
+public final class BatchObservableList<E> extends ModifiableObservableListBase<E> {
+	/** The elements */
+	private final List<E> elements;
+	
+	/**
+	 * Default constructor.
+	 */
+	public BatchObservableList() {
+		this.elements = new ArrayList<>();
+	}
+	
+	/**
+	 * Executes the given modifications and notifies listeners once when they are
+	 * all complete.
+	 * @param modifications the modifications to this list
+	 */
+	public void batch(Runnable modifications) {
+		this.beginChange();
+		try {
+			modifications.run();
+		} finally {
+			this.endChange();
+		}
+	}
+	
+	/**
+	 * Removes the elements at the given positions as a single change.
+	 * <p>
+	 * Negative and duplicate positions are ignored.
+	 * @param indices the positions of the elements to remove
+	 */
+	public void removeIndices(int[] indices) {
+		int[] positions = Arrays.stream(indices).filter((i) -> i >= 0).sorted().distinct().toArray();
+		
+		// remove from the end so the remaining positions stay valid
+		this.batch(() -> {
+			for (int i = positions.length - 1; i >= 0; i--) {
+				this.remove(positions[i]);
+			}
+		});
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public E get(int index) {
+		return this.elements.get(index);
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return this.elements.size();
+	}
+	
+	/* (non-Javadoc)
+	 * @see javafx.collections.ModifiableObservableListBase#doAdd(int, java.lang.Object)
+	 */
+	@Override
+	protected void doAdd(int index, E element) {
+		this.elements.add(index, element);
+	}
+	
+	/* (non-Javadoc)
+	 * @see javafx.collections.ModifiableObservableListBase#doSet(int, java.lang.Object)
+	 */
+	@Override
+	protected E doSet(int index, E element) {
+		return this.elements.set(index, element);
+	}
+	
+	/* (non-Javadoc)
+	 * @see javafx.collections.ModifiableObservableListBase#doRemove(int)
+	 */
+	@Override
+	protected E doRemove(int index) {
+		return this.elements.remove(index);
+	}
+}
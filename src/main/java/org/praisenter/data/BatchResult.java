@@ -0,0 +1,37 @@
+package org.praisenter.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a batch create, update or delete.
+ * <p>
+ * The failed items and errors are parallel lists: the error at a given index is
+ * the reason the item at the same index failed.
+ * @author William Bittle
+ * @version 3.0.0
+ * @param <T> the item type
+ */
+public final class BatchResult<T> {
+	private final List<T> succeeded;
+	private final List<T> failed;
+	private final List<Exception> errors;
+	
+	public BatchResult() {
+		this.succeeded = new ArrayList<>();
+		this.failed = new ArrayList<>();
+		this.errors = new ArrayList<>();
+	}
+	
+	public List<T> getSucceeded() {
+		return this.succeeded;
+	}
+	
+	public List<T> getFailed() {
+		return this.failed;
+	}
+	
+	public List<Exception> getErrors() {
+		return this.errors;
+	}
+}
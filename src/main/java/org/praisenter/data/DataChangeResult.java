@@ -0,0 +1,43 @@
+package org.praisenter.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The items that were created, updated or deleted by another program and have
+ * been reloaded (see {@link PersistentStore#watch(java.util.function.Consumer)}).
+ * @author William Bittle
+ * @version 3.0.0
+ * @param <T> the item type
+ */
+public final class DataChangeResult<T> {
+	private final List<T> created;
+	private final List<T> updated;
+	private final List<T> deleted;
+	
+	public DataChangeResult() {
+		this.created = new ArrayList<>();
+		this.updated = new ArrayList<>();
+		this.deleted = new ArrayList<>();
+	}
+	
+	public List<T> getCreated() {
+		return this.created;
+	}
+	
+	public List<T> getUpdated() {
+		return this.updated;
+	}
+	
+	public List<T> getDeleted() {
+		return this.deleted;
+	}
+	
+	/**
+	 * Returns true if nothing changed.
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return this.created.isEmpty() && this.updated.isEmpty() && this.deleted.isEmpty();
+	}
+}
@@ -0,0 +1,236 @@
+package org.praisenter.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.praisenter.ThrowableConsumer;
+import org.praisenter.ThrowableFunction;
+import org.praisenter.data.json.JsonIO;
+
+/**
+ * Loads the files in a directory across a bounded pool of worker threads.
+ * <p>
+ * The files are read in file name order and the items are returned in that order
+ * regardless of which finishes first, so the result is the same from load to load.
+ * A file that fails to load is logged and skipped; it doesn't stop the others.
+ * Temporary files left behind by an interrupted write (see {@link JsonIO}) are
+ * always skipped.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+public final class DirectoryLoader {
+	/** The class-level logger */
+	private static final Logger LOGGER = LogManager.getLogger();
+	
+	/** The maximum number of worker threads (loading is mostly IO and parsing) */
+	private static final int MAXIMUM_THREADS = 8;
+	
+	/** The number used to name the worker threads */
+	private static final AtomicInteger THREAD_NUMBER = new AtomicInteger(0);
+	
+	/** private constructor */
+	private DirectoryLoader() {}
+	
+	/**
+	 * Reads every regular file in the given directory using the given reader.
+	 * <p>
+	 * The reader is called concurrently and can return null to skip a file (one
+	 * that's not of the expected type, for example). Exceptions thrown by the reader
+	 * are logged and the file is skipped.
+	 * @param directory the directory
+	 * @param reader the function to read a file
+	 * @return List&lt;T&gt;
+	 * @throws IOException if the directory can't be read or the load was interrupted
+	 */
+	public static <T> List<T> load(Path directory, ThrowableFunction<Path, T> reader) throws IOException {
+		return load(directory, Files::isRegularFile, reader, null, null, null);
+	}
+	
+	/**
+	 * Reads every path in the given directory accepted by the given filter using
+	 * the given reader.
+	 * @param directory the directory
+	 * @param filter the filter for the paths to read
+	 * @param reader the function to read a path
+	 * @return List&lt;T&gt;
+	 * @throws IOException if the directory can't be read or the load was interrupted
+	 * @see #load(Path, ThrowableFunction)
+	 */
+	public static <T> List<T> load(Path directory, DirectoryStream.Filter<Path> filter, ThrowableFunction<Path, T> reader) throws IOException {
+		return load(directory, filter, reader, null, null, null);
+	}
+	
+	/**
+	 * Reads every regular file in the given directory using the given reader or
+	 * the given snapshot.
+	 * <p>
+	 * Files that haven't changed since the snapshot was taken are deserialized from
+	 * the snapshot as the given class instead of being read. Every item that's loaded
+	 * (either way) is passed to the given initializer and recorded in the snapshot.
+	 * Items whose snapshot entry can't be read are read from their file instead.
+	 * @param directory the directory
+	 * @param reader the function to read a file
+	 * @param clazz the item class; can be null if snapshot is null
+	 * @param initializer the function to finish setting up an item; can be null
+	 * @param snapshot the snapshot; can be null
+	 * @return List&lt;T&gt;
+	 * @throws IOException if the directory can't be read or the load was interrupted
+	 */
+	public static <T> List<T> load(Path directory, ThrowableFunction<Path, T> reader, Class<T> clazz, ThrowableConsumer<T> initializer, DirectorySnapshot snapshot) throws IOException {
+		return load(directory, Files::isRegularFile, reader, clazz, initializer, snapshot);
+	}
+	
+	/**
+	 * Reads every path in the given directory accepted by the given filter using
+	 * the given reader or the given snapshot.
+	 * @param directory the directory
+	 * @param filter the filter for the paths to read
+	 * @param reader the function to read a path
+	 * @param clazz the item class; can be null if snapshot is null
+	 * @param initializer the function to finish setting up an item; can be null
+	 * @param snapshot the snapshot; can be null
+	 * @return List&lt;T&gt;
+	 * @throws IOException if the directory can't be read or the load was interrupted
+	 * @see #load(Path, ThrowableFunction, Class, ThrowableConsumer, DirectorySnapshot)
+	 */
+	private static <T> List<T> load(Path directory, DirectoryStream.Filter<Path> filter, ThrowableFunction<Path, T> reader, Class<T> clazz, ThrowableConsumer<T> initializer, DirectorySnapshot snapshot) throws IOException {
+		ThrowableFunction<Path, T> task = (file) -> {
+			if (snapshot == null) {
+				T item = reader.apply(file);
+				if (item != null && initializer != null) {
+					initializer.accept(item);
+				}
+				return item;
+			}
+			return readWithSnapshot(file, reader, clazz, initializer, snapshot);
+		};
+		
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, filter)) {
+			for (Path file : stream) {
+				if (!JsonIO.isTemporaryFile(file)) {
+					files.add(file);
+				}
+			}
+		}
+		
+		// the directory listing order is platform dependent
+		files.sort((a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString()));
+		
+		List<T> items = new ArrayList<>(files.size());
+		int threads = Math.min(files.size(), Math.min(MAXIMUM_THREADS, Runtime.getRuntime().availableProcessors()));
+		if (threads <= 1) {
+			for (Path file : files) {
+				T item = read(file, task);
+				if (item != null) {
+					items.add(item);
+				}
+			}
+			return items;
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads, (r) -> {
+			Thread thread = new Thread(r, "praisenter-directory-loader-" + THREAD_NUMBER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		try {
+			List<Future<T>> futures = new ArrayList<>(files.size());
+			for (Path file : files) {
+				futures.add(executor.submit(() -> read(file, task)));
+			}
+			
+			// collect in submission order to keep the result deterministic
+			for (Future<T> future : futures) {
+				T item = future.get();
+				if (item != null) {
+					items.add(item);
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException iex = new InterruptedIOException("Loading of '" + directory.toAbsolutePath() + "' was interrupted.");
+			iex.initCause(ex);
+			throw iex;
+		} catch (ExecutionException ex) {
+			// read never throws, so this shouldn't happen
+			throw new IOException(ex.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		return items;
+	}
+	
+	/**
+	 * Reads the given file from the snapshot if it's unchanged or using the reader
+	 * and records it in the snapshot.
+	 * @param file the file
+	 * @param reader the function to read the file
+	 * @param clazz the item class
+	 * @param initializer the function to finish setting up an item; can be null
+	 * @param snapshot the snapshot
+	 * @return T
+	 * @throws Exception if the file can't be read
+	 */
+	private static <T> T readWithSnapshot(Path file, ThrowableFunction<Path, T> reader, Class<T> clazz, ThrowableConsumer<T> initializer, DirectorySnapshot snapshot) throws Exception {
+		String name = file.getFileName().toString();
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().toMillis();
+		
+		T item = null;
+		byte[] data = snapshot.get(name, size, modified);
+		if (data != null) {
+			try {
+				item = JsonIO.read(new ByteArrayInputStream(data), clazz);
+			} catch (Exception ex) {
+				LOGGER.warn("Failed to read the snapshot of '" + file.toAbsolutePath() + "'; reading the file instead: " + ex.getMessage(), ex);
+			}
+		}
+		
+		if (item == null) {
+			item = reader.apply(file);
+			if (item == null) {
+				return null;
+			}
+			data = JsonIO.writeCompact(item);
+		}
+		
+		if (initializer != null) {
+			initializer.accept(item);
+		}
+		snapshot.put(name, size, modified, data);
+		return item;
+	}
+	
+	/**
+	 * Reads the given file, logging and swallowing any exception.
+	 * @param file the file
+	 * @param reader the function to read the file
+	 * @return T
+	 */
+	private static <T> T read(Path file, ThrowableFunction<Path, T> reader) {
+		try {
+			return reader.apply(file);
+		} catch (Exception ex) {
+			LOGGER.error("Failed to load '" + file.toAbsolutePath() + "' due to: " + ex.getMessage(), ex);
+		}
+		return null;
+	}
+}
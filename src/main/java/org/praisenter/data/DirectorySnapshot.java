@@ -0,0 +1,149 @@
+package org.praisenter.data;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A snapshot of the items loaded from a directory, keyed by file name.
+ * <p>
+ * Each entry records the size and last modified time of the file it was created
+ * from along with the item in compact form. When loading, an entry is only used if
+ * the file still has the same size and last modified time; otherwise the file is
+ * read as normal. The entries recorded during a load replace the previous ones
+ * when the snapshot is saved, so files that were removed simply drop out.
+ * <p>
+ * This class is thread safe.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+public final class DirectorySnapshot {
+	/** The entries from the last load */
+	private final Map<String, Entry> previous;
+	
+	/** The entries from this load */
+	private final Map<String, Entry> current;
+	
+	/**
+	 * Creates an empty snapshot.
+	 */
+	public DirectorySnapshot() {
+		this(Collections.emptyMap());
+	}
+	
+	/**
+	 * Creates a snapshot with the given entries from the last load.
+	 * @param previous the previous entries
+	 */
+	private DirectorySnapshot(Map<String, Entry> previous) {
+		this.previous = previous;
+		this.current = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Returns the data stored for the given file or null if there is no entry or
+	 * the file has changed since the entry was created.
+	 * @param name the file name
+	 * @param size the file size in bytes
+	 * @param modified the file's last modified time in milliseconds
+	 * @return byte[]
+	 */
+	public byte[] get(String name, long size, long modified) {
+		Entry entry = this.previous.get(name);
+		if (entry != null && entry.size == size && entry.modified == modified) {
+			return entry.data;
+		}
+		return null;
+	}
+	
+	/**
+	 * Records the data for the given file.
+	 * @param name the file name
+	 * @param size the file size in bytes
+	 * @param modified the file's last modified time in milliseconds
+	 * @param data the item in compact form
+	 */
+	public void put(String name, long size, long modified, byte[] data) {
+		this.current.put(name, new Entry(size, modified, data));
+	}
+	
+	/**
+	 * Reads a snapshot written by {@link #write(DataOutputStream)}.
+	 * @param in the stream
+	 * @return {@link DirectorySnapshot}
+	 * @throws IOException if an IO error occurs or the data is malformed
+	 */
+	public static DirectorySnapshot read(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		if (n < 0) {
+			throw new IOException("Invalid directory snapshot entry count: " + n);
+		}
+		
+		Map<String, Entry> entries = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			String name = in.readUTF();
+			long size = in.readLong();
+			long modified = in.readLong();
+			int length = in.readInt();
+			if (length < 0) {
+				throw new IOException("Invalid directory snapshot entry length: " + length);
+			}
+			byte[] data = new byte[length];
+			in.readFully(data);
+			entries.put(name, new Entry(size, modified, data));
+		}
+		return new DirectorySnapshot(Collections.unmodifiableMap(entries));
+	}
+	
+	/**
+	 * Writes the entries recorded during this load to the given stream.
+	 * @param out the stream
+	 * @throws IOException if an IO error occurs
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		// sort so that the same workspace always produces the same file
+		Map<String, Entry> entries = new TreeMap<>(this.current);
+		out.writeInt(entries.size());
+		for (Map.Entry<String, Entry> e : entries.entrySet()) {
+			Entry entry = e.getValue();
+			out.writeUTF(e.getKey());
+			out.writeLong(entry.size);
+			out.writeLong(entry.modified);
+			out.writeInt(entry.data.length);
+			out.write(entry.data);
+		}
+	}
+	
+	/**
+	 * Represents the snapshot of one file.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class Entry {
+		/** The file size in bytes */
+		private final long size;
+		
+		/** The file's last modified time in milliseconds */
+		private final long modified;
+		
+		/** The item in compact form */
+		private final byte[] data;
+		
+		/**
+		 * Full constructor.
+		 * @param size the file size in bytes
+		 * @param modified the file's last modified time in milliseconds
+		 * @param data the item in compact form
+		 */
+		public Entry(long size, long modified, byte[] data) {
+			this.size = size;
+			this.modified = modified;
+			this.data = data;
+		}
+	}
+}
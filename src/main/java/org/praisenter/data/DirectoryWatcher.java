@@ -0,0 +1,353 @@
+package org.praisenter.data;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.praisenter.data.json.JsonIO;
+
+/**
+ * Watches a directory for files that are created, modified or deleted by other
+ * programs (a file sync tool, for example).
+ * <p>
+ * Events are collected until the directory has been quiet for a moment and then the
+ * listener is called once with all the files that changed. A burst of events, like
+ * a sync of many files or the several events raised by a single write, is reported
+ * together.
+ * <p>
+ * A file is only reported if its size or last modified time differs from the last
+ * time it was seen, either in a previous report or through {@link #record(Path)}.
+ * Recording the files this application writes is how its own changes are ignored.
+ * Temporary files (see {@link JsonIO}) are never reported.
+ * <p>
+ * The directory isn't watched recursively and changes made while it isn't being
+ * watched aren't detected. The listener is called from a background thread, one
+ * call at a time.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+public final class DirectoryWatcher {
+	/** The class-level logger */
+	private static final Logger LOGGER = LogManager.getLogger();
+	
+	/** The time the directory must be quiet before the changes are reported in milliseconds */
+	private static final long QUIET_PERIOD = 500;
+	
+	/** The longest changes are held back by a continuous stream of events in milliseconds */
+	private static final long MAXIMUM_DELAY = 5000;
+	
+	/** The number used to name the threads */
+	private static final AtomicInteger THREAD_NUMBER = new AtomicInteger(0);
+	
+	/** The state of a file that doesn't exist */
+	private static final FileState MISSING = new FileState(-1, -1);
+	
+	/** The watched directory */
+	private final Path directory;
+	
+	/** The function called with the changed files */
+	private final Consumer<List<Path>> listener;
+	
+	/** The last seen state of the files by name */
+	private final Map<Path, FileState> states;
+	
+	/** The names of the files with events that haven't been reported */
+	private final Set<Path> pending;
+	
+	/** The time the oldest pending event was received (from {@link System#nanoTime()}) */
+	private long pendingSince;
+	
+	/** The scheduled report of the pending files */
+	private ScheduledFuture<?> report;
+	
+	/** The watch service; null when not watching */
+	private WatchService service;
+	
+	/** The executor for the reports; null when not watching */
+	private ScheduledExecutorService scheduler;
+	
+	/**
+	 * Minimal constructor.
+	 * @param directory the directory to watch
+	 * @param listener the function called with the changed files
+	 */
+	public DirectoryWatcher(Path directory, Consumer<List<Path>> listener) {
+		this.directory = directory;
+		this.listener = listener;
+		this.states = new ConcurrentHashMap<>();
+		this.pending = new LinkedHashSet<>();
+	}
+	
+	/**
+	 * Starts watching the directory.
+	 * <p>
+	 * Does nothing if the directory is already being watched.
+	 * @throws IOException if the directory can't be watched
+	 */
+	public synchronized void start() throws IOException {
+		if (this.service != null) {
+			return;
+		}
+		
+		WatchService service = this.directory.getFileSystem().newWatchService();
+		try {
+			this.directory.register(service,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+		} catch (IOException ex) {
+			service.close();
+			throw ex;
+		}
+		
+		int number = THREAD_NUMBER.incrementAndGet();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor((r) -> {
+			Thread thread = new Thread(r, "praisenter-directory-watcher-report-" + number);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.service = service;
+		
+		Thread thread = new Thread(() -> this.watch(service), "praisenter-directory-watcher-" + number);
+		thread.setDaemon(true);
+		thread.start();
+		
+		LOGGER.info("Watching '{}' for changes", this.directory.toAbsolutePath());
+	}
+	
+	/**
+	 * Stops watching the directory.
+	 * <p>
+	 * Changes that haven't been reported yet are dropped.
+	 */
+	public synchronized void close() {
+		if (this.service == null) {
+			return;
+		}
+		
+		try {
+			this.service.close();
+		} catch (IOException ex) {
+			LOGGER.warn("Failed to close the watch service for '" + this.directory.toAbsolutePath() + "': " + ex.getMessage(), ex);
+		}
+		this.scheduler.shutdownNow();
+		this.service = null;
+		this.scheduler = null;
+		
+		synchronized (this.pending) {
+			this.pending.clear();
+			this.report = null;
+		}
+	}
+	
+	/**
+	 * Records the current state of the given file so that the events for the change
+	 * that produced it are ignored.
+	 * <p>
+	 * Call this after writing or deleting a file in the directory. Files in other
+	 * directories are ignored.
+	 * @param file the file
+	 */
+	public void record(Path file) {
+		if (file == null || !this.directory.equals(file.getParent())) {
+			return;
+		}
+		this.states.put(file.getFileName(), FileState.of(file));
+	}
+	
+	/**
+	 * Waits for and queues the events of the given watch service until it's closed.
+	 * @param service the watch service
+	 */
+	private void watch(WatchService service) {
+		try {
+			while (true) {
+				WatchKey key = service.take();
+				
+				List<Path> names = new ArrayList<>();
+				boolean overflow = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						overflow = true;
+					} else {
+						names.add((Path)event.context());
+					}
+				}
+				
+				// some events were lost, so check everything
+				if (overflow) {
+					LOGGER.info("Events were lost while watching '{}'; checking all files", this.directory.toAbsolutePath());
+					names.addAll(this.states.keySet());
+					try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+						for (Path file : stream) {
+							names.add(file.getFileName());
+						}
+					} catch (IOException ex) {
+						LOGGER.warn("Failed to list '" + this.directory.toAbsolutePath() + "': " + ex.getMessage(), ex);
+					}
+				}
+				
+				this.queue(names);
+				
+				if (!key.reset()) {
+					LOGGER.warn("Stopped watching '{}' because it's no longer accessible", this.directory.toAbsolutePath());
+					return;
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException ex) {
+			// closed
+		}
+	}
+	
+	/**
+	 * Adds the given files to the pending files and (re)schedules the report.
+	 * @param names the file names
+	 */
+	private void queue(List<Path> names) {
+		synchronized (this.pending) {
+			long now = System.nanoTime();
+			if (this.pending.isEmpty()) {
+				this.pendingSince = now;
+			}
+			
+			for (Path name : names) {
+				if (!JsonIO.isTemporaryFile(name)) {
+					this.pending.add(name);
+				}
+			}
+			
+			if (this.pending.isEmpty()) {
+				return;
+			}
+			
+			if (this.report != null) {
+				this.report.cancel(false);
+			}
+			
+			long waited = TimeUnit.NANOSECONDS.toMillis(now - this.pendingSince);
+			long delay = Math.max(0, Math.min(QUIET_PERIOD, MAXIMUM_DELAY - waited));
+			try {
+				ScheduledExecutorService scheduler = this.scheduler;
+				if (scheduler != null) {
+					this.report = scheduler.schedule(this::report, delay, TimeUnit.MILLISECONDS);
+				}
+			} catch (RejectedExecutionException ex) {
+				// closed
+			}
+		}
+	}
+	
+	/**
+	 * Reports the pending files whose state has changed to the listener.
+	 */
+	private void report() {
+		List<Path> names;
+		synchronized (this.pending) {
+			names = new ArrayList<>(this.pending);
+			this.pending.clear();
+			this.report = null;
+		}
+		
+		List<Path> changed = new ArrayList<>();
+		for (Path name : names) {
+			Path file = this.directory.resolve(name);
+			FileState state = FileState.of(file);
+			FileState previous = state == MISSING
+					? this.states.remove(name)
+					: this.states.put(name, state);
+			if (!state.equals(previous)) {
+				changed.add(file);
+			}
+		}
+		
+		if (changed.isEmpty()) {
+			return;
+		}
+		
+		try {
+			this.listener.accept(changed);
+		} catch (Exception ex) {
+			LOGGER.error("Failed to process the changes to '" + this.directory.toAbsolutePath() + "': " + ex.getMessage(), ex);
+		}
+	}
+	
+	/**
+	 * The size and last modified time of a file.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class FileState {
+		/** The file size in bytes */
+		private final long size;
+		
+		/** The file's last modified time in milliseconds */
+		private final long modified;
+		
+		/**
+		 * Full constructor.
+		 * @param size the file size in bytes
+		 * @param modified the file's last modified time in milliseconds
+		 */
+		public FileState(long size, long modified) {
+			this.size = size;
+			this.modified = modified;
+		}
+		
+		/**
+		 * Returns the current state of the given file.
+		 * @param file the file
+		 * @return {@link FileState}
+		 */
+		public static FileState of(Path file) {
+			try {
+				BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				return new FileState(attributes.size(), attributes.lastModifiedTime().toMillis());
+			} catch (IOException ex) {
+				return MISSING;
+			}
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) return true;
+			if (obj instanceof FileState) {
+				FileState other = (FileState)obj;
+				return this.size == other.size && this.modified == other.modified;
+			}
+			return false;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return Long.hashCode(this.size) * 31 + Long.hashCode(this.modified);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package org.praisenter.data;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Maintains a map from id to position for the items of an observable list.
+ * <p>
+ * The map is kept up to date by listening to the list, so any change to the list
+ * (adds, removes, replacements, permutations) is reflected. Replacing an item or
+ * adding items to the end only touches the affected positions; adding or removing
+ * elsewhere updates the positions of the items after it.
+ * <p>
+ * The ids of the items are assumed not to change while they are in the list. Like
+ * the list itself, this class should only be used from one thread (the Java FX UI
+ * thread for example).
+ * @author William Bittle
+ * @version 3.0.0
+ * @param <T> the item type
+ */
+public final class IdIndex<T extends Identifiable> {
+	/** The indexed list */
+	private final ObservableList<T> list;
+	
+	/** The positions of the items by id */
+	private final Map<UUID, Integer> positions;
+	
+	/**
+	 * Minimal constructor.
+	 * @param list the list to index
+	 */
+	public IdIndex(ObservableList<T> list) {
+		this.list = list;
+		this.positions = new HashMap<>();
+		this.reindex(0, list.size());
+		this.list.addListener(this::onChanged);
+	}
+	
+	/**
+	 * Returns the position of the item with the given id or -1 if it isn't in the list.
+	 * @param id the id
+	 * @return int
+	 */
+	public int indexOf(UUID id) {
+		if (id == null) return -1;
+		Integer index = this.positions.get(id);
+		return index != null ? index : -1;
+	}
+	
+	/**
+	 * Returns the item with the given id or null if it isn't in the list.
+	 * @param id the id
+	 * @return T
+	 */
+	public T get(UUID id) {
+		int index = this.indexOf(id);
+		return index >= 0 ? this.list.get(index) : null;
+	}
+	
+	/**
+	 * Updates the positions for the given change.
+	 * @param c the change
+	 */
+	private void onChanged(ListChangeListener.Change<? extends T> c) {
+		// the position after which everything has moved
+		int shifted = Integer.MAX_VALUE;
+		while (c.next()) {
+			if (c.wasPermutated()) {
+				this.reindex(c.getFrom(), c.getTo());
+			} else if (c.wasAdded() || c.wasRemoved()) {
+				this.remove(c.getRemoved());
+				if (c.getAddedSize() == c.getRemovedSize()) {
+					// a replacement, nothing else moved
+					this.reindex(c.getFrom(), c.getTo());
+				} else {
+					shifted = Math.min(shifted, c.getFrom());
+				}
+			}
+		}
+		if (shifted < Integer.MAX_VALUE) {
+			this.reindex(shifted, this.list.size());
+		}
+	}
+	
+	/**
+	 * Removes the positions of the given items.
+	 * <p>
+	 * If an item was replaced by one with the same id, the new item's position is
+	 * recorded again when its range is reindexed.
+	 * @param items the removed items
+	 */
+	private void remove(List<? extends T> items) {
+		for (T item : items) {
+			this.positions.remove(item.getId());
+		}
+	}
+	
+	/**
+	 * Records the positions of the items in the given range.
+	 * @param from the start index (inclusive)
+	 * @param to the end index (exclusive)
+	 */
+	private void reindex(int from, int to) {
+		for (int i = from; i < to; i++) {
+			this.positions.put(this.list.get(i).getId(), i);
+		}
+	}
+}
@@ -8,9 +8,34 @@ import java.util.zip.ZipOutputStream;
 public interface PersistAdapter<T extends Persistable> {
 	public void initialize() throws IOException;
 	public List<T> load() throws IOException;
+	
+	/**
+	 * Loads all items, using the given snapshot for the files that haven't changed
+	 * since it was taken and recording the loaded items in it.
+	 * <p>
+	 * By default the snapshot is ignored and {@link #load()} is called.
+	 * @param snapshot the snapshot
+	 * @return List&lt;T&gt;
+	 * @throws IOException if an IO error occurs
+	 */
+	public default List<T> load(DirectorySnapshot snapshot) throws IOException {
+		return this.load();
+	}
+	
 	public void create(T item) throws IOException;
 	public void update(T item) throws IOException;
 	public void delete(T item) throws IOException;
+	
+	/**
+	 * Writes the stored form of the given item again in the configured storage format.
+	 * <p>
+	 * The stored form is read and written back as it is, so a save made in the
+	 * meantime is kept. The given item is only used to find the stored form and
+	 * isn't changed.
+	 * @param item the item
+	 * @throws IOException if an IO error occurs
+	 */
+	public void rewrite(T item) throws IOException;
 	public DataImportResult<T> importData(Path path) throws IOException;
 	public void exportData(KnownFormat format, ZipOutputStream destination, List<T> items) throws IOException;
 	public void exportData(KnownFormat format, Path path, T item) throws IOException;
@@ -32,4 +32,16 @@ public interface Persistable extends Indexable, Identifiable, Copyable {
 	public ObservableSet<Tag> getTagsUnmodifiable();
 	
 	public Persistable copy();
+	
+	/**
+	 * Returns a copy of the current state of this object to be saved.
+	 * <p>
+	 * The returned object must not change when this object changes afterwards. By
+	 * default this is the same as {@link #copy()}; implementations can share anything
+	 * that's immutable or that hasn't changed since the last snapshot.
+	 * @return {@link Persistable}
+	 */
+	public default Persistable snapshot() {
+		return this.copy();
+	}
 }
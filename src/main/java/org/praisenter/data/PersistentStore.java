@@ -1,13 +1,20 @@
 package org.praisenter.data;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.zip.ZipOutputStream;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.praisenter.ThrowableConsumer;
 import org.praisenter.async.AsyncHelper;
 import org.praisenter.data.search.SearchIndex;
 
@@ -16,25 +23,42 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 public final class PersistentStore<T extends Persistable> {
+	private static final Logger LOGGER = LogManager.getLogger();
+	
 	private final PersistAdapter<T> adapter;
 	private final SearchIndex index;
 	
-	private final ObservableList<T> items;
+	private final BatchObservableList<T> items;
 	private final ObservableList<T> itemsReadOnly;
+	private final IdIndex<T> itemIndex;
+	
+	/** The watcher for changes made by other programs; null when not watching */
+	private volatile DirectoryWatcher watcher;
 	
 	public PersistentStore(PersistAdapter<T> adapter, SearchIndex index) {
 		this.adapter = adapter;
 		this.index = index;
 		
-		this.items = FXCollections.observableArrayList();
+		this.items = new BatchObservableList<>();
 		this.itemsReadOnly = FXCollections.unmodifiableObservableList(this.items);
+		this.itemIndex = new IdIndex<>(this.items);
 	}
 	
 	public CompletableFuture<List<T>> initialize() {
+		return this.initialize(null);
+	}
+	
+	/**
+	 * Initializes the adapter and loads all items using the given snapshot.
+	 * @param snapshot the snapshot; can be null
+	 * @return CompletableFuture&lt;List&lt;T&gt;&gt;
+	 * @see PersistAdapter#load(DirectorySnapshot)
+	 */
+	public CompletableFuture<List<T>> initialize(DirectorySnapshot snapshot) {
 		return CompletableFuture.supplyAsync(() -> {
 			try {
 				this.adapter.initialize();
-				return this.adapter.load();
+				return snapshot != null ? this.adapter.load(snapshot) : this.adapter.load();
 			} catch (Exception ex) {
 				throw new CompletionException(ex);
 			}
@@ -57,20 +81,15 @@ public final class PersistentStore<T extends Persistable> {
 	
 	public T getItem(UUID id) {
 		this.throwIfNotJavaFXThread();
-		for (int i = 0; i < this.items.size(); i++) {
-			T item = this.items.get(i);
-			if (id.equals(item.getId())) {
-				return item;
-			}
-		}
-		return null;
+		return this.itemIndex.get(id);
 	}
 	
 	public CompletableFuture<Void> create(T item) {
 		return CompletableFuture.runAsync(() -> {
 			try {
 				this.adapter.create(item);
-				this.index.create(item);
+				this.record(item);
+				this.index.queueUpdate(item);
 			} catch (Exception ex) {
 				throw new CompletionException(ex);
 			}
@@ -83,19 +102,14 @@ public final class PersistentStore<T extends Persistable> {
 		return CompletableFuture.runAsync(() -> {
 			try {
 				this.adapter.update(item);
-				this.index.update(item);
+				this.record(item);
+				this.index.queueUpdate(item);
 			} catch (Exception ex) {
 				throw new CompletionException(ex);
 			}
 		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
-			int index = -1;
-			for (int i = 0; i < this.items.size(); i++) {
-				T test = this.items.get(i);
-				if (test.getId().equals(item.getId())) {
-					index = i;
-				}
-			}
-			if (index >= 0 && index < this.items.size()) {
+			int index = this.itemIndex.indexOf(item.getId());
+			if (index >= 0) {
 				this.items.set(index, item);
 			}
 		}));
@@ -105,25 +119,149 @@ public final class PersistentStore<T extends Persistable> {
 		return CompletableFuture.runAsync(() -> {
 			try {
 				this.adapter.delete(item);
-				this.index.delete(item);
+				this.record(item);
+				this.index.queueDelete(item);
 			} catch (Exception ex) {
 				throw new CompletionException(ex);
 			}
 		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.items.removeIf(i -> i.getId().equals(item.getId()));
+			int index = this.itemIndex.indexOf(item.getId());
+			if (index >= 0) {
+				this.items.remove(index);
+			}
 		}));
 	}
 	
+	/**
+	 * Creates all the given items.
+	 * <p>
+	 * The items are written concurrently and indexed together. A failure to create one
+	 * item doesn't stop the others; check the result for the items that failed.
+	 * @param items the items
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;T&gt;&gt;
+	 */
+	public CompletableFuture<BatchResult<T>> createAll(List<T> items) {
+		return CompletableFuture.supplyAsync(() -> {
+			BatchResult<T> result = this.writeAll(items, this.adapter::create);
+			this.index.queueUpdates(result.getSucceeded());
+			return result;
+		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
+			this.items.addAll(result.getSucceeded());
+			return result;
+		}));
+	}
+	
+	/**
+	 * Updates all the given items.
+	 * <p>
+	 * The items are written concurrently and indexed together. A failure to update one
+	 * item doesn't stop the others; check the result for the items that failed.
+	 * @param items the items
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;T&gt;&gt;
+	 */
+	public CompletableFuture<BatchResult<T>> updateAll(List<T> items) {
+		return CompletableFuture.supplyAsync(() -> {
+			BatchResult<T> result = this.writeAll(items, this.adapter::update);
+			this.index.queueUpdates(result.getSucceeded());
+			return result;
+		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
+			this.items.batch(() -> {
+				for (T item : result.getSucceeded()) {
+					int index = this.itemIndex.indexOf(item.getId());
+					if (index >= 0) {
+						this.items.set(index, item);
+					}
+				}
+			});
+			return result;
+		}));
+	}
+	
+	/**
+	 * Deletes all the given items.
+	 * <p>
+	 * The items are deleted concurrently and removed from the index together. A failure
+	 * to delete one item doesn't stop the others; check the result for the items that failed.
+	 * @param items the items
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;T&gt;&gt;
+	 */
+	public CompletableFuture<BatchResult<T>> deleteAll(List<T> items) {
+		return CompletableFuture.supplyAsync(() -> {
+			BatchResult<T> result = this.writeAll(items, this.adapter::delete);
+			this.index.queueDeletes(result.getSucceeded());
+			return result;
+		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
+			this.items.removeIndices(result.getSucceeded().stream()
+					.mapToInt((item) -> this.itemIndex.indexOf(item.getId()))
+					.toArray());
+			return result;
+		}));
+	}
+	
+	/**
+	 * Writes the stored form of all the given items again in the configured storage format.
+	 * <p>
+	 * The files are converted rather than the items, so the items aren't changed and
+	 * neither this store's list nor the search index are updated. See
+	 * {@link PersistAdapter#rewrite(Persistable)}.
+	 * @param items the items
+	 * @param progress called after each item is written
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;T&gt;&gt;
+	 */
+	public CompletableFuture<BatchResult<T>> rewriteAll(List<T> items, Runnable progress) {
+		return CompletableFuture.supplyAsync(() -> {
+			return this.writeAll(items, (item) -> {
+				try {
+					this.adapter.rewrite(item);
+				} finally {
+					progress.run();
+				}
+			});
+		});
+	}
+	
+	/**
+	 * Performs the given operation on all the given items concurrently.
+	 * @param items the items
+	 * @param operation the operation
+	 * @return {@link BatchResult}&lt;T&gt;
+	 */
+	private BatchResult<T> writeAll(List<T> items, ThrowableConsumer<T> operation) {
+		Exception[] errors = new Exception[items.size()];
+		IntStream.range(0, items.size()).parallel().forEach((i) -> {
+			try {
+				operation.accept(items.get(i));
+				this.record(items.get(i));
+			} catch (Exception ex) {
+				errors[i] = ex;
+			}
+		});
+		
+		// keep the order of the given items
+		BatchResult<T> result = new BatchResult<>();
+		for (int i = 0; i < errors.length; i++) {
+			if (errors[i] == null) {
+				result.getSucceeded().add(items.get(i));
+			} else {
+				result.getFailed().add(items.get(i));
+				result.getErrors().add(errors[i]);
+			}
+		}
+		return result;
+	}
+	
 	public CompletableFuture<DataImportResult<T>> importData(Path path, boolean isTypeKnown) {
 		return CompletableFuture.supplyAsync(() -> {
 			try {
 				DataImportResult<T> result = this.adapter.importData(path);
 				if (result != null) {
 					for (T item : result.getCreated()) {
-						this.index.create(item);
+						this.record(item);
+						this.index.queueUpdate(item);
 					}
 					for (T item : result.getUpdated()) {
-						this.index.update(item);
+						this.record(item);
+						this.index.queueUpdate(item);
 					}
 				}
 				return result;
@@ -136,15 +274,17 @@ public final class PersistentStore<T extends Persistable> {
 			}
 		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
 			if (result != null) {
-				for (T item : result.getUpdated()) {
-					int index = this.items.indexOf(item);
-					if (index < 0 || index >= this.items.size()) {
-						this.items.add(item);
-					} else {
-						this.items.set(index, item);
+				this.items.batch(() -> {
+					for (T item : result.getUpdated()) {
+						int index = this.itemIndex.indexOf(item.getId());
+						if (index < 0) {
+							this.items.add(item);
+						} else {
+							this.items.set(index, item);
+						}
 					}
-				}
-				this.items.addAll(result.getCreated());
+					this.items.addAll(result.getCreated());
+				});
 			}
 			return result;
 		}));
@@ -167,4 +307,120 @@ public final class PersistentStore<T extends Persistable> {
 	public Path getFilePath(T item) {
 		return this.adapter.getFilePath(item);
 	}
+	
+	/**
+	 * Starts watching this store's folder for items that are created, changed or
+	 * deleted by other programs.
+	 * <p>
+	 * Only the affected items are reloaded. They are indexed and replaced in this
+	 * store's list and then passed to the given listener on the Java FX UI thread.
+	 * Changes made through this store are ignored. Does nothing if this store is
+	 * already being watched.
+	 * @param listener called with the reloaded items
+	 * @return boolean true if the folder is being watched; false if the adapter doesn't support it
+	 * @throws IOException if the folder can't be watched
+	 * @see WatchablePersistAdapter
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized boolean watch(Consumer<DataChangeResult<T>> listener) throws IOException {
+		if (!(this.adapter instanceof WatchablePersistAdapter)) {
+			return false;
+		}
+		
+		WatchablePersistAdapter<T> adapter = (WatchablePersistAdapter<T>)this.adapter;
+		if (this.watcher == null) {
+			DirectoryWatcher watcher = new DirectoryWatcher(adapter.getWatchPath(), (files) -> this.reload(adapter, files, listener));
+			watcher.start();
+			this.watcher = watcher;
+		}
+		return true;
+	}
+	
+	/**
+	 * Stops watching this store's folder.
+	 */
+	public synchronized void unwatch() {
+		if (this.watcher != null) {
+			this.watcher.close();
+			this.watcher = null;
+		}
+	}
+	
+	/**
+	 * Records the state of the given item's file so that the watcher ignores the
+	 * change that was just made to it.
+	 * @param item the item
+	 */
+	private void record(T item) {
+		DirectoryWatcher watcher = this.watcher;
+		if (watcher != null) {
+			watcher.record(this.adapter.getFilePath(item));
+		}
+	}
+	
+	/**
+	 * Reloads the items stored in the given files, which were changed by another program.
+	 * @param adapter the adapter to read the files with
+	 * @param files the changed files
+	 * @param listener called with the reloaded items
+	 */
+	private void reload(WatchablePersistAdapter<T> adapter, List<Path> files, Consumer<DataChangeResult<T>> listener) {
+		List<T> changed = new ArrayList<>();
+		List<UUID> deleted = new ArrayList<>();
+		for (Path file : files) {
+			if (Files.exists(file)) {
+				try {
+					T item = adapter.read(file);
+					if (item != null) {
+						changed.add(item);
+					}
+				} catch (Exception ex) {
+					LOGGER.warn("Failed to reload '" + file.toAbsolutePath() + "' after it was changed: " + ex.getMessage(), ex);
+				}
+			} else {
+				UUID id = adapter.getId(file);
+				if (id != null) {
+					deleted.add(id);
+				}
+			}
+		}
+		
+		if (changed.isEmpty() && deleted.isEmpty()) {
+			return;
+		}
+		
+		LOGGER.info("Reloading {} item(s) and removing {} item(s) changed outside of Praisenter", changed.size(), deleted.size());
+		this.index.queueUpdates(changed);
+		AsyncHelper.onJavaFXThread(() -> {
+			DataChangeResult<T> result = new DataChangeResult<>();
+			
+			// the positions aren't updated until the batch completes, so get
+			// them before anything moves, replace, remove and add to the end last
+			int[] removed = deleted.stream().mapToInt(this.itemIndex::indexOf).toArray();
+			for (int index : removed) {
+				if (index >= 0) {
+					result.getDeleted().add(this.items.get(index));
+				}
+			}
+			
+			this.items.batch(() -> {
+				for (T item : changed) {
+					int index = this.itemIndex.indexOf(item.getId());
+					if (index < 0) {
+						result.getCreated().add(item);
+					} else {
+						this.items.set(index, item);
+						result.getUpdated().add(item);
+					}
+				}
+				this.items.removeIndices(removed);
+				this.items.addAll(result.getCreated());
+			});
+			
+			if (!result.isEmpty()) {
+				this.index.queueDeletes(result.getDeleted());
+				listener.accept(result);
+			}
+		});
+	}
 }
@@ -0,0 +1,10 @@
+package org.praisenter.data;
+
+import org.praisenter.data.json.StorageFormat;
+
+public interface StorageConfiguration {
+	/** The default storage format (the format used before it was configurable) */
+	public static final StorageFormat DEFAULT_STORAGE_FORMAT = StorageFormat.PRETTY;
+	
+	public StorageFormat getStorageFormat();
+}
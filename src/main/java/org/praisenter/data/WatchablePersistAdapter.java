@@ -0,0 +1,41 @@
+package org.praisenter.data;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * A {@link PersistAdapter} that stores each item in its own file of a single folder so
+ * that items created, changed or deleted by other programs can be reloaded individually.
+ * @author William Bittle
+ * @version 3.0.0
+ * @param <T> the item type
+ * @see PersistentStore#watch(java.util.function.Consumer)
+ */
+public interface WatchablePersistAdapter<T extends Persistable> extends PersistAdapter<T> {
+	/**
+	 * Returns the folder to watch for items created, changed or deleted by other programs.
+	 * @return Path
+	 */
+	public Path getWatchPath();
+	
+	/**
+	 * Reads the item stored in the given file of the watched folder.
+	 * <p>
+	 * Returns null if the file doesn't store an item of this type.
+	 * @param path the file
+	 * @return T
+	 * @throws IOException if an IO error occurs
+	 */
+	public T read(Path path) throws IOException;
+	
+	/**
+	 * Returns the id of the item the given file of the watched folder stores, even
+	 * if the file no longer exists.
+	 * <p>
+	 * Returns null if the file isn't named like the files this adapter writes.
+	 * @param path the file
+	 * @return UUID
+	 */
+	public UUID getId(Path path);
+}
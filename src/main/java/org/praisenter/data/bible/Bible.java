@@ -1,5 +1,7 @@
 package org.praisenter.data.bible;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -7,14 +9,20 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.util.BytesRef;
 import org.praisenter.Constants;
 import org.praisenter.Editable;
 import org.praisenter.Version;
@@ -35,6 +43,7 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -50,6 +59,9 @@ import javafx.collections.ObservableSet;
 @JsonTypeName(value = "bible")
 @Editable
 public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copyable, Identifiable, Localized {
+	/** The class level logger */
+	private static final Logger LOGGER = LogManager.getLogger();
+	
 	/** The lucene field to store the book number as a searchable value */
 	public static final String FIELD_BOOK_ID = "bookid";
 	
@@ -62,6 +74,9 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	/** The lucene field to store the verse number */
 	public static final String FIELD_VERSE_NUMBER = "verse";
 	
+	/** The lucene field to store the position of the verse in the bible (see {@link #getVerse(int)}) */
+	public static final String FIELD_VERSE_ORDINAL = "ordinal";
+	
 	/** The data type */
 	public static final String DATA_TYPE_BIBLE = "bible";
 	
@@ -81,6 +96,30 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	private final ObservableSet<Tag> tags;
 	private final ObservableSet<Tag> tagsReadOnly;
 
+	/** The compact form of the books; null when the full model is in use */
+	private volatile CompactBible compact;
+	
+	/** The verse lookup index; null until needed or after an edit */
+	private volatile VerseIndex verseIndex;
+	
+	/** The lock for building/discarding the verse index and switching between the compact and full model */
+	private final Object verseIndexLock;
+	
+	/** Discards the verse index when the structure of the bible changes */
+	private final InvalidationListener verseIndexInvalidator;
+	
+	/** Loads the compact form on demand; null if the content is always in memory */
+	private volatile BibleContentLoader contentLoader;
+	
+	/** Tracks this bible's loaded content for eviction; can be null */
+	private volatile BibleContentCache contentCache;
+	
+	/** The number of books when the content isn't loaded */
+	private int contentBookCount;
+	
+	/** The number of verses when the content isn't loaded */
+	private int contentVerseCount;
+	
 	public Bible() {
 		this.format = new SimpleStringProperty(Constants.FORMAT_NAME);
 		this.version = new SimpleStringProperty(Version.STRING);
@@ -97,6 +136,11 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 		this.booksReadOnly = FXCollections.unmodifiableObservableList(this.books);
 		this.tags = FXCollections.observableSet(new HashSet<>());
 		this.tagsReadOnly = FXCollections.unmodifiableObservableSet(this.tags);
+		
+		this.compact = null;
+		this.verseIndex = null;
+		this.verseIndexLock = new Object();
+		this.verseIndexInvalidator = (obs) -> this.invalidateVerseIndex();
 	}
 	
 	public Bible(String name) {
@@ -131,6 +175,45 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public Bible copy() {
+		Bible b = this.copyHeader();
+		for (ReadOnlyBook book : this.getBooksUnmodifiable()) {
+			b.books.add((Book)book.copy());
+		}
+		return b;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.Persistable#snapshot()
+	 */
+	@Override
+	public Bible snapshot() {
+		Bible b = this.copyHeader();
+		
+		// the compact form is immutable so it can be shared as is
+		CompactBible compact = this.getContent();
+		if (compact != null) {
+			b.setCompactBible(compact);
+			return b;
+		}
+		
+		// otherwise only copy the books that changed since the last snapshot
+		List<ReadOnlyBook> books = new ArrayList<>(this.books.size());
+		int verses = 0;
+		for (Book book : this.books) {
+			books.add(book.snapshot());
+			verses += getVerseCount(book);
+		}
+		
+		// and leave combining them to whoever reads the content first
+		b.setContentLoader(() -> new CompactBible(books), null, books.size(), verses);
+		return b;
+	}
+	
+	/**
+	 * Returns a copy of this bible without any books.
+	 * @return {@link Bible}
+	 */
+	Bible copyHeader() {
 		Bible b = new Bible();
 		b.format.set(this.format.get());
 		b.version.set(this.version.get());
@@ -142,9 +225,6 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 		b.source.set(this.source.get());
 		b.copyright.set(this.copyright.get());
 		b.notes.set(this.notes.get());
-		for (Book book : this.books) {
-			b.books.add(book.copy());
-		}
 		b.tags.addAll(this.tags);
 		return b;
 	}
@@ -172,44 +252,104 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	@Override
 	public List<Document> index() {
 		List<Document> documents = new ArrayList<Document>();
-		for (Book book : this.getBooks()) {
-			for (Chapter chapter : book.getChapters()) {
-				for (Verse verse : chapter.getVerses()) {
-					Document document = new Document();
+		int ordinal = 0;
+		for (ReadOnlyBook book : this.getBooksUnmodifiable()) {
+			documents.addAll(this.index(book, ordinal));
+			ordinal += getVerseCount(book);
+		}
+		documents.addAll(this.indexTags());
+		return documents;
+	}
 
-					// allow filtering by the bible id
-					document.add(new StringField(FIELD_ID, this.getId().toString(), Field.Store.YES));
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.search.Indexable#getIndexParts()
+	 */
+	@Override
+	public List<Supplier<List<Document>>> getIndexParts() {
+		// index each book separately since bibles can have
+		// tens of thousands of verses
+		List<Supplier<List<Document>>> parts = new ArrayList<>();
+		int ordinal = 0;
+		for (ReadOnlyBook book : this.getBooksUnmodifiable()) {
+			final int start = ordinal;
+			parts.add(() -> this.index(book, start));
+			ordinal += getVerseCount(book);
+		}
+		parts.add(this::indexTags);
+		return parts;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.search.Indexable#getIndexStamp()
+	 */
+	@Override
+	public String getIndexStamp() {
+		// the content only changes when the bible is saved, which updates the
+		// modified date, but the tags can be changed without saving
+		Instant modified = this.modifiedDate.get();
+		return (modified != null ? modified.toEpochMilli() : 0) + " " +
+				this.tags.stream().map(t -> t.getName()).sorted().collect(Collectors.joining(" "));
+	}
 					
-					// allow filtering by type
-					document.add(new StringField(FIELD_TYPE, DATA_TYPE_BIBLE, Field.Store.YES));
+	/**
+	 * Returns the documents for all the verses in the given book.
+	 * @param book the book
+	 * @param ordinal the ordinal of the first verse in the book
+	 * @return List&lt;Document&gt;
+	 */
+	private List<Document> index(ReadOnlyBook book, int ordinal) {
+		List<Document> documents = new ArrayList<Document>();
+		BytesRef id = new BytesRef(this.getId().toString());
+		for (ReadOnlyChapter chapter : book.getChaptersUnmodifiable()) {
+			for (ReadOnlyVerse verse : chapter.getVersesUnmodifiable()) {
+				Document document = new Document();
 					
-					// allow filtering by the book number
-					document.add(new IntPoint(FIELD_BOOK_ID, book.getNumber()));
+				// allow filtering by the bible id
+				document.add(new StringField(FIELD_ID, this.getId().toString(), Field.Store.YES));
 					
-					// stored data so we can look up the verse
-					document.add(new StoredField(FIELD_BOOK_NUMBER, book.getNumber()));
-					document.add(new StoredField(FIELD_VERSE_CHAPTER, chapter.getNumber()));
-					document.add(new StoredField(FIELD_VERSE_NUMBER, verse.getNumber()));
+				// allow filtering by type
+				document.add(new StringField(FIELD_TYPE, DATA_TYPE_BIBLE, Field.Store.YES));
 					
-					if (!StringManipulator.isNullOrEmpty(verse.getText())) {
-						document.add(new TextField(FIELD_TEXT, verse.getText(), Field.Store.YES));
-					}
+				// allow filtering by the book number
+				document.add(new IntPoint(FIELD_BOOK_ID, book.getNumber()));
 					
-					documents.add(document);
+				// stored data so we can look up the verse
+				document.add(new StoredField(FIELD_BOOK_NUMBER, book.getNumber()));
+				document.add(new StoredField(FIELD_VERSE_CHAPTER, chapter.getNumber()));
+				document.add(new StoredField(FIELD_VERSE_NUMBER, verse.getNumber()));
+				
+				// the same data as doc values so search results can be resolved without
+				// loading the stored fields (see BibleTextSearchCriteria#getDocValueFields)
+				document.add(new SortedDocValuesField(FIELD_ID, id));
+				document.add(new NumericDocValuesField(FIELD_BOOK_NUMBER, book.getNumber()));
+				document.add(new NumericDocValuesField(FIELD_VERSE_CHAPTER, chapter.getNumber()));
+				document.add(new SortedDocValuesField(FIELD_VERSE_NUMBER, new BytesRef(verse.getNumber())));
+				document.add(new NumericDocValuesField(FIELD_VERSE_ORDINAL, ordinal++));
+				
+				if (!StringManipulator.isNullOrEmpty(verse.getText())) {
+					document.add(new Field(FIELD_TEXT, verse.getText(), TEXT_FIELD_TYPE));
 				}
+				
+				documents.add(document);
 			}
 		}
+		return documents;
+	}
 		
+	/**
+	 * Returns the document for the tags of this bible (if any).
+	 * @return List&lt;Document&gt;
+	 */
+	private List<Document> indexTags() {
 		String tags = this.tags.stream().map(t -> t.getName()).collect(Collectors.joining(" "));
 		if (!StringManipulator.isNullOrEmpty(tags)) {
 			Document document = new Document();
 			document.add(new StringField(FIELD_ID, this.getId().toString(), Field.Store.YES));
 			document.add(new StringField(FIELD_TYPE, DATA_TYPE_BIBLE, Field.Store.YES));
 			document.add(new TextField(FIELD_TAGS, tags, Field.Store.YES));
-			documents.add(document);
+			return List.of(document);
 		}
-		
-		return documents;
+		return List.of();
 	}
 	
 	/**
@@ -218,11 +358,21 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public int getVerseCount() {
+		if (this.compact == null && this.contentLoader != null) {
+			return this.contentVerseCount;
+		}
+		return this.getVerseLookup().size();
+	}
+	
+	/**
+	 * Returns the number of verses in the given book.
+	 * @param book the book
+	 * @return int
+	 */
+	static int getVerseCount(ReadOnlyBook book) {
 		int n = 0;
-		for (Book book : this.books) {
-			for (Chapter chapter : book.getChapters()) {
-				n += chapter.getVerses().size();
-			}
+		for (ReadOnlyChapter chapter : book.getChaptersUnmodifiable()) {
+			n += chapter.getVersesUnmodifiable().size();
 		}
 		return n;
 	}
@@ -233,7 +383,23 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public int getBookCount() {
-		return this.books.size();
+		if (this.compact == null && this.contentLoader != null) {
+			return this.contentBookCount;
+		}
+		return this.getBooksUnmodifiable().size();
+	}
+	
+	/**
+	 * Returns the verse at the given ordinal or null if it doesn't exist.
+	 * <p>
+	 * The ordinal is the zero-based position of the verse in the bible in
+	 * book, chapter, verse order.
+	 * @param ordinal the ordinal
+	 * @return {@link LocatedVerse}
+	 */
+	@Override
+	public LocatedVerse getVerse(int ordinal) {
+		return this.getVerseLookup().get(this, ordinal);
 	}
 
 	/**
@@ -245,20 +411,10 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public LocatedVerse getVerse(int bookNumber, int chapterNumber, String verseNumber) {
-		for (Book book : this.books) {
-			if (bookNumber == book.getNumber()) {
-				for (Chapter chapter : book.getChapters()) {
-					if (chapterNumber == chapter.getNumber()) {
-						for (Verse verse : chapter.getVerses()) {
-							if (verse.getNumber().equalsIgnoreCase(verseNumber)) {
-								return new LocatedVerse(this, book, chapter, verse);
-							}
-						}
-					}
-				}
-			}
-		}
-		return null;
+		VerseLookup index = this.getVerseLookup();
+		int ordinal = index.getFirstOrdinal(bookNumber, chapterNumber, verseNumber);
+		if (ordinal < 0) return null;
+		return index.get(this, ordinal);
 	}
 	
 	/**
@@ -276,27 +432,10 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public LocatedVerse getNextVerse(int bookNumber, int chapterNumber, String verseNumber) {
-		boolean found = false;
-		for (Book book : this.books) {
-			if (found || book.getNumber() == bookNumber) {
-				for (Chapter chapter : book.getChapters()) {
-					if (found || chapter.getNumber() == chapterNumber) {
-						for (Verse verse : chapter.getVerses()) {
-							if (!found && verse.getNumber().equalsIgnoreCase(verseNumber)) {
-								// we've found the verse
-								// so try to go to the next one
-								found = true;
-								continue;
-							}
-							if (found) {
-								return new LocatedVerse(this, book, chapter, verse);
-							}
-						}
-					}
-				}
-			}
-		}
-		return null;
+		VerseLookup index = this.getVerseLookup();
+		int ordinal = index.getFirstOrdinal(bookNumber, chapterNumber, verseNumber);
+		if (ordinal < 0) return null;
+		return index.get(this, ordinal + 1);
 	}
 	
 	/**
@@ -314,32 +453,10 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public LocatedVerse getPreviousVerse(int bookNumber, int chapterNumber, String verseNumber) {
-		boolean found = false;
-		for (int i = this.books.size() - 1; i >= 0; i--) {
-			Book book = this.books.get(i);
-			if (found || book.getNumber() == bookNumber) {
-				List<Chapter> chapters = book.getChapters();
-				for (int j = chapters.size() - 1; j >= 0; j--) {
-					Chapter chapter = chapters.get(j);
-					if (found || chapter.getNumber() == chapterNumber) {
-						List<Verse> verses = chapter.getVerses();
-						for (int k = verses.size() - 1; k >= 0; k--) {
-							Verse verse = verses.get(k);
-							if (!found && verse.getNumber().equalsIgnoreCase(verseNumber)) {
-								// we've found the verse
-								// so try to go to the next one
-								found = true;
-								continue;
-							}
-							if (found) {
-								return new LocatedVerse(this, book, chapter, verse);
-							}
-						}
-					}
-				}
-			}
-		}
-		return null;
+		VerseLookup index = this.getVerseLookup();
+		int ordinal = index.getLastOrdinal(bookNumber, chapterNumber, verseNumber);
+		if (ordinal < 0) return null;
+		return index.get(this, ordinal - 1);
 	}
 	
 	/**
@@ -361,35 +478,14 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public LocatedVerseTriplet getTriplet(int bookNumber, int chapterNumber, String verseNumber) {
-		LocatedVerse current = null;
-		LocatedVerse next = null;
-		boolean start = false;
-		for (Book book : this.books) {
-			if (start || book.getNumber() == bookNumber) {
-				for (Chapter chapter : book.getChapters()) {
-					if (start || chapter.getNumber() == chapterNumber) {
-						for (Verse verse : chapter.getVerses()) {
-							if (!start && verse.getNumber().equalsIgnoreCase(verseNumber)) {
-								// we've found the verse
-								// so try to go to the next one
-								current = new LocatedVerse(this, book, chapter, verse);
-								start = true;
-								continue;
-							} else if (start && next == null) {
-								next = new LocatedVerse(this, book, chapter, verse);
-							}
-						}
-					}
-				}
-			}
-		}
-		if (current != null) {
-			return new LocatedVerseTriplet(
-					this.getPreviousVerse(bookNumber, chapterNumber, verseNumber), 
-					current, 
-					next);
-		}
-		return null;
+		VerseLookup index = this.getVerseLookup();
+		int ordinal = index.getFirstOrdinal(bookNumber, chapterNumber, verseNumber);
+		if (ordinal < 0) return null;
+		int last = index.getLastOrdinal(bookNumber, chapterNumber, verseNumber);
+		return new LocatedVerseTriplet(
+				index.get(this, last - 1),
+				index.get(this, ordinal),
+				index.get(this, ordinal + 1));
 	}
 	
 	/**
@@ -411,36 +507,15 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public LocatedVerseTriplet getNextTriplet(int bookNumber, int chapterNumber, String verseNumber) {
-		LocatedVerse previous = null;
-		LocatedVerse current = null;
-		LocatedVerse next = null;
-		boolean start = false;
-		for (Book book : this.books) {
-			if (start || book.getNumber() == bookNumber) {
-				for (Chapter chapter : book.getChapters()) {
-					if (start || chapter.getNumber() == chapterNumber) {
-						for (Verse verse : chapter.getVerses()) {
-							if (!start && verse.getNumber().equalsIgnoreCase(verseNumber)) {
-								// we've found the verse
-								// so try to go to the next one
-								previous = new LocatedVerse(this, book, chapter, verse);
-								start = true;
-								continue;
-							} else if (start && current == null) {
-								current = new LocatedVerse(this, book, chapter, verse);
-							} else if (start && next == null) {
-								next = new LocatedVerse(this, book, chapter, verse);
-								return new LocatedVerseTriplet(previous, current, next);
-							}
-						}
-					}
-				}
-			}
-		}
-		if (current != null) {
-			return new LocatedVerseTriplet(previous, current, next);
-		}
-		return null;
+		VerseLookup index = this.getVerseLookup();
+		int ordinal = index.getFirstOrdinal(bookNumber, chapterNumber, verseNumber);
+		if (ordinal < 0) return null;
+		LocatedVerse current = index.get(this, ordinal + 1);
+		if (current == null) return null;
+		return new LocatedVerseTriplet(
+				index.get(this, ordinal),
+				current,
+				index.get(this, ordinal + 2));
 	}
 	
 	/**
@@ -462,41 +537,210 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	 */
 	@Override
 	public LocatedVerseTriplet getPreviousTriplet(int bookNumber, int chapterNumber, String verseNumber) {
-		LocatedVerse previous = null;
-		LocatedVerse current = null;
-		LocatedVerse next = null;
-		boolean start = false;
-		for (int i = this.books.size() - 1; i >= 0; i--) {
-			Book book = this.books.get(i);
-			if (start || book.getNumber() == bookNumber) {
-				List<Chapter> chapters = book.getChapters();
-				for (int j = chapters.size() - 1; j >= 0; j--) {
-					Chapter chapter = chapters.get(j);
-					if (start || chapter.getNumber() == chapterNumber) {
-						List<Verse> verses = chapter.getVerses();
-						for (int k = verses.size() - 1; k >= 0; k--) {
-							Verse verse = verses.get(k);
-							if (!start && verse.getNumber().equalsIgnoreCase(verseNumber)) {
-								// we've found the verse
-								// so try to go to the next one
-								next = new LocatedVerse(this, book, chapter, verse);
-								start = true;
-								continue;
-							} else if (start && current == null) {
-								current = new LocatedVerse(this, book, chapter, verse);
-							} else if (start && previous == null) {
-								previous = new LocatedVerse(this, book, chapter, verse);
-								return new LocatedVerseTriplet(previous, current, next);
-							}
-						}
+		VerseLookup index = this.getVerseLookup();
+		int ordinal = index.getLastOrdinal(bookNumber, chapterNumber, verseNumber);
+		if (ordinal < 0) return null;
+		LocatedVerse current = index.get(this, ordinal - 1);
+		if (current == null) return null;
+		return new LocatedVerseTriplet(
+				index.get(this, ordinal - 2),
+				current,
+				index.get(this, ordinal));
+	}
+	
+	/**
+	 * Returns the verse lookup for this bible.
+	 * <p>
+	 * When this bible is compact, the compact form is used directly. Otherwise a
+	 * verse index is built if necessary. The index is discarded as soon as any book,
+	 * chapter or verse is added, removed or renumbered and rebuilt on the next lookup.
+	 * @return {@link VerseLookup}
+	 */
+	private VerseLookup getVerseLookup() {
+		CompactBible compact = this.getContent();
+		if (compact != null) {
+			return compact;
+		}
+		VerseIndex index = this.verseIndex;
+		if (index == null) {
+			synchronized (this.verseIndexLock) {
+				index = this.verseIndex;
+				if (index == null) {
+					compact = this.compact;
+					if (compact != null) {
+						return compact;
 					}
+					index = new VerseIndex(this.books, this.verseIndexInvalidator);
+					this.verseIndex = index;
 				}
 			}
 		}
-		if (current != null) {
-			return new LocatedVerseTriplet(previous, current, next);
+		return index;
+	}
+	
+	/**
+	 * Switches this bible to the compact form, releasing the full model.
+	 * <p>
+	 * This should only be called on bibles that are not being edited (those loaded
+	 * in the workspace for example). The full model is recreated from the compact form
+	 * when {@link #getBooks()} is called.
+	 */
+	void compact() {
+		synchronized (this.verseIndexLock) {
+			if (this.compact == null && this.contentLoader == null) {
+				this.invalidateVerseIndex();
+				this.compact = new CompactBible(this.books);
+				this.books.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the compact form of this bible or null if the full model is in use.
+	 * @return {@link CompactBible}
+	 */
+	CompactBible getCompactBible() {
+		return this.getContent();
+	}
+	
+	/**
+	 * Replaces the books of this bible with the given compact form.
+	 * @param compact the compact form
+	 */
+	void setCompactBible(CompactBible compact) {
+		synchronized (this.verseIndexLock) {
+			this.invalidateVerseIndex();
+			this.books.clear();
+			this.compact = compact;
+			this.clearContentLoader();
+		}
+	}
+	
+	/**
+	 * Makes the content of this bible loadable on demand.
+	 * <p>
+	 * Once set, the content can be released with {@link #unloadContent()} and will
+	 * be loaded again using the given loader the next time it's needed. The given
+	 * counts are reported by {@link #getBookCount()} and {@link #getVerseCount()}
+	 * while the content isn't loaded.
+	 * @param loader the content loader
+	 * @param cache the cache to track loaded content; can be null
+	 * @param bookCount the number of books
+	 * @param verseCount the number of verses
+	 */
+	void setContentLoader(BibleContentLoader loader, BibleContentCache cache, int bookCount, int verseCount) {
+		boolean loaded;
+		synchronized (this.verseIndexLock) {
+			this.contentBookCount = bookCount;
+			this.contentVerseCount = verseCount;
+			this.contentCache = cache;
+			this.contentLoader = loader;
+			loaded = this.compact != null;
+		}
+		if (loaded && cache != null) {
+			cache.touch(this);
+		}
+	}
+	
+	/**
+	 * Releases the content of this bible if it can be loaded again on demand.
+	 */
+	void unloadContent() {
+		synchronized (this.verseIndexLock) {
+			if (this.contentLoader != null && this.compact != null) {
+				this.invalidateVerseIndex();
+				this.compact = null;
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if the content of this bible is in memory.
+	 * @return boolean
+	 */
+	boolean isContentLoaded() {
+		return this.contentLoader == null || this.compact != null;
+	}
+	
+	/**
+	 * Returns the compact form of this bible, loading it if necessary.
+	 * <p>
+	 * Returns null if the full model is in use. A failure to load the content is
+	 * thrown rather than treated as an empty bible so that it's never saved, copied
+	 * or indexed as one.
+	 * @return {@link CompactBible}
+	 * @throws UncheckedIOException if the content could not be loaded
+	 */
+	private CompactBible getContent() {
+		CompactBible compact = this.compact;
+		if (this.contentLoader == null) {
+			return compact;
+		}
+		if (compact == null) {
+			synchronized (this.verseIndexLock) {
+				compact = this.compact;
+				BibleContentLoader loader = this.contentLoader;
+				if (compact == null && loader != null) {
+					try {
+						compact = loader.load();
+						this.invalidateVerseIndex();
+						this.compact = compact;
+					} catch (IOException ex) {
+						// leave it unloaded so that the next access tries again
+						LOGGER.error("Failed to load the content of bible '" + this.name.get() + "': " + ex.getMessage(), ex);
+						throw new UncheckedIOException(ex);
+					}
+				}
+			}
+		}
+		BibleContentCache cache = this.contentCache;
+		if (compact != null && cache != null) {
+			cache.touch(this);
+		}
+		return compact;
+	}
+	
+	/**
+	 * Stops loading the content on demand.
+	 * <p>
+	 * Must be called while holding the lock.
+	 */
+	private void clearContentLoader() {
+		BibleContentCache cache = this.contentCache;
+		this.contentLoader = null;
+		this.contentCache = null;
+		if (cache != null) {
+			cache.remove(this);
+		}
+	}
+	
+	/**
+	 * Recreates the full model from the compact form if necessary.
+	 */
+	private void expand() {
+		if (this.getContent() != null) {
+			synchronized (this.verseIndexLock) {
+				CompactBible compact = this.compact;
+				if (compact != null) {
+					this.books.setAll(compact.toBooks());
+					this.compact = null;
+					this.clearContentLoader();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Discards the verse index.
+	 */
+	private void invalidateVerseIndex() {
+		synchronized (this.verseIndexLock) {
+			VerseIndex index = this.verseIndex;
+			if (index != null) {
+				index.dispose();
+				this.verseIndex = null;
+			}
 		}
-		return null;
 	}
 	
 	/**
@@ -519,32 +763,34 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	
 	/**
 	 * Returns the last book of this bible.
-	 * @return {@link Book}
+	 * @return {@link ReadOnlyBook}
 	 */
 	@Override
-	public Book getLastBook() {
-		if (this.books.isEmpty()) {
+	public ReadOnlyBook getLastBook() {
+		ObservableList<? extends ReadOnlyBook> books = this.getBooksUnmodifiable();
+		if (books.isEmpty()) {
 			return null;
 		}
-		return this.books.get(this.books.size() - 1);
+		return books.get(books.size() - 1);
 	}
 	
 	/**
 	 * Attempts to find a matching book for the given book.
 	 * @param book the book to find
-	 * @return {@link Book}
+	 * @return {@link ReadOnlyBook}
 	 */
 	@Override
-	public Book getMatchingBook(ReadOnlyBook book) {
+	public ReadOnlyBook getMatchingBook(ReadOnlyBook book) {
 		if (book == null) return null;
+		ObservableList<? extends ReadOnlyBook> books = this.getBooksUnmodifiable();
 		// try name first
-		for (Book b : this.books) {
+		for (ReadOnlyBook b : books) {
 			if (b.getName().equalsIgnoreCase(book.getName())) {
 				return b;
 			}
 		}
 		// then try number
-		for (Book b : this.books) {
+		for (ReadOnlyBook b : books) {
 			if (b.getNumber() == book.getNumber()) {
 				return b;
 			}
@@ -559,7 +805,7 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	@Override
 	public int getMaxBookNumber() {
 		int max = -Integer.MAX_VALUE;
-		for (Book book : this.books) {
+		for (ReadOnlyBook book : this.getBooksUnmodifiable()) {
 			int n = book.getNumber();
 			if (n > max) {
 				max = n;
@@ -570,13 +816,14 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	
 	public void renumber() {
 		int n = 1;
-		for (Book book : this.books) {
+		for (Book book : this.getBooks()) {
 			book.setNumber(n++);
 			book.renumber();
 		}
 	}
 	
 	public void reorder() {
+		this.expand();
 		FXCollections.sort(this.books);
 		for (Book book : this.books) {
 			book.reorder();
@@ -754,17 +1001,42 @@ public final class Bible implements ReadOnlyBible, Indexable, Persistable, Copya
 	
 	@JsonProperty
 	public void setBooks(List<Book> books) {
-		this.books.setAll(books);
+		synchronized (this.verseIndexLock) {
+			this.compact = null;
+			this.clearContentLoader();
+			this.books.setAll(books);
+		}
 	}
 	
-	@JsonProperty
+	@JsonProperty("books")
+	private List<? extends ReadOnlyBook> getBooksForSerialization() {
+		return this.getBooksUnmodifiable();
+	}
+	
+	/**
+	 * Returns the (editable) books of this bible.
+	 * <p>
+	 * If this bible is in the compact form, the full model is recreated first.
+	 * Use {@link #getBooksUnmodifiable()} for read-only access.
+	 * @return ObservableList&lt;{@link Book}&gt;
+	 */
 	@Watchable(name = "books")
 	public ObservableList<Book> getBooks() {
+		this.expand();
 		return this.books;
 	}
 	
+	/**
+	 * Returns the books of this bible, loading them if necessary.
+	 * @return ObservableList&lt;{@link ReadOnlyBook}&gt;
+	 * @throws UncheckedIOException if the books could not be loaded
+	 */
 	@Override
 	public ObservableList<? extends ReadOnlyBook> getBooksUnmodifiable() {
+		CompactBible compact = this.getContent();
+		if (compact != null) {
+			return compact.getBooks();
+		}
 		return this.booksReadOnly;
 	}
 
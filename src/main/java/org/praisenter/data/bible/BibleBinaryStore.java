@@ -0,0 +1,218 @@
+package org.praisenter.data.bible;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.praisenter.data.json.JsonIO;
+
+/**
+ * Reads and writes the binary form of a bible that's stored alongside its JSON file.
+ * <p>
+ * The binary file contains a fixed header (a magic number, the format version, the
+ * size and last modified time of the JSON file it was created from and the book and
+ * verse counts), the bible's metadata as JSON (everything but the books) and a
+ * {@link CompactBible} block. The header and metadata can be read on their own so
+ * that the content is only loaded when it's needed. The content is memory-mapped so
+ * that loading it doesn't require parsing or copying the verse text.
+ * <p>
+ * The JSON file is always the source of truth. The binary file is only used when
+ * the size and last modified time in its header match the JSON file; otherwise it's
+ * ignored and should be recreated. The binary file is also named for the version of
+ * the JSON file (see {@link BiblePathResolver#getBinaryPath(Path, BasicFileAttributes)})
+ * so that a mapped file never needs to be replaced. For a bible stored as one file per
+ * book, its manifest takes the place of the JSON file (see {@link BibleManifest}).
+ * @author William Bittle
+ * @version 3.0.0
+ */
+final class BibleBinaryStore {
+	/** The magic number ("PRBB") */
+	private static final int MAGIC = 0x50524242;
+	
+	/** The version of the binary format */
+	private static final int FORMAT_VERSION = 2;
+	
+	/** The size of the fixed header in bytes */
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4;
+	
+	/** private constructor */
+	private BibleBinaryStore() {}
+	
+	/**
+	 * Reads the bible's metadata from the given binary file without its content.
+	 * <p>
+	 * The returned bible loads its content on demand using the given loader.
+	 * Returns null if the binary file doesn't exist or wasn't created from the
+	 * current version of the given JSON file.
+	 * @param path the binary file
+	 * @param source the JSON file
+	 * @param loader the content loader
+	 * @param cache the cache to track loaded content; can be null
+	 * @return {@link Bible}
+	 * @throws IOException if an IO error occurs or the file is malformed
+	 */
+	public static Bible readHeader(Path path, Path source, BibleContentLoader loader, BibleContentCache cache) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		
+		BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer header = readHeader(channel, attributes);
+			if (header == null) {
+				return null;
+			}
+			
+			int bookCount = header.getInt();
+			int verseCount = header.getInt();
+			int n = header.getInt();
+			if (bookCount < 0 || verseCount < 0 || n < 0 || HEADER_SIZE + 4L + n > size) {
+				throw new IOException("The binary bible file '" + path.toAbsolutePath() + "' is malformed: invalid header");
+			}
+			
+			ByteBuffer metadata = ByteBuffer.allocate(n);
+			readFully(channel, metadata);
+			
+			try {
+				Bible bible = JsonIO.read(new ByteArrayInputStream(metadata.array()), Bible.class);
+				bible.setContentLoader(loader, cache, bookCount, verseCount);
+				return bible;
+			} catch (RuntimeException ex) {
+				throw new IOException("The binary bible file '" + path.toAbsolutePath() + "' is malformed: " + ex.getMessage(), ex);
+			}
+		}
+	}
+	
+	/**
+	 * Reads the content of a bible from the given binary file.
+	 * <p>
+	 * Returns null if the binary file doesn't exist or wasn't created from the
+	 * current version of the given JSON file.
+	 * @param path the binary file
+	 * @param source the JSON file
+	 * @return {@link CompactBible}
+	 * @throws IOException if an IO error occurs or the file is malformed
+	 */
+	public static CompactBible readContent(Path path, Path source) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		
+		BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			
+			// verify the header before mapping so that stale files
+			// are never mapped (a mapped file can't be replaced on
+			// some platforms until the mapping is released)
+			if (size > Integer.MAX_VALUE || readHeader(channel, attributes) == null) {
+				return null;
+			}
+			
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size);
+			try {
+				// skip the metadata
+				int n = buffer.getInt(HEADER_SIZE);
+				buffer.position(HEADER_SIZE + 4 + n);
+				return new CompactBible(buffer);
+			} catch (RuntimeException ex) {
+				throw new IOException("The binary bible file '" + path.toAbsolutePath() + "' is malformed: " + ex.getMessage(), ex);
+			}
+		}
+	}
+	
+	/**
+	 * Reads and verifies the fixed header and the metadata length.
+	 * <p>
+	 * Returns the header positioned after the JSON file's size and last modified
+	 * time or null if the header is not for the given JSON file.
+	 * @param channel the binary file
+	 * @param attributes the JSON file's attributes
+	 * @return ByteBuffer
+	 * @throws IOException if an IO error occurs
+	 */
+	private static ByteBuffer readHeader(FileChannel channel, BasicFileAttributes attributes) throws IOException {
+		if (channel.size() < HEADER_SIZE + 4) {
+			return null;
+		}
+		
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 4);
+		readFully(channel, header);
+		header.flip();
+		if (header.getInt() != MAGIC ||
+			header.getInt() != FORMAT_VERSION ||
+			header.getLong() != attributes.size() ||
+			header.getLong() != attributes.lastModifiedTime().toMillis()) {
+			return null;
+		}
+		return header;
+	}
+	
+	/**
+	 * Fills the given buffer from the channel.
+	 * @param channel the channel
+	 * @param buffer the buffer
+	 * @throws IOException if an IO error occurs or the end of the channel is reached
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException();
+			}
+		}
+	}
+	
+	/**
+	 * Writes the binary form of the given bible to the given file.
+	 * <p>
+	 * This should be called after the given JSON file has been written. The file is
+	 * written to a temporary file first and then moved into place.
+	 * @param path the binary file
+	 * @param source the JSON file
+	 * @param bible the bible
+	 * @throws IOException if an IO error occurs
+	 */
+	public static void write(Path path, Path source, Bible bible) throws IOException {
+		CompactBible compact = bible.getCompactBible();
+		if (compact == null) {
+			compact = new CompactBible(bible.getBooks());
+		}
+		
+		BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+		ByteArrayOutputStream metadata = new ByteArrayOutputStream();
+		JsonIO.write(metadata, bible.copyHeader());
+		
+		Files.createDirectories(path.getParent());
+		Path temp = path.resolveSibling(path.getFileName().toString() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeLong(attributes.size());
+				out.writeLong(attributes.lastModifiedTime().toMillis());
+				out.writeInt(compact.getBooks().size());
+				out.writeInt(compact.size());
+				out.writeInt(metadata.size());
+				metadata.writeTo(out);
+				compact.write(out);
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			Files.deleteIfExists(temp);
+			throw ex;
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package org.praisenter.data.bible;
+
+import org.praisenter.data.StorageConfiguration;
+
+public interface BibleCacheConfiguration extends StorageConfiguration {
+	/** The default number of bibles whose content is kept in memory */
+	public static final int DEFAULT_LOADED_BIBLE_LIMIT = 4;
+	
+	public int getLoadedBibleLimit();
+}
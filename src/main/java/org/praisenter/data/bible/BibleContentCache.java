@@ -0,0 +1,86 @@
+package org.praisenter.data.bible;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Tracks the bibles whose content is loaded on demand and evicts the content of
+ * the least recently used ones when there are more loaded than the limit.
+ * <p>
+ * The limit is a soft cap: the bible that was just used is never evicted and an
+ * evicted bible simply loads its content again the next time it's used.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+final class BibleContentCache {
+	/** The maximum number of bibles with loaded content */
+	private final IntSupplier limit;
+	
+	/** The bibles with loaded content in least to most recently used order */
+	private final LinkedHashMap<Bible, Boolean> loaded;
+	
+	/**
+	 * Minimal constructor.
+	 * @param limit the maximum number of bibles with loaded content
+	 */
+	public BibleContentCache(IntSupplier limit) {
+		this.limit = limit;
+		this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+	}
+	
+	/**
+	 * Marks the given bible as most recently used and evicts the content of
+	 * other bibles if the limit has been exceeded.
+	 * @param bible the bible
+	 */
+	public void touch(Bible bible) {
+		List<Bible> evict = null;
+		synchronized (this) {
+			if (this.loaded.put(bible, Boolean.TRUE) != null) {
+				// it was already loaded, so the count didn't change
+				return;
+			}
+			int limit = Math.max(1, this.limit.getAsInt());
+			int n = this.loaded.size() - limit;
+			if (n > 0) {
+				evict = new ArrayList<>(n);
+				Iterator<Bible> it = this.loaded.keySet().iterator();
+				while (n > 0 && it.hasNext()) {
+					Bible b = it.next();
+					if (b != bible) {
+						evict.add(b);
+						it.remove();
+						n--;
+					}
+				}
+			}
+		}
+		
+		// evict outside the lock so that the bible's lock is never
+		// acquired while this lock is held
+		if (evict != null) {
+			for (Bible b : evict) {
+				b.unloadContent();
+			}
+		}
+	}
+	
+	/**
+	 * Stops tracking the given bible.
+	 * @param bible the bible
+	 */
+	public synchronized void remove(Bible bible) {
+		this.loaded.remove(bible);
+	}
+	
+	/**
+	 * Returns the number of bibles with loaded content.
+	 * @return int
+	 */
+	public synchronized int size() {
+		return this.loaded.size();
+	}
+}
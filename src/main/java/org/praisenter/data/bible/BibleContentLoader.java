@@ -0,0 +1,18 @@
+package org.praisenter.data.bible;
+
+import java.io.IOException;
+
+/**
+ * Loads the content (books, chapters and verses) of a bible on demand.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+@FunctionalInterface
+interface BibleContentLoader {
+	/**
+	 * Loads and returns the content.
+	 * @return {@link CompactBible}
+	 * @throws IOException if an IO error occurs
+	 */
+	public CompactBible load() throws IOException;
+}
@@ -0,0 +1,115 @@
+package org.praisenter.data.bible;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The manifest of a bible that's stored as one file per book.
+ * <p>
+ * The manifest holds the bible's metadata (everything but the books) and the list
+ * of book files in order. Each book file is named by the hash of its content so a
+ * book that hasn't changed keeps its file from save to save and only new content
+ * has to be written.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+final class BibleManifest {
+	/** The bible without its books */
+	private Bible bible;
+	
+	/** The books in order */
+	private List<Chunk> books;
+	
+	public BibleManifest() {
+		this.books = new ArrayList<>();
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param bible the bible without its books
+	 * @param books the books in order
+	 */
+	public BibleManifest(Bible bible, List<Chunk> books) {
+		this.bible = bible;
+		this.books = books;
+	}
+	
+	/**
+	 * Returns the total number of verses.
+	 * @return int
+	 */
+	public int getVerseCount() {
+		int n = 0;
+		for (Chunk chunk : this.books) {
+			n += chunk.verseCount;
+		}
+		return n;
+	}
+	
+	@JsonProperty
+	public Bible getBible() {
+		return this.bible;
+	}
+	
+	@JsonProperty
+	public void setBible(Bible bible) {
+		this.bible = bible;
+	}
+	
+	@JsonProperty
+	public List<Chunk> getBooks() {
+		return this.books;
+	}
+	
+	@JsonProperty
+	public void setBooks(List<Chunk> books) {
+		this.books = books;
+	}
+	
+	/**
+	 * Represents the file of one book.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	static final class Chunk {
+		/** The hash of the file's content (and its name) */
+		private String hash;
+		
+		/** The number of verses in the book */
+		private int verseCount;
+		
+		public Chunk() {}
+		
+		/**
+		 * Full constructor.
+		 * @param hash the hash of the file's content
+		 * @param verseCount the number of verses in the book
+		 */
+		public Chunk(String hash, int verseCount) {
+			this.hash = hash;
+			this.verseCount = verseCount;
+		}
+		
+		@JsonProperty
+		public String getHash() {
+			return this.hash;
+		}
+		
+		@JsonProperty
+		public void setHash(String hash) {
+			this.hash = hash;
+		}
+		
+		@JsonProperty
+		public int getVerseCount() {
+			return this.verseCount;
+		}
+		
+		@JsonProperty
+		public void setVerseCount(int verseCount) {
+			this.verseCount = verseCount;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package org.praisenter.data.bible;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.praisenter.data.BasicPathResolver;
+import org.praisenter.data.PathResolver;
+
+final class BiblePathResolver extends BasicPathResolver<Bible> implements PathResolver<Bible> {
+	private static final String BINARY_PATH = "binary";
+	private static final String BINARY_EXTENSION = "bin";
+	private static final String MANIFEST_FILE_NAME = "manifest";
+	
+	private final Path binaryPath;
+	
+	public BiblePathResolver(Path basePath, String extension) {
+		super(basePath, "bibles", extension);
+		this.binaryPath = this.basePath.resolve(BINARY_PATH);
+	}
+	
+	public void initialize() throws IOException {
+		super.initialize();
+		Files.createDirectories(this.binaryPath);
+	}
+	
+	// chunks
+	
+	/**
+	 * Returns the folder for the book files of the given bible.
+	 * @param bible the bible
+	 * @return Path
+	 */
+	public Path getChunkFolder(Bible bible) {
+		return this.basePath.resolve(this.getFileName(bible, null));
+	}
+	
+	/**
+	 * Returns the folder for the book files of the bible stored in the given file.
+	 * @param path the bible file
+	 * @return Path
+	 */
+	public Path getChunkFolder(Path path) {
+		String name = path.getFileName().toString();
+		int index = name.lastIndexOf('.');
+		if (index > 0) {
+			name = name.substring(0, index);
+		}
+		return path.resolveSibling(name);
+	}
+	
+	/**
+	 * Returns the path of the manifest of the given bible's book files.
+	 * @param bible the bible
+	 * @return Path
+	 */
+	public Path getManifestPath(Bible bible) {
+		return this.getManifestPath(this.getChunkFolder(bible));
+	}
+	
+	/**
+	 * Returns the path of the manifest in the given book file folder.
+	 * @param path the folder
+	 * @return Path
+	 */
+	public Path getManifestPath(Path path) {
+		return path.resolve(MANIFEST_FILE_NAME + "." + this.extension);
+	}
+	
+	/**
+	 * Returns true if the given path is a book file manifest.
+	 * @param path the path
+	 * @return boolean
+	 */
+	public boolean isManifest(Path path) {
+		return path.getFileName().toString().equals(MANIFEST_FILE_NAME + "." + this.extension);
+	}
+	
+	/**
+	 * Returns the path of the given book file in the given book file folder.
+	 * @param path the folder
+	 * @param hash the hash of the book file
+	 * @return Path
+	 */
+	public Path getChunkPath(Path path, String hash) {
+		return path.resolve(hash + "." + this.extension);
+	}
+	
+	// binary
+	
+	public Path getBinaryPath() {
+		return this.binaryPath;
+	}
+	
+	/**
+	 * Returns the path of the binary file for the given version of the given bible file or manifest.
+	 * <p>
+	 * The name includes the size and last modified time of the bible file or manifest so
+	 * that each version gets a new binary file rather than replacing one that may still
+	 * be memory-mapped (which isn't allowed on some platforms).
+	 * @param path the bible file or manifest
+	 * @param attributes the attributes of the bible file or manifest
+	 * @return Path
+	 */
+	public Path getBinaryPath(Path path, BasicFileAttributes attributes) {
+		if (this.isManifest(path)) {
+			path = path.getParent();
+		}
+		String name = path.getFileName().toString();
+		int index = name.lastIndexOf('.');
+		if (index > 0) {
+			name = name.substring(0, index);
+		}
+		String version = Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis());
+		return this.binaryPath.resolve(name + "." + version + "." + BINARY_EXTENSION);
+	}
+	
+	/**
+	 * Returns the path of the bible file or manifest for the given binary file.
+	 * <p>
+	 * The manifest is returned if the bible is stored as one file per book.
+	 * @param path the binary file
+	 * @return Path
+	 */
+	public Path getSourcePath(Path path) {
+		String name = path.getFileName().toString();
+		int index = name.indexOf('.');
+		if (index > 0) {
+			name = name.substring(0, index);
+		}
+		Path file = this.basePath.resolve(name + "." + this.extension);
+		Path manifest = this.getManifestPath(this.getChunkFolder(file));
+		if (Files.isRegularFile(manifest)) {
+			return manifest;
+		}
+		return file;
+	}
+}
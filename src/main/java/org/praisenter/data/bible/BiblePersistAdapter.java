@@ -3,54 +3,80 @@ package org.praisenter.data.bible;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
-import java.io.FileInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.praisenter.LockMap;
-import org.praisenter.data.BasicPathResolver;
 import org.praisenter.data.DataFormatProvider;
 import org.praisenter.data.DataImportResult;
 import org.praisenter.data.DataReadResult;
+import org.praisenter.data.DirectoryLoader;
 import org.praisenter.data.KnownFormat;
 import org.praisenter.data.PersistAdapter;
 import org.praisenter.data.PraisenterFormatProvider;
 import org.praisenter.data.UnknownFormatException;
 import org.praisenter.data.json.JsonIO;
+import org.praisenter.data.json.StorageFormat;
 import org.praisenter.utility.MimeType;
-import org.praisenter.utility.Streams;
 
 public final class BiblePersistAdapter implements PersistAdapter<Bible> {
 	/** The class-level logger */
 	private static final Logger LOGGER = LogManager.getLogger();
 	private static final String EXTENSION = "json";
+	
+	/** The algorithm used to hash (and name) the book files */
+	private static final String CHUNK_HASH_ALGORITHM = "SHA-256";
+	
+	/** The number of bytes at the start of an imported zip entry kept to detect its format */
+	private static final int SNIFF_LIMIT = 64 * 1024;
 
-	private final BasicPathResolver<Bible> pathResolver;
+	private final BibleCacheConfiguration configuration;
+	private final BiblePathResolver pathResolver;
+	
+	/** Evicts the content of the least recently used bibles */
+	private final BibleContentCache contentCache;
 	
 	private final LockMap<UUID> locks;
 	private final Object exportLock;
 	
 	private final Map<KnownFormat, DataFormatProvider<Bible>> formatProviders;
 	
-	public BiblePersistAdapter(Path path) {
-		this.pathResolver = new BasicPathResolver<>(path, "bibles", EXTENSION);
+	public BiblePersistAdapter(Path path, BibleCacheConfiguration configuration) {
+		this.configuration = configuration;
+		this.pathResolver = new BiblePathResolver(path, EXTENSION);
+		this.contentCache = new BibleContentCache(configuration::getLoadedBibleLimit);
 		this.locks = new LockMap<>();
 		this.exportLock = new Object();
 		this.formatProviders = new LinkedHashMap<>();
@@ -68,41 +94,372 @@ public final class BiblePersistAdapter implements PersistAdapter<Bible> {
 	
 	@Override
 	public List<Bible> load() throws IOException {
-		List<Bible> bibles = new ArrayList<Bible>();
-		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.pathResolver.getBasePath())) {
+		List<Bible> bibles = DirectoryLoader.load(this.pathResolver.getBasePath(), this::isBible, (path) -> {
+			// bibles stored as one file per book are read through their manifest
+			Path file = Files.isDirectory(path) ? this.pathResolver.getManifestPath(path) : path;
+			if (!MimeType.JSON.checkTrusted(file)) {
+				return null;
+			}
+						
+			// use the binary form if it's up to date with the JSON
+			// and only load the metadata; the content is loaded
+			// when it's first used
+			Path binary = null;
+			try {
+				binary = this.getBinaryPath(file);
+				Bible bible = BibleBinaryStore.readHeader(binary, file, () -> this.loadContent(file), this.contentCache);
+				if (bible != null) {
+					return bible;
+				}
+			} catch (Exception ex) {
+				LOGGER.warn("Failed to load binary bible '" + binary + "'; falling back to '" + file.toAbsolutePath().toString() + "': " + ex.getMessage(), ex);
+			}
+			
+			// the manifest has everything but the books, so the
+			// books don't need to be read until they're used
+			if (this.pathResolver.isManifest(file)) {
+				try {
+					BibleManifest manifest = JsonIO.read(file, BibleManifest.class);
+					Bible bible = manifest.getBible();
+					bible.setContentLoader(() -> this.loadContent(file), this.contentCache, manifest.getBooks().size(), manifest.getVerseCount());
+					return bible;
+				} catch (Exception ex) {
+					LOGGER.warn("Failed to load bible '" + file.toAbsolutePath().toString() + "'", ex);
+				}
+				return null;
+			}
+			
+			try (InputStream is = Files.newInputStream(file)) {
+				Bible bible = JsonIO.read(is, Bible.class);
+				// bibles in the workspace are only edited through copies
+				bible.compact();
+				this.writeBinary(file, bible);
+				this.setContentLoader(file, bible);
+				return bible;
+			} catch (Exception ex) {
+				LOGGER.warn("Failed to load bible '" + file.toAbsolutePath().toString() + "'", ex);
+			}
+			return null;
+		});
+		
+		this.deleteSupersededBinaries(null);
+		
+		return bibles;
+	}
+	
+	/**
+	 * Deletes the binary files for older versions of the bibles and for bibles that no
+	 * longer exist.
+	 * <p>
+	 * A binary file can't be deleted while it's memory-mapped on some platforms, so
+	 * failures are logged and the file is tried again on the next load.
+	 * @param only the bible file to limit this to; null for all bibles
+	 * @throws IOException if an IO error occurs
+	 */
+	private void deleteSupersededBinaries(Path only) throws IOException {
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.pathResolver.getBinaryPath())) {
 			for (Path file : stream) {
-				if (Files.isRegularFile(file)) {
-					if (MimeType.JSON.check(file)) {
-						try (InputStream is = Files.newInputStream(file)) {
-							Bible bible = JsonIO.read(is, Bible.class);
-							bibles.add(bible);
+				if (!Files.isRegularFile(file)) continue;
+				try {
+					Path source = this.pathResolver.getSourcePath(file);
+					if (only != null && !only.equals(source)) continue;
+					if (!Files.exists(source) || !file.equals(this.getBinaryPath(source))) {
+						Files.delete(file);
+					}
+				} catch (Exception ex) {
+					LOGGER.warn("Failed to delete superseded binary bible '" + file.toAbsolutePath().toString() + "': " + ex.getMessage(), ex);
+				}
+			}
+		}
+	}
+		
+	/**
+	 * Returns the path of the binary file for the current version of the given JSON file or manifest.
+	 * @param path the JSON file or manifest
+	 * @return Path
+	 * @throws IOException if an IO error occurs
+	 */
+	private Path getBinaryPath(Path path) throws IOException {
+		return this.pathResolver.getBinaryPath(path, Files.readAttributes(path, BasicFileAttributes.class));
+	}
+	
+	/**
+	 * Returns true if the given path is a bible file or a folder of book files.
+	 * <p>
+	 * A bible file is skipped if the bible also has a folder of book files since
+	 * the folder is always the newer of the two.
+	 * @param path the path
+	 * @return boolean
+	 */
+	private boolean isBible(Path path) {
+		if (Files.isRegularFile(path)) {
+			return !Files.isRegularFile(this.pathResolver.getManifestPath(this.pathResolver.getChunkFolder(path)));
+		}
+		return Files.isRegularFile(this.pathResolver.getManifestPath(path));
+	}
+	
+	/**
+	 * Loads the content of the bible stored in the given JSON file or manifest.
+	 * <p>
+	 * The binary form is used if it's up to date, otherwise the JSON is
+	 * read and the binary form is recreated.
+	 * @param path the JSON file or manifest
+	 * @return {@link CompactBible}
+	 * @throws IOException if an IO error occurs
+	 */
+	private CompactBible loadContent(Path path) throws IOException {
+		Path binary = this.getBinaryPath(path);
+		try {
+			CompactBible compact = BibleBinaryStore.readContent(binary, path);
+			if (compact != null) {
+				return compact;
+			}
+		} catch (Exception ex) {
+			LOGGER.warn("Failed to load binary bible '" + binary.toAbsolutePath().toString() + "'; falling back to '" + path.toAbsolutePath().toString() + "': " + ex.getMessage(), ex);
+		}
+		
+		Bible bible = this.pathResolver.isManifest(path) ? this.readChunks(path) : JsonIO.read(path, Bible.class);
+		bible.compact();
+		this.writeBinary(path, bible);
+		return bible.getCompactBible();
+	}
+	
+	/**
+	 * Reads the bible with the given manifest and all its book files.
+	 * @param path the manifest
+	 * @return {@link Bible}
+	 * @throws IOException if an IO error occurs or a book file doesn't match the manifest
+	 */
+	private Bible readChunks(Path path) throws IOException {
+		BibleManifest manifest = JsonIO.read(path, BibleManifest.class);
+		List<BibleManifest.Chunk> chunks = manifest.getBooks();
+		Path folder = path.getParent();
+		
+		// the books are independent of each other
+		Book[] books = new Book[chunks.size()];
+		try {
+			IntStream.range(0, books.length).parallel().forEach((i) -> {
+				String hash = chunks.get(i).getHash();
+				Path file = this.pathResolver.getChunkPath(folder, hash);
+				try {
+					byte[] data = Files.readAllBytes(file);
+					if (!hash.equals(hash(data))) {
+						throw new IOException("The book file '" + file.toAbsolutePath() + "' doesn't match the manifest '" + path.toAbsolutePath() + "'.");
+					}
+					books[i] = JsonIO.read(new ByteArrayInputStream(data), Book.class);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		
+		Bible bible = manifest.getBible();
+		bible.setBooks(Arrays.asList(books));
+		return bible;
+	}
+	
+	/**
+	 * Writes the given bible as one file per book along with a manifest.
+	 * <p>
+	 * The book files are named by the hash of their content so only the books that
+	 * changed since the last save are written. The manifest is replaced after the new
+	 * book files are in place so a failure part way through leaves the last save intact.
+	 * Book files that are no longer referenced are removed afterwards, as is the single
+	 * file form of the bible if it was stored that way before.
+	 * <p>
+	 * The save fails if the content of the bible can't be loaded. Book files are kept
+	 * when the bible has no books so that nothing is lost if it was emptied by mistake;
+	 * they're removed by the next save that has books.
+	 * @param item the bible
+	 * @return Path the manifest
+	 * @throws IOException if an IO error occurs or the content of the bible can't be loaded
+	 */
+	private Path writeChunks(Bible item) throws IOException {
+		List<? extends ReadOnlyBook> books;
+		try {
+			books = item.getBooksUnmodifiable();
+		} catch (UncheckedIOException ex) {
+			throw new IOException("The content of bible '" + item.getName() + "' could not be loaded; it was not saved.", ex.getCause());
+		}
+		
+		StorageFormat format = this.configuration.getStorageFormat();
+		Path folder = this.pathResolver.getChunkFolder(item);
+		Files.createDirectories(folder);
+		
+		List<BibleManifest.Chunk> chunks = new ArrayList<>();
+		Set<String> hashes = new HashSet<>();
+		int written = 0;
+		for (ReadOnlyBook book : books) {
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			JsonIO.write(data, book, format);
+			String hash = hash(data.toByteArray());
+			Path file = this.pathResolver.getChunkPath(folder, hash);
+			if (hashes.add(hash) && !Files.exists(file)) {
+				writeAtomically(file, data);
+				written++;
+			}
+			chunks.add(new BibleManifest.Chunk(hash, Bible.getVerseCount(book)));
+		}
+		
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		JsonIO.write(data, new BibleManifest(item.copyHeader(), chunks), format);
+		Path manifest = this.pathResolver.getManifestPath(folder);
+		writeAtomically(manifest, data);
+		
+		LOGGER.debug("Wrote {} of {} book file(s) for bible '{}'", written, chunks.size(), item.getName());
+		
+		// clean up what's no longer referenced
+		if (chunks.isEmpty()) {
+			LOGGER.warn("Bible '{}' was saved without any books; keeping its existing book files", item.getName());
+		} else {
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+				for (Path file : stream) {
+					String name = file.getFileName().toString();
+					int index = name.lastIndexOf('.');
+					if (!file.equals(manifest) && !hashes.contains(index > 0 ? name.substring(0, index) : name)) {
+						try {
+							Files.deleteIfExists(file);
 						} catch (Exception ex) {
-							LOGGER.warn("Failed to load bible '" + file.toAbsolutePath().toString() + "'", ex);
+							// it will be removed on the next save
+							LOGGER.warn("Failed to delete unused book file '" + file.toAbsolutePath().toString() + "': " + ex.getMessage(), ex);
 						}
 					}
 				}
 			}
 		}
-		return bibles;
+		Files.deleteIfExists(this.pathResolver.getPath(item));
+		
+		return manifest;
+	}
+	
+	/**
+	 * Writes the given data to a temporary file and then moves it into place.
+	 * @param path the file
+	 * @param data the data
+	 * @throws IOException if an IO error occurs
+	 */
+	private static void writeAtomically(Path path, ByteArrayOutputStream data) throws IOException {
+		Path temp = path.resolveSibling(path.getFileName().toString() + ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				data.writeTo(out);
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			Files.deleteIfExists(temp);
+			throw ex;
+		}
+	}
+	
+	/**
+	 * Returns the hash of the given book file content.
+	 * @param data the content
+	 * @return String
+	 */
+	private static String hash(byte[] data) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance(CHUNK_HASH_ALGORITHM);
+			return String.format("%064x", new BigInteger(1, digest.digest(data)));
+		} catch (NoSuchAlgorithmException ex) {
+			// all JVMs are required to support SHA-256
+			throw new IllegalStateException(ex);
+		}
+	}
+	
+	/**
+	 * Returns true if the given bible is stored in either form.
+	 * @param bible the bible
+	 * @return boolean
+	 */
+	private boolean exists(Bible bible) {
+		return Files.exists(this.pathResolver.getManifestPath(bible)) || Files.exists(this.pathResolver.getPath(bible));
+	}
+	
+	/**
+	 * Allows the content of the given (compact) bible to be released and loaded
+	 * again from the given JSON file or manifest when needed.
+	 * @param path the JSON file or manifest
+	 * @param bible the bible
+	 */
+	private void setContentLoader(Path path, Bible bible) {
+		CompactBible compact = bible.getCompactBible();
+		if (compact != null) {
+			bible.setContentLoader(() -> this.loadContent(path), this.contentCache, compact.getBooks().size(), compact.size());
+		}
+	}
+	
+	/**
+	 * Writes the binary form of the given bible.
+	 * <p>
+	 * The binary form is only a cache of the JSON, so failures are logged and
+	 * the JSON will be used on the next load. The binary form of the previous
+	 * version isn't replaced; it's removed on the next load.
+	 * @param path the JSON file or manifest
+	 * @param bible the bible
+	 */
+	private void writeBinary(Path path, Bible bible) {
+		Path binary = null;
+		try {
+			binary = this.getBinaryPath(path);
+			BibleBinaryStore.write(binary, path, bible);
+		} catch (Exception ex) {
+			LOGGER.warn("Failed to write binary bible '" + binary + "': " + ex.getMessage(), ex);
+			try {
+				if (binary != null) {
+					Files.deleteIfExists(binary);
+				}
+			} catch (Exception e) {
+				// the header won't match the JSON so it will be ignored anyway
+			}
+		}
 	}
 	
 	@Override
 	public void create(Bible item) throws IOException {
-		Path path = this.pathResolver.getPath(item);
 		synchronized (this.locks.get(item.getId())) {
-			if (Files.exists(path)) {
-				throw new FileAlreadyExistsException(path.toAbsolutePath().toString());
+			if (this.exists(item)) {
+				throw new FileAlreadyExistsException(this.getFilePath(item).toAbsolutePath().toString());
 			}
-			JsonIO.write(path, item);
+			Path path = this.writeChunks(item);
+			item.compact();
+			this.writeBinary(path, item);
+			this.setContentLoader(path, item);
 		}
 	}
 	
 	@Override
 	public void update(Bible item) throws IOException {
+		synchronized (this.exportLock) {
+			synchronized (this.locks.get(item.getId())) {
+				Path path = this.writeChunks(item);
+				item.compact();
+				// rather than write the whole bible again, let the binary
+				// form be recreated from the books the next time it's read
+				// (the binary form of the previous version is removed on the
+				// next load since it may still be mapped)
+				this.setContentLoader(path, item);
+			}
+		}
+	}
+	
+	@Override
+	public void rewrite(Bible item) throws IOException {
 		synchronized (this.exportLock) {
 			Path path = this.pathResolver.getPath(item);
+			Path manifest = this.pathResolver.getManifestPath(item);
 			synchronized (this.locks.get(item.getId())) {
-				JsonIO.write(path, item);
+				if (Files.exists(manifest)) {
+					this.writeChunks(this.readChunks(manifest));
+				} else {
+					// keep the single file form since the item's content
+					// is still loaded from it; it's split up on the next save
+					Bible stored = JsonIO.read(path, Bible.class);
+					JsonIO.write(path, stored, this.configuration.getStorageFormat());
+				}
+				// the binary form is recreated from the new files when
+				// it's next read
 			}
 		}
 	}
@@ -111,8 +468,26 @@ public final class BiblePersistAdapter implements PersistAdapter<Bible> {
 	public void delete(Bible item) throws IOException {
 		synchronized (this.exportLock) {
 			Path path = this.pathResolver.getPath(item);
+			Path folder = this.pathResolver.getChunkFolder(item);
 			synchronized (this.locks.get(item.getId())) {
 				Files.deleteIfExists(path);
+				if (Files.isDirectory(folder)) {
+					// remove the manifest first so a partial delete isn't loaded
+					Files.deleteIfExists(this.pathResolver.getManifestPath(folder));
+					try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+						for (Path file : stream) {
+							Files.deleteIfExists(file);
+						}
+					}
+					Files.deleteIfExists(folder);
+				}
+				this.contentCache.remove(item);
+				try {
+					this.deleteSupersededBinaries(path);
+				} catch (Exception ex) {
+					// it will be removed on the next load
+					LOGGER.warn("Failed to delete binary bible for '" + path.toAbsolutePath().toString() + "': " + ex.getMessage(), ex);
+				}
 			}
 		}
 	}
@@ -175,66 +550,146 @@ public final class BiblePersistAdapter implements PersistAdapter<Bible> {
 		// is it a zip file that could contain more than
 		// one bible in it?
 		if (results.isEmpty() && MimeType.ZIP.check(path)) {
-			// it is, so iterate the entries for bibles to import
-			try (FileInputStream fis = new FileInputStream(path.toFile());
-				 BufferedInputStream bis = new BufferedInputStream(fis);
-				 ZipInputStream zis = new ZipInputStream(bis);) {
-				// read the entries
-				ZipEntry entry = null;
-				while ((entry = zis.getNextEntry()) != null) {
-					if (!entry.isDirectory()) {
-						BufferedInputStream zbis = new BufferedInputStream(zis);
-						
-						// get the mime type of the file
-						zbis.mark(Integer.MAX_VALUE);
-						String mimeType = MimeType.get(zbis, entry.getName());
-						zbis.reset();
-						
-						// get the set of supported providers for the mimetype
-						List<DataFormatProvider<Bible>> supported = new ArrayList<>();
-						for (DataFormatProvider<Bible> provider : providers) {
-							if (provider.isSupported(mimeType)) {
-								supported.add(provider);
-							}
-						}
-						
-						// if there are supported providers, then read the file fully
-						if (!supported.isEmpty()) {
-							List<DataReadResult<Bible>> itemResults = null;
-							ByteArrayInputStream bais = new ByteArrayInputStream(Streams.read(zbis));
-							
-							// now iterate the providers to see which are supported based on content
-							for (DataFormatProvider<Bible> provider : supported) {
-								if (provider.isSupported(entry.getName(), bais)) {
-									// if it's supported, then try to read it in
-									try {
-										bais.reset();
-										itemResults = provider.read(entry.getName(), bais);
-										if (itemResults != null && !itemResults.isEmpty()) {
-											results.addAll(itemResults);
-											break;
-										} else {
-											LOGGER.info("No bibles were found in '" + entry.getName() + "' by provider '" + provider.getClass().getName() + "'.");
-										}
-									} catch (Exception ex) {
-										LOGGER.warn("Failed to read '" + entry.getName() + "' using format provider '" + provider.getClass().getName() + "'.", ex);
-									}
-								}
-								bais.reset();
-							}
-							
-							if (itemResults == null || itemResults.isEmpty()) {
-								LOGGER.warn("The content of the file '" + entry.getName() + "' was not recognized by any supported Bible format provider.");
-							}
-						} else {
-							LOGGER.warn("The mime type '" + mimeType + "' of the file '" + entry.getName() + "' was not recognized by any supported Bible format provider.");
-						}
+			return this.importZip(path, providers);
+		}
+		
+		return this.importBibles(results);
+	}
+	
+	/**
+	 * Imports the bibles in the entries of the given zip file.
+	 * <p>
+	 * The entries are read in parallel, straight from the zip file, and each entry's
+	 * bibles are saved as soon as they are read. Only the start of an entry is kept
+	 * in memory to detect its format.
+	 * @param path the zip file
+	 * @param providers the format providers
+	 * @return {@link DataImportResult}&lt;{@link Bible}&gt;
+	 * @throws IOException if the zip file can't be read
+	 */
+	private DataImportResult<Bible> importZip(Path path, Collection<DataFormatProvider<Bible>> providers) throws IOException {
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			List<? extends ZipEntry> entries = zip.stream()
+					.filter((entry) -> !entry.isDirectory())
+					.collect(Collectors.toList());
+			
+			// the results are collected in entry order
+			List<DataImportResult<Bible>> imported = entries.parallelStream().map((entry) -> {
+				try {
+					return this.importBibles(this.readEntry(zip, entry, providers));
+				} catch (Exception ex) {
+					LOGGER.warn("Failed to read '" + entry.getName() + "' in '" + path.toAbsolutePath() + "'.", ex);
+					DataImportResult<Bible> result = new DataImportResult<>();
+					result.getErrors().add(ex);
+					return result;
+				}
+			}).collect(Collectors.toList());
+			
+			DataImportResult<Bible> result = new DataImportResult<>();
+			for (DataImportResult<Bible> r : imported) {
+				result.getCreated().addAll(r.getCreated());
+				result.getUpdated().addAll(r.getUpdated());
+				result.getWarnings().addAll(r.getWarnings());
+				result.getErrors().addAll(r.getErrors());
+			}
+			return result;
+		}
+	}
+	
+	/**
+	 * Reads the bibles in the given zip file entry using the first format provider
+	 * that supports it.
+	 * <p>
+	 * Each provider checks the start of the entry and the entry is then read as a
+	 * stream. Returns an empty list if no provider supports the entry.
+	 * @param zip the zip file
+	 * @param entry the entry
+	 * @param providers the format providers
+	 * @return List&lt;{@link DataReadResult}&lt;{@link Bible}&gt;&gt;
+	 * @throws IOException if the entry can't be read
+	 */
+	private List<DataReadResult<Bible>> readEntry(ZipFile zip, ZipEntry entry, Collection<DataFormatProvider<Bible>> providers) throws IOException {
+		String name = entry.getName();
+		BufferedInputStream stream = open(zip, entry);
+		try {
+			// get the mime type of the file (this marks and resets the stream)
+			String mimeType = MimeType.get(stream, name);
+			
+			// get the set of supported providers for the mimetype
+			List<DataFormatProvider<Bible>> supported = new ArrayList<>();
+			for (DataFormatProvider<Bible> provider : providers) {
+				if (provider.isSupported(mimeType)) {
+					supported.add(provider);
+				}
+			}
+			
+			if (supported.isEmpty()) {
+				LOGGER.warn("The mime type '" + mimeType + "' of the file '" + name + "' was not recognized by any supported Bible format provider.");
+				return Collections.emptyList();
+			}
+			
+			// now iterate the providers to see which are supported based on content
+			for (DataFormatProvider<Bible> provider : supported) {
+				stream.mark(SNIFF_LIMIT);
+				boolean isSupported = provider.isSupported(name, new CloseShieldInputStream(stream));
+				stream = reset(zip, entry, stream);
+				if (!isSupported) {
+					continue;
+				}
+				
+				// if it's supported, then try to read it in
+				try {
+					List<DataReadResult<Bible>> results = provider.read(name, new CloseShieldInputStream(stream));
+					if (results != null && !results.isEmpty()) {
+						return results;
 					}
+					LOGGER.info("No bibles were found in '" + name + "' by provider '" + provider.getClass().getName() + "'.");
+				} catch (Exception ex) {
+					LOGGER.warn("Failed to read '" + name + "' using format provider '" + provider.getClass().getName() + "'.", ex);
 				}
+				
+				// the entry was read, so start over for the next provider
+				stream.close();
+				stream = open(zip, entry);
 			}
+			
+			LOGGER.warn("The content of the file '" + name + "' was not recognized by any supported Bible format provider.");
+			return Collections.emptyList();
+		} finally {
+			stream.close();
+		}
+	}
+	
+	/**
+	 * Opens the given zip file entry for reading.
+	 * @param zip the zip file
+	 * @param entry the entry
+	 * @return BufferedInputStream
+	 * @throws IOException if an IO error occurs
+	 */
+	private static BufferedInputStream open(ZipFile zip, ZipEntry entry) throws IOException {
+		return new BufferedInputStream(zip.getInputStream(entry), SNIFF_LIMIT);
+	}
+	
+	/**
+	 * Resets the given stream of a zip file entry to its mark.
+	 * <p>
+	 * If more than {@link #SNIFF_LIMIT} bytes were read since the mark, the mark is
+	 * no longer valid and the entry is opened again instead.
+	 * @param zip the zip file
+	 * @param entry the entry
+	 * @param stream the stream
+	 * @return BufferedInputStream
+	 * @throws IOException if an IO error occurs
+	 */
+	private static BufferedInputStream reset(ZipFile zip, ZipEntry entry, BufferedInputStream stream) throws IOException {
+		try {
+			stream.reset();
+			return stream;
+		} catch (IOException ex) {
+			stream.close();
+			return open(zip, entry);
 		}
-		
-		return this.importBibles(results);
 	}
 	
 	private DataImportResult<Bible> importBibles(List<DataReadResult<Bible>> results) throws IOException {
@@ -245,7 +700,7 @@ public final class BiblePersistAdapter implements PersistAdapter<Bible> {
 			Bible bible = drr.getData();
 			if (bible == null) continue;
 			try {
-				boolean isUpdate = Files.exists(this.pathResolver.getPath(bible));
+				boolean isUpdate = this.exists(bible);
 				if (isUpdate) {
 					this.update(bible);
 					result.getUpdated().add(bible);
@@ -264,7 +719,11 @@ public final class BiblePersistAdapter implements PersistAdapter<Bible> {
 	
 	@Override
 	public Path getFilePath(Bible item) {
-		return this.pathResolver.getPath(item);
+		Path path = this.pathResolver.getPath(item);
+		if (Files.exists(path)) {
+			return path;
+		}
+		return this.pathResolver.getManifestPath(item);
 	}
 	
 //	@Override
@@ -1,8 +1,8 @@
 package org.praisenter.data.bible;
 
-import java.util.Collections;
 import java.util.List;
 
+import org.praisenter.data.search.SearchResult;
 import org.praisenter.data.search.SearchTextMatch;
 
 public final class BibleSearchResult implements Comparable<BibleSearchResult> {
@@ -18,19 +18,15 @@ public final class BibleSearchResult implements Comparable<BibleSearchResult> {
 	/** The verse */
 	private final ReadOnlyVerse verse;
 	
-	/** The matched text */
-	private final List<SearchTextMatch> matches;
+	/** The search result (with lazily highlighted text) */
+	private final SearchResult result;
 	
-	/** The matching score */
-	private final float score;
-	
-	public BibleSearchResult(ReadOnlyBible bible, ReadOnlyBook book, ReadOnlyChapter chapter, ReadOnlyVerse verse, List<SearchTextMatch> matches, float score) {
+	public BibleSearchResult(ReadOnlyBible bible, ReadOnlyBook book, ReadOnlyChapter chapter, ReadOnlyVerse verse, SearchResult result) {
 		this.bible = bible;
 		this.book = book;
 		this.chapter = chapter;
 		this.verse = verse;
-		this.matches = matches;
-		this.score = score;
+		this.result = result;
 	}
 	
 	@Override
@@ -69,11 +65,19 @@ public final class BibleSearchResult implements Comparable<BibleSearchResult> {
 	}
 
 	public List<SearchTextMatch> getMatches() {
-		return Collections.unmodifiableList(matches);
+		return this.result.getMatches();
 	}
 
+	public boolean isHighlighted() {
+		return this.result.isHighlighted();
+	}
+	
 	public float getScore() {
-		return score;
+		return this.result.getScore();
+	}
+	
+	public SearchResult getResult() {
+		return this.result;
 	}
 
 }
@@ -1,6 +1,7 @@
 package org.praisenter.data.bible;
 
 import java.io.IOException;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -15,6 +16,14 @@ import org.praisenter.data.search.SearchCriteria;
 import org.praisenter.data.search.SearchType;
 
 public final class BibleTextSearchCriteria extends SearchCriteria {
+	/** The fields needed to locate a verse */
+	private static final Set<String> DOC_VALUE_FIELDS = Set.of(
+			Indexable.FIELD_ID,
+			Bible.FIELD_BOOK_NUMBER,
+			Bible.FIELD_VERSE_CHAPTER,
+			Bible.FIELD_VERSE_NUMBER,
+			Bible.FIELD_VERSE_ORDINAL);
+	
 	private final UUID bibleId;
 	private final int bookNumber;
 	
@@ -44,6 +53,14 @@ public final class BibleTextSearchCriteria extends SearchCriteria {
 		return this.bookNumber;
 	}
 	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.search.SearchCriteria#getDocValueFields()
+	 */
+	@Override
+	public Set<String> getDocValueFields() {
+		return DOC_VALUE_FIELDS;
+	}
+	
 	@Override
 	public Query createQuery(Analyzer analyzer) throws IOException {
 		Query query = super.createQuery(analyzer);
@@ -7,11 +7,13 @@ import org.praisenter.data.Copyable;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 public final class Book implements ReadOnlyBook, Copyable, Comparable<Book> {
@@ -20,6 +22,18 @@ public final class Book implements ReadOnlyBook, Copyable, Comparable<Book> {
 	private final ObservableList<Chapter> chapters;
 	private final ObservableList<Chapter> chaptersReadOnly;
 	
+	/** The immutable copy of this book's current state; null if there isn't one or it's out of date */
+	private CompactBible snapshot;
+	
+	/** Clears the snapshot when anything in this book changes; null until the first snapshot */
+	private InvalidationListener invalidator;
+	
+	/** Keeps the chapters that are watched in sync with the book */
+	private ListChangeListener<Chapter> chapterWatcher;
+	
+	/** Keeps the verses that are watched in sync with the chapters */
+	private ListChangeListener<Verse> verseWatcher;
+	
 	public Book() {
 		this.number = new SimpleIntegerProperty();
 		this.name = new SimpleStringProperty();
@@ -43,6 +57,83 @@ public final class Book implements ReadOnlyBook, Copyable, Comparable<Book> {
 		}
 		return b;
 	}
+	
+	/**
+	 * Returns an immutable copy of the current state of this book.
+	 * <p>
+	 * The copy is kept until something in this book changes, so snapshots of a bible
+	 * that's being edited only copy the books that were changed since the last one.
+	 * This must be called from the thread that modifies this book.
+	 * @return {@link ReadOnlyBook}
+	 */
+	ReadOnlyBook snapshot() {
+		if (this.snapshot == null) {
+			if (this.invalidator == null) {
+				this.watch();
+			}
+			this.snapshot = new CompactBible(List.of(this));
+		}
+		return this.snapshot.getBooks().get(0);
+	}
+	
+	/**
+	 * Starts listening for changes to anything in this book.
+	 */
+	private void watch() {
+		this.invalidator = (obs) -> this.snapshot = null;
+		this.verseWatcher = (c) -> {
+			this.snapshot = null;
+			while (c.next()) {
+				for (Verse verse : c.getRemoved()) {
+					verse.numberProperty().removeListener(this.invalidator);
+					verse.textProperty().removeListener(this.invalidator);
+				}
+				for (Verse verse : c.getAddedSubList()) {
+					this.watch(verse);
+				}
+			}
+		};
+		this.chapterWatcher = (c) -> {
+			this.snapshot = null;
+			while (c.next()) {
+				for (Chapter chapter : c.getRemoved()) {
+					this.unwatch(chapter);
+				}
+				for (Chapter chapter : c.getAddedSubList()) {
+					this.watch(chapter);
+				}
+			}
+		};
+		
+		this.number.addListener(this.invalidator);
+		this.name.addListener(this.invalidator);
+		this.chapters.addListener(this.chapterWatcher);
+		for (Chapter chapter : this.chapters) {
+			this.watch(chapter);
+		}
+	}
+	
+	private void watch(Chapter chapter) {
+		chapter.numberProperty().addListener(this.invalidator);
+		chapter.getVerses().addListener(this.verseWatcher);
+		for (Verse verse : chapter.getVerses()) {
+			this.watch(verse);
+		}
+	}
+	
+	private void unwatch(Chapter chapter) {
+		chapter.numberProperty().removeListener(this.invalidator);
+		chapter.getVerses().removeListener(this.verseWatcher);
+		for (Verse verse : chapter.getVerses()) {
+			verse.numberProperty().removeListener(this.invalidator);
+			verse.textProperty().removeListener(this.invalidator);
+		}
+	}
+	
+	private void watch(Verse verse) {
+		verse.numberProperty().addListener(this.invalidator);
+		verse.textProperty().addListener(this.invalidator);
+	}
 
 	/**
 	 * Returns the maximum chapter number for this book.
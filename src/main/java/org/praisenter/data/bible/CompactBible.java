@@ -0,0 +1,686 @@
+package org.praisenter.data.bible;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * An immutable, packed representation of the books, chapters and verses of a bible.
+ * <p>
+ * The data is stored in a single binary block: a book table, a chapter table, a pool
+ * of distinct verse numbers, a fixed-size record per verse and a UTF-8 text region.
+ * The book and chapter tables and the verse number pool are small and are read into
+ * primitive arrays. The verse records and text are read straight from the buffer
+ * and decoded on demand, so the buffer can be a memory-mapped file (see
+ * {@link BibleBinaryStore}) or a heap buffer. Books, chapters and verses are exposed
+ * through lightweight read-only views that are created on demand.
+ * <p>
+ * This is the form used by {@link Bible}s that are loaded in the workspace for
+ * navigation, display and indexing. The full model ({@link Book}, {@link Chapter}
+ * and {@link Verse}) is only created when it's needed for editing.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+final class CompactBible implements VerseLookup {
+	/** The size of a verse record in bytes (number pool index, text offset, text length) */
+	private static final int VERSE_RECORD_SIZE = 12;
+	
+	/** The binary block */
+	private final ByteBuffer buffer;
+	
+	/** The position of the first verse record in {@link #buffer} */
+	private final int versePosition;
+	
+	/** The position of the text region in {@link #buffer} */
+	private final int textPosition;
+	
+	/** The number of verses */
+	private final int verseCount;
+	
+	/** The distinct verse numbers */
+	private final String[] numbers;
+	
+	/** The chapter numbers */
+	private final int[] chapterNumbers;
+	
+	/** The ordinal of the first verse of each chapter; the last entry is the verse count */
+	private final int[] chapterStarts;
+	
+	/** The book numbers */
+	private final int[] bookNumbers;
+	
+	/** The book names */
+	private final String[] bookNames;
+	
+	/** The index of the first chapter of each book; the last entry is the chapter count */
+	private final int[] bookStarts;
+	
+	/** The book views */
+	private final ObservableList<CompactBook> books;
+	
+	/** The first and last ordinal by location; built when first needed */
+	private volatile Map<String, int[]> locations;
+	
+	/**
+	 * Creates a compact copy of the given books.
+	 * @param books the books
+	 */
+	public CompactBible(List<? extends ReadOnlyBook> books) {
+		this(ByteBuffer.wrap(encode(books)));
+	}
+	
+	/**
+	 * Creates a compact bible from the given binary block.
+	 * <p>
+	 * The buffer's content from its current position to its limit must be a block
+	 * created by {@link #write(OutputStream)} and must not be modified afterwards.
+	 * @param buffer the buffer
+	 * @throws IllegalArgumentException if the block is malformed
+	 */
+	public CompactBible(ByteBuffer buffer) {
+		this.buffer = buffer.slice();
+		
+		try {
+			ByteBuffer in = this.buffer.duplicate();
+			
+			int bn = in.getInt();
+			this.bookNumbers = new int[bn];
+			this.bookNames = new String[bn];
+			this.bookStarts = new int[bn + 1];
+			for (int i = 0; i < bn; i++) {
+				this.bookNumbers[i] = in.getInt();
+				this.bookNames[i] = readString(in);
+				this.bookStarts[i] = in.getInt();
+			}
+			
+			int cn = in.getInt();
+			this.bookStarts[bn] = cn;
+			this.chapterNumbers = new int[cn];
+			this.chapterStarts = new int[cn + 1];
+			for (int i = 0; i < cn; i++) {
+				this.chapterNumbers[i] = in.getInt();
+				this.chapterStarts[i] = in.getInt();
+			}
+			
+			int pn = in.getInt();
+			this.numbers = new String[pn];
+			for (int i = 0; i < pn; i++) {
+				this.numbers[i] = readString(in);
+			}
+			
+			this.verseCount = in.getInt();
+			this.chapterStarts[cn] = this.verseCount;
+			this.versePosition = in.position();
+			in.position(this.versePosition + this.verseCount * VERSE_RECORD_SIZE);
+			
+			int tn = in.getInt();
+			this.textPosition = in.position();
+			if (tn < 0 || tn > in.remaining()) {
+				throw new IllegalArgumentException("The text region is truncated.");
+			}
+		} catch (RuntimeException ex) {
+			if (ex instanceof IllegalArgumentException) throw ex;
+			throw new IllegalArgumentException("Malformed compact bible: " + ex.getMessage(), ex);
+		}
+		
+		List<CompactBook> views = new ArrayList<>(this.bookNumbers.length);
+		for (int i = 0; i < this.bookNumbers.length; i++) {
+			views.add(new CompactBook(i));
+		}
+		this.books = FXCollections.unmodifiableObservableList(FXCollections.observableList(views));
+	}
+	
+	/**
+	 * Encodes the given books into the binary block format.
+	 * @param books the books
+	 * @return byte[]
+	 */
+	private static byte[] encode(List<? extends ReadOnlyBook> books) {
+		List<ReadOnlyChapter> chapters = new ArrayList<>();
+		List<ReadOnlyVerse> verses = new ArrayList<>();
+		for (ReadOnlyBook book : books) {
+			for (ReadOnlyChapter chapter : book.getChaptersUnmodifiable()) {
+				chapters.add(chapter);
+				verses.addAll(chapter.getVersesUnmodifiable());
+			}
+		}
+		
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+		
+			// books
+			out.writeInt(books.size());
+			int c = 0;
+			for (ReadOnlyBook book : books) {
+				out.writeInt(book.getNumber());
+				writeString(out, book.getName());
+				out.writeInt(c);
+				c += book.getChaptersUnmodifiable().size();
+			}
+			
+			// chapters
+			out.writeInt(chapters.size());
+			int o = 0;
+			for (ReadOnlyChapter chapter : chapters) {
+				out.writeInt(chapter.getNumber());
+				out.writeInt(o);
+				o += chapter.getVersesUnmodifiable().size();
+			}
+			
+			// verse number pool
+			Map<String, Integer> pool = new HashMap<>();
+			List<String> numbers = new ArrayList<>();
+			for (ReadOnlyVerse verse : verses) {
+				String number = verse.getNumber();
+				if (number != null && !pool.containsKey(number)) {
+					pool.put(number, numbers.size());
+					numbers.add(number);
+				}
+			}
+			out.writeInt(numbers.size());
+			for (String number : numbers) {
+				writeString(out, number);
+			}
+			
+			// verse records
+			ByteArrayOutputStream text = new ByteArrayOutputStream();
+			out.writeInt(verses.size());
+			for (ReadOnlyVerse verse : verses) {
+				String number = verse.getNumber();
+				out.writeInt(number != null ? pool.get(number) : -1);
+				String value = verse.getText();
+				if (value == null) {
+					out.writeInt(-1);
+					out.writeInt(0);
+				} else {
+					byte[] data = value.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(text.size());
+					out.writeInt(data.length);
+					text.write(data);
+				}
+			}
+			
+			// text
+			out.writeInt(text.size());
+			text.writeTo(out);
+			
+			out.flush();
+			return bytes.toByteArray();
+		} catch (IOException ex) {
+			// not possible with in-memory streams
+			throw new UncheckedIOException(ex);
+		}
+	}
+		
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] data = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(data.length);
+			out.write(data);
+		}
+	}
+	
+	private static String readString(ByteBuffer in) {
+		int n = in.getInt();
+		if (n < 0) return null;
+		byte[] data = new byte[n];
+		in.get(data);
+		return new String(data, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Writes the binary block to the given stream.
+	 * @param stream the stream
+	 * @throws IOException if an IO error occurs
+	 */
+	public void write(OutputStream stream) throws IOException {
+		ByteBuffer block = this.buffer.duplicate();
+		byte[] data = new byte[8192];
+		while (block.hasRemaining()) {
+			int n = Math.min(data.length, block.remaining());
+			block.get(data, 0, n);
+			stream.write(data, 0, n);
+		}
+	}
+	
+	/**
+	 * Returns the size of the binary block in bytes.
+	 * @return int
+	 */
+	public int getSize() {
+		return this.buffer.limit();
+	}
+	
+	/**
+	 * Returns the verse number of the given verse.
+	 * @param ordinal the verse ordinal
+	 * @return String
+	 */
+	private String getVerseNumber(int ordinal) {
+		int index = this.buffer.getInt(this.versePosition + ordinal * VERSE_RECORD_SIZE);
+		return index >= 0 ? this.numbers[index] : null;
+	}
+	
+	/**
+	 * Returns the text of the given verse, decoding it from the buffer.
+	 * @param ordinal the verse ordinal
+	 * @return String
+	 */
+	private String getVerseText(int ordinal) {
+		int record = this.versePosition + ordinal * VERSE_RECORD_SIZE;
+		int offset = this.buffer.getInt(record + 4);
+		if (offset < 0) return null;
+		int length = this.buffer.getInt(record + 8);
+		byte[] data = new byte[length];
+		this.buffer.get(this.textPosition + offset, data);
+		return new String(data, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Returns a full (editable) copy of the books.
+	 * @return List&lt;{@link Book}&gt;
+	 */
+	public List<Book> toBooks() {
+		List<Book> books = new ArrayList<>(this.books.size());
+		for (CompactBook book : this.books) {
+			books.add(book.copy());
+		}
+		return books;
+	}
+	
+	/**
+	 * Returns the read-only book views.
+	 * @return ObservableList&lt;{@link ReadOnlyBook}&gt;
+	 */
+	public ObservableList<? extends ReadOnlyBook> getBooks() {
+		return this.books;
+	}
+	
+	/**
+	 * Returns the index of the last element in the given (sorted) start array whose
+	 * value is less than or equal to the given value; this skips empty ranges.
+	 * @param starts the start array (with the end at the last index)
+	 * @param value the value
+	 * @return int
+	 */
+	private static int find(int[] starts, int value) {
+		int lo = 0;
+		int hi = starts.length - 2;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (starts[mid] <= value) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.bible.VerseLookup#size()
+	 */
+	@Override
+	public int size() {
+		return this.verseCount;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.bible.VerseLookup#getFirstOrdinal(int, int, java.lang.String)
+	 */
+	@Override
+	public int getFirstOrdinal(int bookNumber, int chapterNumber, String verseNumber) {
+		if (verseNumber == null) return -1;
+		int[] ordinals = this.getLocations().get(VerseIndex.getKey(bookNumber, chapterNumber, verseNumber));
+		return ordinals != null ? ordinals[0] : -1;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.bible.VerseLookup#getLastOrdinal(int, int, java.lang.String)
+	 */
+	@Override
+	public int getLastOrdinal(int bookNumber, int chapterNumber, String verseNumber) {
+		if (verseNumber == null) return -1;
+		int[] ordinals = this.getLocations().get(VerseIndex.getKey(bookNumber, chapterNumber, verseNumber));
+		return ordinals != null ? ordinals[1] : -1;
+	}
+	
+	/**
+	 * Returns the first and last ordinal by location (see {@link VerseIndex}).
+	 * <p>
+	 * The map is built on first use since most lookups are by ordinal. The content
+	 * never changes, so it's safe for more than one thread to build it at the same
+	 * time; they all build the same map.
+	 * @return Map&lt;String, int[]&gt;
+	 */
+	private Map<String, int[]> getLocations() {
+		Map<String, int[]> locations = this.locations;
+		if (locations == null) {
+			locations = new HashMap<>(this.verseCount * 4 / 3 + 1);
+			for (int b = 0; b < this.bookNumbers.length; b++) {
+				for (int c = this.bookStarts[b]; c < this.bookStarts[b + 1]; c++) {
+					for (int o = this.chapterStarts[c]; o < this.chapterStarts[c + 1]; o++) {
+						final int ordinal = o;
+						locations.compute(VerseIndex.getKey(this.bookNumbers[b], this.chapterNumbers[c], this.getVerseNumber(o)), (k, v) -> {
+							if (v == null) return new int[] { ordinal, ordinal };
+							v[1] = ordinal;
+							return v;
+						});
+					}
+				}
+			}
+			this.locations = locations;
+		}
+		return locations;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.bible.VerseLookup#get(org.praisenter.data.bible.ReadOnlyBible, int)
+	 */
+	@Override
+	public LocatedVerse get(ReadOnlyBible bible, int ordinal) {
+		if (ordinal < 0 || ordinal >= this.verseCount) return null;
+		int c = find(this.chapterStarts, ordinal);
+		int b = find(this.bookStarts, c);
+		return new LocatedVerse(bible, this.books.get(b), new CompactChapter(c), new CompactVerse(ordinal));
+	}
+	
+	/**
+	 * A read-only view of a book.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	@JsonPropertyOrder({ "number", "name", "chapters" })
+	private final class CompactBook implements ReadOnlyBook {
+		/** The book index */
+		private final int index;
+		
+		/**
+		 * Minimal constructor.
+		 * @param index the book index
+		 */
+		public CompactBook(int index) {
+			this.index = index;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return this.getName();
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.praisenter.data.Copyable#copy()
+		 */
+		@Override
+		public Book copy() {
+			Book book = new Book(this.getNumber(), this.getName());
+			for (int c = bookStarts[this.index]; c < bookStarts[this.index + 1]; c++) {
+				book.getChapters().add(new CompactChapter(c).copy());
+			}
+			return book;
+		}
+		
+		@Override
+		@JsonProperty
+		public int getNumber() {
+			return bookNumbers[this.index];
+		}
+		
+		@Override
+		@JsonProperty
+		public String getName() {
+			return bookNames[this.index];
+		}
+		
+		@Override
+		public ReadOnlyIntegerProperty numberProperty() {
+			return new ReadOnlyIntegerWrapper(this.getNumber()).getReadOnlyProperty();
+		}
+		
+		@Override
+		public ReadOnlyStringProperty nameProperty() {
+			return new ReadOnlyStringWrapper(this.getName()).getReadOnlyProperty();
+		}
+		
+		@Override
+		@JsonProperty("chapters")
+		public ObservableList<? extends ReadOnlyChapter> getChaptersUnmodifiable() {
+			List<CompactChapter> chapters = new ArrayList<>();
+			for (int c = bookStarts[this.index]; c < bookStarts[this.index + 1]; c++) {
+				chapters.add(new CompactChapter(c));
+			}
+			return FXCollections.unmodifiableObservableList(FXCollections.observableList(chapters));
+		}
+		
+		@Override
+		public int getMaxChapterNumber() {
+			int max = -Integer.MAX_VALUE;
+			for (int c = bookStarts[this.index]; c < bookStarts[this.index + 1]; c++) {
+				if (chapterNumbers[c] > max) {
+					max = chapterNumbers[c];
+				}
+			}
+			return max >= 0 ? max : 1;
+		}
+		
+		@Override
+		public ReadOnlyChapter getChapter(int chapter) {
+			for (int c = bookStarts[this.index]; c < bookStarts[this.index + 1]; c++) {
+				if (chapterNumbers[c] == chapter) {
+					return new CompactChapter(c);
+				}
+			}
+			return null;
+		}
+		
+		@Override
+		public ReadOnlyChapter getLastChapter() {
+			int c = bookStarts[this.index + 1] - 1;
+			if (c < bookStarts[this.index]) {
+				return null;
+			}
+			return new CompactChapter(c);
+		}
+	}
+	
+	/**
+	 * A read-only view of a chapter.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	@JsonPropertyOrder({ "number", "verses" })
+	private final class CompactChapter implements ReadOnlyChapter {
+		/** The chapter index */
+		private final int index;
+		
+		/**
+		 * Minimal constructor.
+		 * @param index the chapter index
+		 */
+		public CompactChapter(int index) {
+			this.index = index;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return this.index;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) return true;
+			if (obj instanceof CompactChapter) {
+				CompactChapter other = (CompactChapter)obj;
+				return other.getBible() == CompactBible.this && other.index == this.index;
+			}
+			return false;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return String.valueOf(this.getNumber());
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.praisenter.data.Copyable#copy()
+		 */
+		@Override
+		public Chapter copy() {
+			Chapter chapter = new Chapter(this.getNumber());
+			for (int o = chapterStarts[this.index]; o < chapterStarts[this.index + 1]; o++) {
+				chapter.getVerses().add(new CompactVerse(o).copy());
+			}
+			return chapter;
+		}
+		
+		private CompactBible getBible() {
+			return CompactBible.this;
+		}
+		
+		@Override
+		@JsonProperty
+		public int getNumber() {
+			return chapterNumbers[this.index];
+		}
+		
+		@Override
+		public ReadOnlyIntegerProperty numberProperty() {
+			return new ReadOnlyIntegerWrapper(this.getNumber()).getReadOnlyProperty();
+		}
+		
+		@Override
+		@JsonProperty("verses")
+		public ObservableList<? extends ReadOnlyVerse> getVersesUnmodifiable() {
+			List<CompactVerse> verses = new ArrayList<>();
+			for (int o = chapterStarts[this.index]; o < chapterStarts[this.index + 1]; o++) {
+				verses.add(new CompactVerse(o));
+			}
+			return FXCollections.unmodifiableObservableList(FXCollections.observableList(verses));
+		}
+		
+		@Override
+		public ReadOnlyVerse getVerse(String verse) {
+			for (int o = chapterStarts[this.index]; o < chapterStarts[this.index + 1]; o++) {
+				if (verse != null && verse.equalsIgnoreCase(getVerseNumber(o))) {
+					return new CompactVerse(o);
+				}
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * A read-only view of a verse.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	@JsonPropertyOrder({ "text", "number" })
+	private final class CompactVerse implements ReadOnlyVerse {
+		/** The verse ordinal */
+		private final int ordinal;
+		
+		/**
+		 * Minimal constructor.
+		 * @param ordinal the verse ordinal
+		 */
+		public CompactVerse(int ordinal) {
+			this.ordinal = ordinal;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return this.ordinal;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) return true;
+			if (obj instanceof CompactVerse) {
+				CompactVerse other = (CompactVerse)obj;
+				return other.getBible() == CompactBible.this && other.ordinal == this.ordinal;
+			}
+			return false;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return String.valueOf(this.getNumber()) + " " + this.getText();
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.praisenter.data.Copyable#copy()
+		 */
+		@Override
+		public Verse copy() {
+			return new Verse(this.getNumber(), this.getText());
+		}
+		
+		private CompactBible getBible() {
+			return CompactBible.this;
+		}
+		
+		@Override
+		@JsonProperty
+		public String getNumber() {
+			return getVerseNumber(this.ordinal);
+		}
+		
+		@Override
+		@JsonProperty
+		public String getText() {
+			return getVerseText(this.ordinal);
+		}
+		
+		@Override
+		public ReadOnlyStringProperty numberProperty() {
+			return new ReadOnlyStringWrapper(this.getNumber()).getReadOnlyProperty();
+		}
+		
+		@Override
+		public ReadOnlyStringProperty textProperty() {
+			return new ReadOnlyStringWrapper(this.getText()).getReadOnlyProperty();
+		}
+	}
+}
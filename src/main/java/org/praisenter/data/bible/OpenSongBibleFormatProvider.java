@@ -24,14 +24,11 @@
  */
 package org.praisenter.data.bible;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.Reader;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -42,13 +39,13 @@ import javax.xml.parsers.SAXParserFactory;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamReader;
 
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.praisenter.data.DataFormatProvider;
 import org.praisenter.data.DataReadResult;
 import org.praisenter.data.InvalidFormatException;
 import org.praisenter.utility.MimeType;
-import org.praisenter.utility.Streams;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
@@ -68,21 +65,8 @@ final class OpenSongBibleFormatProvider implements DataFormatProvider<Bible> {
 	
 	@Override
 	public boolean isSupported(Path path) {
-		try (Reader reader = new BufferedReader(new FileReader(path.toFile()))) {
-			XMLInputFactory f = XMLInputFactory.newInstance();
-			// prevent XXE attacks
-			// https://www.owasp.org/index.php/XML_External_Entity_(XXE)_Prevention_Cheat_Sheet#XMLInputFactory_.28a_StAX_parser.29
-			f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-			f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-			XMLStreamReader r = f.createXMLStreamReader(reader);
-			while(r.hasNext()) {
-			    r.next();
-			    if (r.isStartElement()) {
-			    	if (r.getLocalName().equalsIgnoreCase("bible")) {
-			    		return true;
-			    	}
-			    }
-			}
+		try (InputStream stream = new BufferedInputStream(new FileInputStream(path.toFile()))) {
+			return this.isSupported(path.getFileName().toString(), stream);
 		} catch (Exception ex) {
 			LOGGER.trace("Failed to read the path as an XML document.", ex);
 		}
@@ -103,13 +87,17 @@ final class OpenSongBibleFormatProvider implements DataFormatProvider<Bible> {
 			f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
 			f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
 			XMLStreamReader r = f.createXMLStreamReader(stream);
-			while(r.hasNext()) {
-			    r.next();
-			    if (r.isStartElement()) {
-			    	if (r.getLocalName().equalsIgnoreCase("bible")) {
-			    		return true;
-			    	}
-			    }
+			try {
+				// only the root element is checked so that just the
+				// start of the stream is read
+				while(r.hasNext()) {
+				    r.next();
+				    if (r.isStartElement()) {
+				    	return r.getLocalName().equalsIgnoreCase("bible");
+				    }
+				}
+			} finally {
+				r.close();
 			}
 		} catch (Exception ex) {
 			LOGGER.trace("Failed to read the input stream as an XML document.", ex);
@@ -162,8 +150,6 @@ final class OpenSongBibleFormatProvider implements DataFormatProvider<Bible> {
 	 * @throws ParserConfigurationException 
 	 */
 	private DataReadResult<Bible> parse(InputStream stream, String name) throws ParserConfigurationException, SAXException, IOException {
-		byte[] content = Streams.read(stream);
-		// read the bytes
 		SAXParserFactory factory = SAXParserFactory.newInstance();
 		// prevent XXE attacks 
 		// https://www.owasp.org/index.php/XML_External_Entity_(XXE)_Prevention_Cheat_Sheet
@@ -172,7 +158,8 @@ final class OpenSongBibleFormatProvider implements DataFormatProvider<Bible> {
 		factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
 		SAXParser parser = factory.newSAXParser();
 		OpenSongHandler handler = new OpenSongHandler(name);
-		parser.parse(new ByteArrayInputStream(content), handler);
+		// parse the stream as it's read, but don't let the parser close it
+		parser.parse(new CloseShieldInputStream(stream), handler);
 		return new DataReadResult<Bible>(handler.getBible(), handler.warnings);
 	}
 	
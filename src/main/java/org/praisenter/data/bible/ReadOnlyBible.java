@@ -24,6 +24,7 @@ public interface ReadOnlyBible extends Indexable, Persistable, Copyable, Identif
 	
 	public int getVerseCount();
 	public int getBookCount();
+	public LocatedVerse getVerse(int ordinal);
 	public LocatedVerse getVerse(int bookNumber, int chapterNumber, String verseNumber);
 	public LocatedVerse getNextVerse(int bookNumber, int chapterNumber, String verseNumber);
 	public LocatedVerse getPreviousVerse(int bookNumber, int chapterNumber, String verseNumber);
@@ -31,7 +32,7 @@ public interface ReadOnlyBible extends Indexable, Persistable, Copyable, Identif
 	public LocatedVerseTriplet getNextTriplet(int bookNumber, int chapterNumber, String verseNumber);
 	public LocatedVerseTriplet getPreviousTriplet(int bookNumber, int chapterNumber, String verseNumber);
 	public LocatedVerseTriplet getMatchingTriplet(LocatedVerseTriplet triplet);
-	public Book getLastBook();
+	public ReadOnlyBook getLastBook();
 	public int getMaxBookNumber();
-	public Book getMatchingBook(ReadOnlyBook book);
+	public ReadOnlyBook getMatchingBook(ReadOnlyBook book);
 }
@@ -16,6 +16,6 @@ public interface ReadOnlyBook extends Copyable {
 	public ObservableList<? extends ReadOnlyChapter> getChaptersUnmodifiable();
 	
 	public int getMaxChapterNumber();
-	public Chapter getChapter(int chapter);
-	public Chapter getLastChapter();
+	public ReadOnlyChapter getChapter(int chapter);
+	public ReadOnlyChapter getLastChapter();
 }
\ No newline at end of file
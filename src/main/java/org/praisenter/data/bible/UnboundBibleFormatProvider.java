@@ -106,19 +106,17 @@ final class UnboundBibleFormatProvider implements DataFormatProvider<Bible> {
 		Bible bible = new Bible();
 		bible.setSource("THE UNBOUND BIBLE (www.unboundbible.org)");
 
-		BufferedInputStream bis = new BufferedInputStream(new FileInputStream(path.toFile()));
-		bis.mark(Integer.MAX_VALUE);
-		
 		// find the book first
 		Map<String, Book> bookMap = null;
-		ZipInputStream zis = new ZipInputStream(bis);
-		ZipEntry entry = null;
-		while ((entry = zis.getNextEntry()) != null) {
-			if (entry.getName().equalsIgnoreCase(bookFileName)) {
-				LOGGER.debug("Reading UnboundBible .zip file contents: " + bookFileName);
-				bookMap = readBooks(bible, bookFileName, zis);
-				LOGGER.debug("UnboundBible .zip file contents read successfully: " + bookFileName);
-				break;
+		try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(new FileInputStream(path.toFile())))) {
+			ZipEntry entry = null;
+			while ((entry = zis.getNextEntry()) != null) {
+				if (entry.getName().equalsIgnoreCase(bookFileName)) {
+					LOGGER.debug("Reading UnboundBible .zip file contents: " + bookFileName);
+					bookMap = readBooks(bible, bookFileName, zis);
+					LOGGER.debug("UnboundBible .zip file contents read successfully: " + bookFileName);
+					break;
+				}
 			}
 		}
 		
@@ -128,15 +126,16 @@ final class UnboundBibleFormatProvider implements DataFormatProvider<Bible> {
 			throw new InvalidFormatException("A book_names.txt file was not found '" + resourceName + "'.");
 		}
 		
-		bis.reset();
-		// read the zip file for Verses
-		zis = new ZipInputStream(bis);
-		entry = null;
-		while ((entry = zis.getNextEntry()) != null) {
-			if (entry.getName().equalsIgnoreCase(verseFileName) || entry.getName().toLowerCase().endsWith("_utf8.txt")) {
-				LOGGER.debug("Reading UnboundBible .zip file contents: " + verseFileName);
-				warnings = readVerses(bible, bookMap, verseFileName, zis);
-				LOGGER.debug("UnboundBible .zip file contents read successfully: " + verseFileName);
+		// read the zip file again for the verses (opening it again rather than
+		// marking the first stream, which would buffer the whole file)
+		try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(new FileInputStream(path.toFile())))) {
+			ZipEntry entry = null;
+			while ((entry = zis.getNextEntry()) != null) {
+				if (entry.getName().equalsIgnoreCase(verseFileName) || entry.getName().toLowerCase().endsWith("_utf8.txt")) {
+					LOGGER.debug("Reading UnboundBible .zip file contents: " + verseFileName);
+					warnings = readVerses(bible, bookMap, verseFileName, zis);
+					LOGGER.debug("UnboundBible .zip file contents read successfully: " + verseFileName);
+				}
 			}
 		}
 		
@@ -0,0 +1,160 @@
+package org.praisenter.data.bible;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.collections.ObservableList;
+
+/**
+ * A flat, ordinal-based index of the verses of a bible for constant time
+ * lookup and navigation.
+ * <p>
+ * The ordinal of a verse is its zero-based position in the bible in book, chapter,
+ * verse order. Locations (book number, chapter number, verse number) map to the
+ * ordinal of the first and last verse with that location (they are normally the same,
+ * but numbers aren't guaranteed to be unique while a bible is being edited).
+ * <p>
+ * The index is a snapshot of the bible's structure. When built, the given listener
+ * is added to every list and number property that affects it so that the owner can
+ * discard it when the bible is edited. Use {@link #dispose()} to remove the listener.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+final class VerseIndex implements VerseLookup {
+	/** The book of each verse (by ordinal) */
+	private final Book[] books;
+	
+	/** The chapter of each verse (by ordinal) */
+	private final Chapter[] chapters;
+	
+	/** The verses (by ordinal) */
+	private final Verse[] verses;
+	
+	/** The first and last ordinal by location */
+	private final Map<String, int[]> locations;
+	
+	/** The observables the listener was added to */
+	private final List<Observable> observables;
+	
+	/** The listener notified when the index is no longer valid */
+	private final InvalidationListener listener;
+	
+	/**
+	 * Builds an index for the given books.
+	 * @param books the books
+	 * @param listener the listener to notify when the index is no longer valid
+	 */
+	public VerseIndex(ObservableList<Book> books, InvalidationListener listener) {
+		this.listener = listener;
+		this.observables = new ArrayList<>();
+		
+		int n = 0;
+		for (Book book : books) {
+			for (Chapter chapter : book.getChapters()) {
+				n += chapter.getVerses().size();
+			}
+		}
+		
+		this.books = new Book[n];
+		this.chapters = new Chapter[n];
+		this.verses = new Verse[n];
+		this.locations = new HashMap<>(n * 4 / 3 + 1);
+		
+		this.observe(books);
+		int ordinal = 0;
+		for (Book book : books) {
+			this.observe(book.numberProperty());
+			this.observe(book.getChapters());
+			for (Chapter chapter : book.getChapters()) {
+				this.observe(chapter.numberProperty());
+				this.observe(chapter.getVerses());
+				for (Verse verse : chapter.getVerses()) {
+					this.observe(verse.numberProperty());
+					
+					this.books[ordinal] = book;
+					this.chapters[ordinal] = chapter;
+					this.verses[ordinal] = verse;
+					
+					final int o = ordinal;
+					this.locations.compute(getKey(book.getNumber(), chapter.getNumber(), verse.getNumber()), (k, v) -> {
+						if (v == null) return new int[] { o, o };
+						v[1] = o;
+						return v;
+					});
+					
+					ordinal++;
+				}
+			}
+		}
+	}
+	
+	private void observe(Observable observable) {
+		observable.addListener(this.listener);
+		this.observables.add(observable);
+	}
+	
+	/**
+	 * Removes the listener from everything it was added to.
+	 */
+	public void dispose() {
+		for (Observable observable : this.observables) {
+			observable.removeListener(this.listener);
+		}
+		this.observables.clear();
+	}
+	
+	/**
+	 * Returns the key for the given location.
+	 * <p>
+	 * Verse numbers are compared without case.
+	 * @param bookNumber the book number
+	 * @param chapterNumber the chapter number
+	 * @param verseNumber the verse number
+	 * @return String
+	 */
+	static String getKey(int bookNumber, int chapterNumber, String verseNumber) {
+		return bookNumber + ":" + chapterNumber + ":" + (verseNumber != null ? verseNumber.toLowerCase(Locale.ROOT) : "");
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.bible.VerseLookup#size()
+	 */
+	@Override
+	public int size() {
+		return this.verses.length;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.bible.VerseLookup#getFirstOrdinal(int, int, java.lang.String)
+	 */
+	@Override
+	public int getFirstOrdinal(int bookNumber, int chapterNumber, String verseNumber) {
+		if (verseNumber == null) return -1;
+		int[] ordinals = this.locations.get(getKey(bookNumber, chapterNumber, verseNumber));
+		return ordinals != null ? ordinals[0] : -1;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.bible.VerseLookup#getLastOrdinal(int, int, java.lang.String)
+	 */
+	@Override
+	public int getLastOrdinal(int bookNumber, int chapterNumber, String verseNumber) {
+		if (verseNumber == null) return -1;
+		int[] ordinals = this.locations.get(getKey(bookNumber, chapterNumber, verseNumber));
+		return ordinals != null ? ordinals[1] : -1;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.praisenter.data.bible.VerseLookup#get(org.praisenter.data.bible.ReadOnlyBible, int)
+	 */
+	@Override
+	public LocatedVerse get(ReadOnlyBible bible, int ordinal) {
+		if (ordinal < 0 || ordinal >= this.verses.length) return null;
+		return new LocatedVerse(bible, this.books[ordinal], this.chapters[ordinal], this.verses[ordinal]);
+	}
+}
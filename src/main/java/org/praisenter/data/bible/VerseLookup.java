@@ -0,0 +1,46 @@
+package org.praisenter.data.bible;
+
+/**
+ * Represents an ordinal-based view of the verses of a bible used to implement
+ * the navigation methods of {@link Bible}.
+ * <p>
+ * The ordinal of a verse is its zero-based position in the bible in book, chapter,
+ * verse order.
+ * @author William Bittle
+ * @version 3.0.0
+ * @see VerseIndex
+ * @see CompactBible
+ */
+interface VerseLookup {
+	/**
+	 * Returns the number of verses.
+	 * @return int
+	 */
+	public int size();
+	
+	/**
+	 * Returns the ordinal of the first verse at the given location or -1 if not found.
+	 * @param bookNumber the book number
+	 * @param chapterNumber the chapter number
+	 * @param verseNumber the verse number
+	 * @return int
+	 */
+	public int getFirstOrdinal(int bookNumber, int chapterNumber, String verseNumber);
+	
+	/**
+	 * Returns the ordinal of the last verse at the given location or -1 if not found.
+	 * @param bookNumber the book number
+	 * @param chapterNumber the chapter number
+	 * @param verseNumber the verse number
+	 * @return int
+	 */
+	public int getLastOrdinal(int bookNumber, int chapterNumber, String verseNumber);
+	
+	/**
+	 * Returns the verse at the given ordinal or null if the ordinal is out of range.
+	 * @param bible the bible
+	 * @param ordinal the ordinal
+	 * @return {@link LocatedVerse}
+	 */
+	public LocatedVerse get(ReadOnlyBible bible, int ordinal);
+}
@@ -27,7 +27,13 @@ package org.praisenter.data.json;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.praisenter.Constants;
 
@@ -36,15 +42,24 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
 /**
  * Helper class for serializing and deserializing between Java objects and JSON.
+ * <p>
+ * Files and streams can be written in any of the {@link StorageFormat}s. The read
+ * methods detect the format, so callers never need to know how something was written.
+ * <p>
+ * Files are written to a temporary file next to the destination which is then moved
+ * into place, so a failed or interrupted write never leaves a partially written file.
  * @author William Bittle
  * @version 3.0.0
  */
@@ -52,6 +67,9 @@ public final class JsonIO {
 	/** The mapper */
 	private static final ObjectMapper MAPPER = createObjectMapper();
 	
+	/** The extension added to the name of a file while it's being written */
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+	
 	/**
 	 * Builds the object mapper and sets some default settings.
 	 * @return ObjectMapper
@@ -71,6 +89,41 @@ public final class JsonIO {
 		return mapper;
 	}
 	
+	/**
+	 * Returns a stream of the JSON in the given stream, decompressing it if it was
+	 * written in the {@link StorageFormat#COMPRESSED} format.
+	 * <p>
+	 * The format is detected using the GZIP magic number. The given stream's mark
+	 * isn't used so that callers can still mark/reset it.
+	 * @param stream the stream
+	 * @return InputStream
+	 * @throws IOException if an IO error occurs
+	 */
+	private static final InputStream decode(InputStream stream) throws IOException {
+		PushbackInputStream in = new PushbackInputStream(stream, 2);
+		byte[] magic = new byte[2];
+		int n = in.readNBytes(magic, 0, 2);
+		in.unread(magic, 0, n);
+		if (n == 2 && ((magic[0] & 0xFF) | ((magic[1] & 0xFF) << 8)) == GZIPInputStream.GZIP_MAGIC) {
+			return new GZIPInputStream(in);
+		}
+		return in;
+	}
+	
+	/**
+	 * Returns the writer for the given object and format.
+	 * @param object the object to serialize
+	 * @param format the format
+	 * @return ObjectWriter
+	 */
+	private static final ObjectWriter writer(Object object, StorageFormat format) {
+		ObjectWriter writer = MAPPER.writerFor(object.getClass());
+		if (format != StorageFormat.PRETTY) {
+			writer = writer.without(SerializationFeature.INDENT_OUTPUT);
+		}
+		return writer;
+	}
+	
 	// read
 	
 	/**
@@ -94,7 +147,7 @@ public final class JsonIO {
 	 * @throws IOException if an IO error occurs
 	 */
 	public static final <T> T read(InputStream stream, Class<T> clazz) throws JsonProcessingException, IOException {
-		return MAPPER.readerFor(clazz).readValue(stream);
+		return MAPPER.readerFor(clazz).readValue(decode(stream));
 	}
 
 	/**
@@ -106,7 +159,9 @@ public final class JsonIO {
 	 * @throws IOException if an IO error occurs
 	 */
 	public static final <T> T read(Path path, Class<T> clazz) throws JsonProcessingException, IOException {
-		return MAPPER.readerFor(clazz).readValue(path.toFile());
+		try (InputStream stream = Files.newInputStream(path)) {
+			return MAPPER.readerFor(clazz).readValue(decode(stream));
+		}
 	}
 	
 	// write
@@ -121,6 +176,16 @@ public final class JsonIO {
 		return MAPPER.writerFor(object.getClass()).writeValueAsString(object);
 	}
 	
+	/**
+	 * Serializes the given object to JSON without any formatting whitespace.
+	 * @param object the object to serialize
+	 * @return byte[]
+	 * @throws JsonProcessingException if a JSON serialization error occurs
+	 */
+	public static final byte[] writeCompact(Object object) throws JsonProcessingException {
+		return writer(object, StorageFormat.COMPACT).writeValueAsBytes(object);
+	}
+	
 	/**
 	 * Serializes the given object to the given stream.
 	 * @param stream the stream to write the JSON to
@@ -142,7 +207,96 @@ public final class JsonIO {
 	 * @throws JsonGenerationException if a JSON writing error occurs
 	 */
 	public static final void write(Path path, Object object) throws JsonGenerationException, JsonMappingException, IOException {
-		MAPPER.writerFor(object.getClass()).writeValue(path.toFile(), object);
+		Path temp = getTemporaryPath(path);
+		try {
+			try (OutputStream stream = Files.newOutputStream(temp)) {
+				MAPPER.writerFor(object.getClass()).writeValue(stream, object);
+			}
+			replace(temp, path);
+		} catch (IOException ex) {
+			Files.deleteIfExists(temp);
+			throw ex;
+		}
+	}
+	
+	/**
+	 * Serializes the given object to the given stream in the given format.
+	 * @param stream the stream to write the JSON to
+	 * @param object the object to serialize
+	 * @param format the format
+	 * @throws IOException if an IO error occurs
+	 * @throws JsonMappingException if a JSON mapping error occurs
+	 * @throws JsonGenerationException if a JSON writing error occurs
+	 */
+	public static final void write(OutputStream stream, Object object, StorageFormat format) throws JsonGenerationException, JsonMappingException, IOException {
+		if (format == StorageFormat.COMPRESSED) {
+			// finish (rather than close) so the given stream stays open
+			GZIPOutputStream gzip = new GZIPOutputStream(stream);
+			writer(object, format).writeValue(gzip, object);
+			gzip.finish();
+		} else {
+			writer(object, format).writeValue(stream, object);
+		}
+	}
+	
+	/**
+	 * Serializes the given object to the given file in the given format.
+	 * @param path the file to write the JSON to
+	 * @param object the object to serialize
+	 * @param format the format
+	 * @throws IOException if an IO error occurs
+	 * @throws JsonMappingException if a JSON mapping error occurs
+	 * @throws JsonGenerationException if a JSON writing error occurs
+	 */
+	public static final void write(Path path, Object object, StorageFormat format) throws JsonGenerationException, JsonMappingException, IOException {
+		Path temp = getTemporaryPath(path);
+		try {
+			try (OutputStream stream = Files.newOutputStream(temp)) {
+				write(stream, object, format);
+			}
+			replace(temp, path);
+		} catch (IOException ex) {
+			Files.deleteIfExists(temp);
+			throw ex;
+		}
+	}
+	
+	/**
+	 * Returns true if the given path is a temporary file used while writing a file.
+	 * <p>
+	 * Temporary files are only left behind if the application exits while writing,
+	 * so they should be skipped when loading.
+	 * @param path the path
+	 * @return boolean
+	 */
+	public static final boolean isTemporaryFile(Path path) {
+		Path name = path.getFileName();
+		return name != null && name.toString().endsWith(TEMPORARY_EXTENSION);
+	}
+	
+	/**
+	 * Returns the temporary file to use while writing the given file.
+	 * @param path the file
+	 * @return Path
+	 */
+	private static final Path getTemporaryPath(Path path) {
+		return path.resolveSibling(path.getFileName().toString() + TEMPORARY_EXTENSION);
+	}
+	
+	/**
+	 * Moves the given temporary file over the given file.
+	 * @param temp the temporary file
+	 * @param path the file
+	 * @throws IOException if an IO error occurs
+	 */
+	private static final void replace(Path temp, Path path) throws IOException {
+		try {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException ex) {
+			// some file systems can't do this atomically, but it's
+			// still better than writing over the existing file
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
 	}
 	
 	// identify
@@ -162,13 +316,18 @@ public final class JsonIO {
 	/**
 	 * Returns a {@link PraisenterFormat} object for the given JSON or null if it's not a 
 	 * Praisenter file format.
+	 * <p>
+	 * The stream is read until the format properties are found, skipping over everything
+	 * else without building it in memory.
 	 * @param stream the stream
 	 * @return boolean
 	 * @throws JsonProcessingException if an error occurs while interpreting the stream as JSON
 	 * @throws IOException if and IO error occurs
 	 */
 	public static final PraisenterFormat getPraisenterFormat(InputStream stream) throws JsonProcessingException, IOException {
-		return getPraisenterFormat(MAPPER.readTree(stream));
+		try (JsonParser parser = MAPPER.getFactory().createParser(decode(stream))) {
+			return getPraisenterFormat(parser);
+		}
 	}
 	
 	/**
@@ -180,7 +339,52 @@ public final class JsonIO {
 	 * @throws IOException if and IO error occurs
 	 */
 	public static final PraisenterFormat getPraisenterFormat(Path path) throws JsonProcessingException, IOException {
-		return getPraisenterFormat(MAPPER.readTree(path.toFile()));
+		try (InputStream stream = Files.newInputStream(path)) {
+			return getPraisenterFormat(stream);
+		}
+	}
+	
+	/**
+	 * Returns a {@link PraisenterFormat} object for the JSON read by the given parser.
+	 * @param parser the parser
+	 * @return {@link PraisenterFormat}
+	 * @throws IOException if an IO error occurs or the JSON is malformed
+	 */
+	private static final PraisenterFormat getPraisenterFormat(JsonParser parser) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			return null;
+		}
+		
+		// the properties are at the root level, but they can be after
+		// the content (the books of a bible, for example)
+		String type = null;
+		String format = null;
+		String version = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			parser.nextToken();
+			if ("@type".equals(name)) {
+				type = parser.getValueAsString();
+			} else if (Constants.FORMAT_PROPERTY_NAME.equals(name)) {
+				format = parser.getValueAsString();
+			} else if (Constants.VERSION_PROPERTY_NAME.equals(name)) {
+				version = parser.getValueAsString();
+			} else {
+				parser.skipChildren();
+			}
+			
+			if (type != null && format != null && version != null) {
+				break;
+			}
+		}
+		
+		// if we don't find @type and format then we don't think
+		// it's praisenter
+		if (type == null || format == null) {
+			return null;
+		}
+		
+		return new PraisenterFormat(type, format, version);
 	}
 	
 	/**
@@ -0,0 +1,19 @@
+package org.praisenter.data.json;
+
+/**
+ * The forms in which {@link JsonIO} can write files.
+ * <p>
+ * All forms can be read without knowing which one was used to write them.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+public enum StorageFormat {
+	/** Indented JSON; the largest, but easy to read and edit by hand */
+	PRETTY,
+	
+	/** JSON without any formatting whitespace */
+	COMPACT,
+	
+	/** Compact JSON compressed with GZIP; the smallest, but binary */
+	COMPRESSED
+}
@@ -1,6 +1,8 @@
 package org.praisenter.data.media;
 
-public interface MediaConfiguration {
+import org.praisenter.data.StorageConfiguration;
+
+public interface MediaConfiguration extends StorageConfiguration {
 	/** The video target extension (will be treated as the destination format as well) */
 	public static final String DEFAULT_VIDEO_EXTENSION = "mp4";
 	
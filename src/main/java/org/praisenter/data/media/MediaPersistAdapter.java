@@ -5,7 +5,6 @@ import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -22,6 +21,8 @@ import org.apache.logging.log4j.Logger;
 import org.praisenter.LockMap;
 import org.praisenter.data.DataImportResult;
 import org.praisenter.data.DeleteFilesShutdownHook;
+import org.praisenter.data.DirectoryLoader;
+import org.praisenter.data.DirectorySnapshot;
 import org.praisenter.data.KnownFormat;
 import org.praisenter.data.PersistAdapter;
 import org.praisenter.data.json.JsonIO;
@@ -65,32 +66,30 @@ public final class MediaPersistAdapter implements PersistAdapter<Media> {
 	
 	@Override
 	public List<Media> load() throws IOException {
-		List<Media> items = new ArrayList<Media>();
-		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.pathResolver.getBasePath())) {
-			for (Path file : stream) {
-				if (Files.isRegularFile(file)) {
-					String mimeType = MimeType.get(file);
-					if (MimeType.JSON.is(mimeType)) {
-						try (InputStream is = Files.newInputStream(file)) {
-							Media m = JsonIO.read(is, Media.class);
-							m.setMediaPath(this.pathResolver.getMediaPath(m));
-							if (m.getMediaType() == MediaType.IMAGE) {
-								m.setMediaImagePath(this.pathResolver.getMediaPath(m));
-							} else if (m.getMediaType() == MediaType.AUDIO) {
-								m.setMediaImagePath(this.pathResolver.getThumbPath(m));
-							} else {
-								m.setMediaImagePath(this.pathResolver.getImagePath(m));
-							}
-							m.setMediaThumbnailPath(this.pathResolver.getThumbPath(m));
-							items.add(m);
-						} catch (Exception ex) {
-							LOGGER.error("Failed to load '" + file.toAbsolutePath() + "' due to: " + ex.getMessage(), ex);
-						}
-					}
-				}
+		return this.load(null);
+	}
+	
+	@Override
+	public List<Media> load(DirectorySnapshot snapshot) throws IOException {
+		return DirectoryLoader.load(this.pathResolver.getBasePath(), (file) -> {
+			String mimeType = MimeType.getTrusted(file);
+			if (!MimeType.JSON.is(mimeType)) {
+				return null;
 			}
-		}
-		return items;
+			try (InputStream is = Files.newInputStream(file)) {
+				return JsonIO.read(is, Media.class);
+			}
+		}, Media.class, (m) -> {
+			m.setMediaPath(this.pathResolver.getMediaPath(m));
+			if (m.getMediaType() == MediaType.IMAGE) {
+				m.setMediaImagePath(this.pathResolver.getMediaPath(m));
+			} else if (m.getMediaType() == MediaType.AUDIO) {
+				m.setMediaImagePath(this.pathResolver.getThumbPath(m));
+			} else {
+				m.setMediaImagePath(this.pathResolver.getImagePath(m));
+			}
+			m.setMediaThumbnailPath(this.pathResolver.getThumbPath(m));
+		}, snapshot);
 	}
 	
 	@Override
@@ -103,7 +102,18 @@ public final class MediaPersistAdapter implements PersistAdapter<Media> {
 		synchronized (this.exportLock) {
 			Path path = this.pathResolver.getPath(item);
 			synchronized (this.locks.get(item.getId())) {
-				JsonIO.write(path, item);
+				JsonIO.write(path, item, this.configuration.getStorageFormat());
+			}
+		}
+	}
+	
+	@Override
+	public void rewrite(Media item) throws IOException {
+		synchronized (this.exportLock) {
+			Path path = this.pathResolver.getPath(item);
+			synchronized (this.locks.get(item.getId())) {
+				Media stored = JsonIO.read(path, Media.class);
+				JsonIO.write(path, stored, this.configuration.getStorageFormat());
 			}
 		}
 	}
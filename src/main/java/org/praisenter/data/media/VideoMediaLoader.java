@@ -148,7 +148,7 @@ final class VideoMediaLoader extends AbstractMediaLoader implements MediaLoader
 
 		try {
 			// write the JSON data
-			JsonIO.write(this.pathResolver.getPath(media), media);
+			JsonIO.write(this.pathResolver.getPath(media), media, this.configuration.getStorageFormat());
 		} catch (Exception ex) {
 			this.delete(target);
 			throw new MediaImportException("Failed to store media metadata for '" + media.getName() + "'.", ex);
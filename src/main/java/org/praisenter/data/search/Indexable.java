@@ -1,8 +1,12 @@
 package org.praisenter.data.search;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.TextField;
 import org.praisenter.data.Identifiable;
 
 public interface Indexable extends Identifiable {
@@ -11,7 +15,49 @@ public interface Indexable extends Identifiable {
 	public static final String FIELD_TEXT = "docText";
 	public static final String FIELD_TYPE = "docType";
 	public static final String FIELD_TAGS = "docTags";
+	public static final String FIELD_FINGERPRINT = "docFingerprint";
+	public static final String FIELD_PART = "docPart";
+	
+	/** Stored, tokenized text with term vectors (positions and offsets) so that matches can be highlighted without re-analyzing the text */
+	public static final FieldType TEXT_FIELD_TYPE = createTextFieldType();
 	
 	public String getName();
+	public Instant getModifiedDate();
 	public List<Document> index();
+	
+	/**
+	 * Returns the work to index this item split into independent parts that
+	 * can be executed concurrently.
+	 * <p>
+	 * The union of the documents returned by the parts must be the same as
+	 * {@link #index()}. By default, the entire item is a single part.
+	 * @return List&lt;Supplier&lt;List&lt;Document&gt;&gt;&gt;
+	 */
+	public default List<Supplier<List<Document>>> getIndexParts() {
+		return List.of(this::index);
+	}
+	
+	/**
+	 * Returns a value that changes whenever the indexed content of this item changes
+	 * and that's much cheaper to get than the documents themselves, or null if there
+	 * isn't one.
+	 * <p>
+	 * Items with a stamp aren't reindexed at startup if it hasn't changed since they
+	 * were last indexed. The stamp only needs to cover the item; changes to how the
+	 * documents are built are covered by the version of the index layout kept by the
+	 * {@link SearchIndex}. By default, null (the documents are always compared).
+	 * @return String
+	 */
+	public default String getIndexStamp() {
+		return null;
+	}
+	
+	private static FieldType createTextFieldType() {
+		FieldType type = new FieldType(TextField.TYPE_STORED);
+		type.setStoreTermVectors(true);
+		type.setStoreTermVectorPositions(true);
+		type.setStoreTermVectorOffsets(true);
+		type.freeze();
+		return type;
+	}
 }
@@ -3,6 +3,7 @@ package org.praisenter.data.search;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
@@ -44,6 +45,18 @@ public class SearchCriteria {
 	public int getMaxResults() {
 		return this.maxResults;
 	}
+	
+	/**
+	 * Returns the fields to read from doc values for each hit instead of loading
+	 * the hit's stored fields.
+	 * <p>
+	 * Hits that don't have doc values for all of these fields (for example, if they
+	 * were indexed before the fields were added) fall back to the stored fields.
+	 * @return Set&lt;String&gt; or null to always load the stored fields
+	 */
+	public Set<String> getDocValueFields() {
+		return null;
+	}
 
 	/**
 	 * Uses the lucene analyzer to tokenize the given text for the given lucene field.
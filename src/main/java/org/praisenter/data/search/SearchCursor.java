@@ -0,0 +1,63 @@
+package org.praisenter.data.search;
+
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+
+/**
+ * Represents the position after the last hit of a page of {@link SearchResults}.
+ * <p>
+ * Pass to {@link SearchIndex#search(SearchCursor)} to get the next page. The next page
+ * is collected after this position (see {@link org.apache.lucene.search.IndexSearcher#searchAfter(ScoreDoc, Query, int)})
+ * using the same point-in-time view of the index as the previous page (if it's still available)
+ * so that pages don't overlap or skip hits when the index changes between page requests.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+public final class SearchCursor {
+	/** The original criteria */
+	private final SearchCriteria criteria;
+	
+	/** The query built from the criteria */
+	private final Query query;
+	
+	/** The version of the searcher that produced the previous page */
+	private final long version;
+	
+	/** The last hit of the previous page */
+	private final ScoreDoc after;
+	
+	/** The number of hits before this cursor */
+	private final int offset;
+	
+	SearchCursor(SearchCriteria criteria, Query query, long version, ScoreDoc after, int offset) {
+		this.criteria = criteria;
+		this.query = query;
+		this.version = version;
+		this.after = after;
+		this.offset = offset;
+	}
+	
+	public SearchCriteria getCriteria() {
+		return this.criteria;
+	}
+	
+	/**
+	 * Returns the number of hits in the pages before this cursor.
+	 * @return int
+	 */
+	public int getOffset() {
+		return this.offset;
+	}
+	
+	Query getQuery() {
+		return this.query;
+	}
+	
+	long getVersion() {
+		return this.version;
+	}
+	
+	ScoreDoc getAfter() {
+		return this.after;
+	}
+}
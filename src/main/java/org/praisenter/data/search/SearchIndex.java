@@ -1,133 +1,1390 @@
 package org.praisenter.data.search;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherLifetimeManager;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.highlight.Highlighter;
 import org.apache.lucene.search.highlight.QueryScorer;
 import org.apache.lucene.search.highlight.TokenSources;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 
+/**
+ * Lucene backed search index for all {@link Indexable} items in a workspace.
+ * <p>
+ * A single {@link IndexWriter} is held open for the life of the index and searches
+ * are executed against near-real-time readers managed by a {@link SearcherManager}.
+ * The readers are refreshed by a background thread so that changes become visible
+ * shortly after they are made without paying the cost of opening the index per search.
+ * <p>
+ * Changes are committed to disk periodically (and on {@link #close()}) rather than
+ * per change. Callers must call {@link #close()} when the index is no longer needed
+ * to release the index write lock.
+ * <p>
+ * Changes can also be queued using {@link #queueUpdate(Indexable)} and {@link #queueDelete(Indexable)}.
+ * Queued changes are coalesced by item id and applied in batches using a single commit. Use
+ * {@link #flush()} to wait for all queued changes to be applied and visible to searches.
+ * <p>
+ * Each item also gets a fingerprint document (id, modified date and content hash) so that
+ * {@link #reconcile(Iterable, DoubleConsumer)} can bring a stale index up to date by only
+ * reindexing the items that changed.
+ * <p>
+ * The documents of each part of an item (see {@link Indexable#getIndexParts()}) are tagged
+ * with the part they came from and the content digests of the parts are remembered, so an
+ * update only replaces the parts that changed (the books of a bible for example).
+ * <p>
+ * Searches return lightweight hits (key fields and score only). The searcher used for a
+ * search is kept for a while so that the highlighted text for a hit can be computed later
+ * against the same point-in-time view of the index, only for the hits that are displayed.
+ * <p>
+ * Recent search results are cached by query and page. The cache is cleared whenever the
+ * index changes so that a cached result is never stale.
+ * @author William Bittle
+ * @version 3.0.0
+ */
 public final class SearchIndex {
 	/** The class-level logger */
 	private static final Logger LOGGER = LogManager.getLogger();
-
+	
+	/** The maximum time (in seconds) a search may see stale results */
+	private static final double MAX_STALE_SECONDS = 1.0;
+	
+	/** The minimum time (in seconds) between reopens when someone is waiting on a change */
+	private static final double MIN_STALE_SECONDS = 0.025;
+	
+	/** The interval (in seconds) at which uncommitted changes are committed */
+	private static final long COMMIT_INTERVAL_SECONDS = 30;
+	
+	/** The separator between the parts of a fingerprint */
+	private static final char FINGERPRINT_SEPARATOR = '|';
+	
+	/** The algorithm used to hash the content of an item for its fingerprint */
+	private static final String FINGERPRINT_ALGORITHM = "SHA-256";
+	
+	/** The part name of the fingerprint document */
+	private static final String FINGERPRINT_PART = "fingerprint";
+	
+	/**
+	 * The version of the layout of the indexed documents.
+	 * <p>
+	 * This must be bumped whenever the documents built for an item change (fields,
+	 * values or analysis) so that items with an index stamp are reindexed rather
+	 * than skipped at startup.
+	 */
+	private static final int INDEX_SCHEMA_VERSION = 1;
+	
+	/** The time (in milliseconds) to wait for more changes before applying a batch */
+	private static final long BATCH_DELAY_MILLIS = 100;
+	
+	/** The time (in seconds) a searcher is kept after a search so its hits can be highlighted */
+	private static final double SEARCHER_LIFETIME_SECONDS = 600;
+	
+	/** The maximum number of highlighted fragments per hit */
+	private static final int MAX_FRAGMENTS = 10;
+	
+	/** The maximum number of search results to cache */
+	private static final int RESULT_CACHE_SIZE = 64;
+	
 	/** The file-system index */
-	private Directory directory;
+	private final Directory directory;
 	
 	/** The analyzer for the index */
-	private Analyzer analyzer;
+	private final Analyzer analyzer;
+	
+	/** The long-lived index writer; replaced if the index is rolled back */
+	private volatile IndexWriter writer;
+	
+	/** The manager for near-real-time searchers; replaced if the index is rolled back */
+	private volatile SearcherManager searcherManager;
+	
+	/** The thread that refreshes the searchers; replaced if the index is rolled back */
+	private volatile ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+	
+	/** The searchers used by recent searches (for highlighting); replaced if the index is rolled back */
+	private volatile SearcherLifetimeManager searchers;
+	
+	/** The recent search results */
+	private final ResultCache resultCache;
+	
+	/** The executor for periodic commits and queued changes */
+	private final ScheduledExecutorService executor;
 	
-	public SearchIndex(Directory directory, Analyzer analyzer) {
+	/** The queued changes by item id (in queue order) */
+	private final Map<UUID, QueuedChange> queue;
+	
+	/** True if a batch is scheduled to be applied */
+	private boolean batchScheduled;
+	
+	/** The changes of the batch being applied (guarded by the queue) */
+	private List<QueuedChange> applying;
+	
+	/** The content digests of the parts of the items in the index by item id */
+	private final Map<UUID, byte[][]> partDigests;
+	
+	public SearchIndex(Directory directory, Analyzer analyzer) throws IOException {
 		this.directory = directory;
 		this.analyzer = analyzer;
+		
+		this.open();
+		
+		this.searchers = new SearcherLifetimeManager();
+		this.resultCache = new ResultCache(RESULT_CACHE_SIZE);
+		
+		this.queue = new LinkedHashMap<>();
+		this.batchScheduled = false;
+		this.applying = Collections.emptyList();
+		this.partDigests = new ConcurrentHashMap<>();
+		
+		this.executor = Executors.newSingleThreadScheduledExecutor((r) -> {
+			Thread thread = new Thread(r, "praisenter-search-index-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.scheduleWithFixedDelay(() -> {
+			try {
+				this.commit();
+			} catch (Exception ex) {
+				LOGGER.warn("Failed to commit search index changes: " + ex.getMessage(), ex);
+			}
+			try {
+				this.searchers.prune(new SearcherLifetimeManager.PruneByAge(SEARCHER_LIFETIME_SECONDS));
+			} catch (Exception ex) {
+				LOGGER.warn("Failed to release expired searchers: " + ex.getMessage(), ex);
+			}
+		}, COMMIT_INTERVAL_SECONDS, COMMIT_INTERVAL_SECONDS, TimeUnit.SECONDS);
 	}
 	
-	public synchronized void create(Indexable item) throws IOException {
-		List<Document> docs = item.index();
-		if (docs == null || docs.isEmpty()) return;
+	/**
+	 * Opens the writer and the searchers at the last commit.
+	 * @throws IOException if an IO error occurs
+	 */
+	private void open() throws IOException {
 		IndexWriterConfig config = new IndexWriterConfig(this.analyzer);
 		config.setOpenMode(OpenMode.CREATE_OR_APPEND);
-		try (IndexWriter writer = new IndexWriter(this.directory, config)) {
-			writer.updateDocuments(new Term(Indexable.FIELD_ID, item.getId().toString()), docs);	
-		}
+		this.writer = new IndexWriter(this.directory, config);
+		
+		// NOTE: null searcher factory means use the default IndexSearcher
+		this.searcherManager = new SearcherManager(this.writer, null);
+		
+		this.reopenThread = new ControlledRealTimeReopenThread<>(this.writer, this.searcherManager, MAX_STALE_SECONDS, MIN_STALE_SECONDS);
+		this.reopenThread.setName("praisenter-search-index-reopen");
+		this.reopenThread.setDaemon(true);
+		this.reopenThread.start();
+	}
+	
+	/**
+	 * Discards all uncommitted changes and reopens the index at the last commit.
+	 * <p>
+	 * The searchers of earlier searches are released since they may have seen the
+	 * discarded changes; cursors from them continue on the reopened index.
+	 * <p>
+	 * Must be called while holding the lock.
+	 * @throws IOException if an IO error occurs
+	 */
+	private void rollback() throws IOException {
+		this.reopenThread.close();
+		this.searcherManager.close();
+		this.writer.rollback();
+		
+		SearcherLifetimeManager searchers = this.searchers;
+		this.searchers = new SearcherLifetimeManager();
+		searchers.close();
+		this.resultCache.clear();
+		
+		this.open();
+	}
+	
+	public synchronized void create(Indexable item) throws IOException {
+		this.write(item);
 	}
 	
 	public synchronized void update(Indexable item) throws IOException {
-		List<Document> docs = item.index();
-		if (docs == null || docs.isEmpty()) return;
-		IndexWriterConfig config = new IndexWriterConfig(this.analyzer);
-		config.setOpenMode(OpenMode.CREATE_OR_APPEND);
-		try (IndexWriter writer = new IndexWriter(this.directory, config)) {
-			writer.updateDocuments(new Term(Indexable.FIELD_ID, item.getId().toString()), docs);	
-		}
+		this.write(item);
 	}
 	
 	public synchronized void delete(Indexable item) throws IOException {
-		IndexWriterConfig config = new IndexWriterConfig(this.analyzer);
-		config.setOpenMode(OpenMode.CREATE_OR_APPEND);
-		try (IndexWriter writer = new IndexWriter(this.directory, config)) {
-			writer.deleteDocuments(new Term(Indexable.FIELD_ID, item.getId().toString()));	
+		this.partDigests.remove(item.getId());
+		this.writer.deleteDocuments(new Term(Indexable.FIELD_ID, item.getId().toString()));
+	}
+	
+	/**
+	 * Queues the given item to be (re)indexed.
+	 * <p>
+	 * If a change for the same item is already queued, it's replaced by this one and
+	 * the returned future is shared.
+	 * @param item the item
+	 * @return CompletableFuture&lt;Void&gt; completed when the change is visible to searches
+	 */
+	public CompletableFuture<Void> queueUpdate(Indexable item) {
+		return this.queue(item.getId(), item);
+	}
+	
+	/**
+	 * Queues the given item to be removed from the index.
+	 * <p>
+	 * If a change for the same item is already queued, it's replaced by this one and
+	 * the returned future is shared.
+	 * @param item the item
+	 * @return CompletableFuture&lt;Void&gt; completed when the change is visible to searches
+	 */
+	public CompletableFuture<Void> queueDelete(Indexable item) {
+		return this.queue(item.getId(), null);
+	}
+	
+	/**
+	 * Queues all the given items to be (re)indexed.
+	 * <p>
+	 * The items are queued together so that they're applied in the same batch.
+	 * @param items the items
+	 * @return CompletableFuture&lt;Void&gt; completed when the changes are visible to searches
+	 * @see #queueUpdate(Indexable)
+	 */
+	public CompletableFuture<Void> queueUpdates(Collection<? extends Indexable> items) {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		synchronized (this.queue) {
+			for (Indexable item : items) {
+				futures.add(this.queue(item.getId(), item));
+			}
 		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
 	}
 	
-	public synchronized void reindex(Iterable<? extends Indexable> items) throws IOException {
-		IndexWriterConfig config = new IndexWriterConfig(this.analyzer);
-		config.setOpenMode(OpenMode.CREATE);
-		try (IndexWriter writer = new IndexWriter(this.directory, config)) {
+	/**
+	 * Queues all the given items to be removed from the index.
+	 * <p>
+	 * The items are queued together so that they're applied in the same batch.
+	 * @param items the items
+	 * @return CompletableFuture&lt;Void&gt; completed when the changes are visible to searches
+	 * @see #queueDelete(Indexable)
+	 */
+	public CompletableFuture<Void> queueDeletes(Collection<? extends Indexable> items) {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		synchronized (this.queue) {
 			for (Indexable item : items) {
-				LOGGER.debug("Indexing document {}", item.getName());
-				List<Document> docs = item.index();
-				if (docs == null || docs.isEmpty()) {
-					continue;
+				futures.add(this.queue(item.getId(), null));
+			}
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+	}
+	
+	/**
+	 * Returns a future that completes when all currently queued changes, including
+	 * those of the batch being applied, have been applied and are visible to searches.
+	 * @return CompletableFuture&lt;Void&gt;
+	 */
+	public CompletableFuture<Void> flush() {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		synchronized (this.queue) {
+			for (QueuedChange change : this.applying) {
+				futures.add(change.future);
+			}
+			for (QueuedChange change : this.queue.values()) {
+				futures.add(change.future);
+			}
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+	}
+	
+	private CompletableFuture<Void> queue(UUID id, Indexable item) {
+		synchronized (this.queue) {
+			QueuedChange change = this.queue.get(id);
+			if (change == null) {
+				change = new QueuedChange(id);
+				this.queue.put(id, change);
+			}
+			change.item = item;
+			
+			if (!this.batchScheduled) {
+				this.batchScheduled = true;
+				this.executor.schedule(this::applyQueuedChanges, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+			}
+			
+			return change.future;
+		}
+	}
+	
+	private void applyQueuedChanges() {
+		List<QueuedChange> batch;
+		synchronized (this.queue) {
+			batch = new ArrayList<>(this.queue.values());
+			this.queue.clear();
+			this.batchScheduled = false;
+			if (batch.isEmpty()) return;
+			this.applying = batch;
+		}
+		
+		try {
+			this.applyBatch(batch);
+		} finally {
+			synchronized (this.queue) {
+				this.applying = Collections.emptyList();
+			}
+		}
+	}
+		
+	/**
+	 * Applies the given changes, commits them and completes their futures once
+	 * they're visible to searches.
+	 * @param batch the changes
+	 */
+	private void applyBatch(List<QueuedChange> batch) {
+		LOGGER.debug("Applying {} queued search index change(s)", batch.size());
+		
+		List<QueuedChange> applied = new ArrayList<>();
+		long generation = -1;
+		ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+		synchronized (this) {
+			// NOTE: the generation is only meaningful to the reopen thread of the same writer
+			reopenThread = this.reopenThread;
+			for (QueuedChange change : batch) {
+				try {
+					if (change.item == null) {
+						this.partDigests.remove(change.id);
+						generation = this.writer.deleteDocuments(new Term(Indexable.FIELD_ID, change.id.toString()));
+					} else {
+						generation = this.write(change.item);
+					}
+					applied.add(change);
+				} catch (Exception ex) {
+					LOGGER.error("Failed to apply search index change for '" + change.id + "': " + ex.getMessage(), ex);
+					change.future.completeExceptionally(ex);
+				}
+			}
+			
+			// commit the whole batch at once
+			try {
+				if (this.writer.hasUncommittedChanges()) {
+					this.writer.commit();
+				}
+			} catch (Exception ex) {
+				LOGGER.warn("Failed to commit search index changes: " + ex.getMessage(), ex);
+			}
+		}
+		
+		// wait for the changes to be visible to searches
+		try {
+			if (generation >= 0) {
+				reopenThread.waitForGeneration(generation);
+			}
+		} catch (InterruptedException ex) {
+			LOGGER.warn("Interrupted while waiting for search index changes to be visible.");
+			Thread.currentThread().interrupt();
+		}
+		
+		for (QueuedChange change : applied) {
+			change.future.complete(null);
+		}
+	}
+	
+	public void reindex(Iterable<? extends Indexable> items) throws IOException {
+		this.reindex(items, null);
+	}
+	
+	/**
+	 * Rebuilds the entire index from the given items.
+	 * <p>
+	 * The documents for each item are built concurrently (per {@link Indexable#getIndexParts()})
+	 * and added to the shared writer. The given progress callback (optional) is called with
+	 * values between 0.0 and 1.0 as the parts complete.
+	 * <p>
+	 * If the rebuild fails, the index is rolled back to its state before the rebuild.
+	 * @param items the items to index
+	 * @param progress the progress callback; can be null
+	 * @throws IOException if an IO error occurs
+	 */
+	public synchronized void reindex(Iterable<? extends Indexable> items, DoubleConsumer progress) throws IOException {
+		// NOTE: we hold the lock for the duration so that a periodic commit
+		// doesn't persist a partially built index
+		List<Indexable> list = new ArrayList<>();
+		List<List<Supplier<List<Document>>>> parts = new ArrayList<>();
+		List<int[]> work = new ArrayList<>();
+		for (Indexable item : items) {
+			LOGGER.debug("Indexing document {}", item.getName());
+			List<Supplier<List<Document>>> itemParts = item.getIndexParts();
+			for (int j = 0; j < itemParts.size(); j++) {
+				work.add(new int[] { list.size(), j });
+			}
+			list.add(item);
+			parts.add(itemParts);
+		}
+		
+		// the content digests of each part of each item
+		final byte[][][] digests = new byte[list.size()][][];
+		for (int i = 0; i < list.size(); i++) {
+			digests[i] = new byte[parts.get(i).size()][];
+		}
+		
+		final ProgressReporter reporter = new ProgressReporter(progress, work.size());
+		
+		// commit what's outstanding so that a failure only discards the rebuild
+		if (this.writer.hasUncommittedChanges()) {
+			this.writer.commit();
+		}
+		
+		this.partDigests.clear();
+		try {
+			this.rebuild(list, parts, work, digests, reporter);
+		} catch (IOException | RuntimeException ex) {
+			LOGGER.error("Failed to rebuild the search index; rolling back: " + ex.getMessage(), ex);
+			try {
+				this.rollback();
+			} catch (Exception e) {
+				ex.addSuppressed(e);
+			}
+			throw ex;
+		}
+		reporter.complete();
+	}
+	
+	/**
+	 * Replaces the documents in the index with those of the given items and commits.
+	 * @param list the items
+	 * @param parts the parts of each item
+	 * @param work the item and part index of each part
+	 * @param digests the content digests of each part of each item (populated)
+	 * @param reporter the progress reporter
+	 * @throws IOException if an IO error occurs
+	 */
+	private void rebuild(List<Indexable> list, List<List<Supplier<List<Document>>>> parts, List<int[]> work, byte[][][] digests, ProgressReporter reporter) throws IOException {
+		this.writer.deleteAll();
+		try {
+			work.parallelStream().forEach((w) -> {
+				List<Document> docs = getPart(list.get(w[0]), w[1], parts.get(w[0]).get(w[1]));
+				digests[w[0]][w[1]] = digest(docs);
+				if (!docs.isEmpty()) {
+					try {
+						// NOTE: the index was cleared, so there's no need to update by id
+						this.writer.addDocuments(docs);
+					} catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				}
+				reporter.increment();
+			});
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		
+		// add the fingerprints now that all parts are done
+		for (int i = 0; i < list.size(); i++) {
+			Indexable item = list.get(i);
+			this.writer.addDocument(createFingerprintDocument(item, getFingerprint(item, digests[i])));
+			this.partDigests.put(item.getId(), digests[i]);
+		}
+		
+		this.writer.commit();
+	}
+	
+	/**
+	 * Brings the index in line with the given items by reindexing only those items
+	 * whose fingerprint differs from the one stored in the index (or is missing) and
+	 * removing any items from the index that are not in the given items.
+	 * <p>
+	 * Items with an index stamp (see {@link Indexable#getIndexStamp()}) that matches the
+	 * one in their stored fingerprint are skipped without building their documents, which
+	 * keeps large items like bibles from being loaded at startup. Items whose documents
+	 * can't be built are left as they are in the index.
+	 * <p>
+	 * The given items should be all indexable items in the workspace.
+	 * @param items the items to reconcile with
+	 * @param progress the progress callback; can be null
+	 * @return int the number of items reindexed or removed
+	 * @throws IOException if an IO error occurs
+	 */
+	public synchronized int reconcile(Iterable<? extends Indexable> items, DoubleConsumer progress) throws IOException {
+		Set<String> indexedIds;
+		Map<String, String> fingerprints = new HashMap<>();
+		try (DirectoryReader reader = DirectoryReader.open(this.writer)) {
+			indexedIds = getLiveTerms(reader, Indexable.FIELD_ID);
+			for (String fingerprint : getLiveTerms(reader, Indexable.FIELD_FINGERPRINT)) {
+				int index = fingerprint.indexOf(FINGERPRINT_SEPARATOR);
+				if (index > 0) {
+					fingerprints.put(fingerprint.substring(0, index), fingerprint);
+				}
+			}
+		}
+		
+		List<Indexable> list = new ArrayList<>();
+		Set<String> ids = new HashSet<>();
+		for (Indexable item : items) {
+			list.add(item);
+			ids.add(item.getId().toString());
+		}
+		
+		final AtomicInteger updated = new AtomicInteger();
+		final ProgressReporter reporter = new ProgressReporter(progress, list.size());
+		
+		try {
+			list.parallelStream().forEach((item) -> {
+				String id = item.getId().toString();
+				String indexed = fingerprints.get(id);
+				if (item.getIndexStamp() != null && indexed != null && getStamp(item).equals(getStamp(indexed))) {
+					reporter.increment();
+					return;
+				}
+				
+				ItemDocuments documents;
+				try {
+					documents = this.getDocuments(item);
+				} catch (Exception ex) {
+					LOGGER.error("Failed to index '" + item.getName() + "'; leaving it as is: " + ex.getMessage(), ex);
+					reporter.increment();
+					return;
+				}
+				String fingerprint = documents.fingerprint.get(Indexable.FIELD_FINGERPRINT);
+				if (!fingerprint.equals(indexed)) {
+					LOGGER.debug("Reindexing changed or missing document {}", item.getName());
+					try {
+						this.writer.updateDocuments(new Term(Indexable.FIELD_ID, id), documents.getAll());
+					} catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+					updated.incrementAndGet();
+				}
+				// either way, the index now has the documents for these digests
+				this.partDigests.put(item.getId(), documents.digests);
+				reporter.increment();
+			});
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		
+		// remove anything that's no longer in the workspace
+		int removed = 0;
+		for (String id : indexedIds) {
+			if (!ids.contains(id)) {
+				LOGGER.debug("Removing orphaned document {}", id);
+				this.partDigests.remove(UUID.fromString(id));
+				this.writer.deleteDocuments(new Term(Indexable.FIELD_ID, id));
+				removed++;
+			}
+		}
+		
+		if (this.writer.hasUncommittedChanges()) {
+			this.writer.commit();
+		}
+		reporter.complete();
+		
+		LOGGER.info("Search index reconciled: {} document(s) reindexed, {} document(s) removed", updated.get(), removed);
+		return updated.get() + removed;
+	}
+	
+	/**
+	 * Commits any pending changes to disk.
+	 * @throws IOException if an IO error occurs
+	 */
+	public synchronized void commit() throws IOException {
+		if (this.writer.isOpen() && this.writer.hasUncommittedChanges()) {
+			LOGGER.debug("Committing search index changes");
+			this.writer.commit();
+		}
+	}
+	
+	/**
+	 * Commits any pending changes and releases all resources held by this index.
+	 * @throws IOException if an IO error occurs
+	 */
+	public void close() throws IOException {
+		// NOTE: shutdown will cancel the periodic commit, but will allow
+		// any scheduled batch to finish
+		this.executor.shutdown();
+		try {
+			if (!this.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+				LOGGER.warn("Timed out waiting for queued search index changes to be applied.");
+			}
+		} catch (InterruptedException ex) {
+			LOGGER.warn("Interrupted while waiting for queued search index changes to be applied.");
+			Thread.currentThread().interrupt();
+		}
+		
+		// apply anything still queued before we shutdown
+		this.applyQueuedChanges();
+		
+		LOGGER.info("Search result cache: {} hit(s), {} miss(es)", this.getResultCacheHits(), this.getResultCacheMisses());
+		
+		synchronized (this) {
+			this.closeResources();
+		}
+	}
+	
+	private void closeResources() throws IOException {
+		this.reopenThread.close();
+		this.searchers.close();
+		this.searcherManager.close();
+		try {
+			this.writer.close();
+		} finally {
+			this.directory.close();
+		}
+	}
+	
+	/**
+	 * Writes the documents for the given item to the index.
+	 * <p>
+	 * If the digests of the item's parts are known (it was indexed or reconciled since
+	 * the index was opened), only the parts whose content changed are replaced along with
+	 * the fingerprint document. Otherwise all of the item's documents are replaced.
+	 * @param item the item
+	 * @return long the sequence number of the last change
+	 * @throws IOException if an IO error occurs
+	 */
+	private long write(Indexable item) throws IOException {
+		String id = item.getId().toString();
+		ItemDocuments documents = this.getDocuments(item);
+		
+		// remove the digests until we're done in case this fails part way
+		byte[][] previous = this.partDigests.remove(item.getId());
+		if (previous == null) {
+			long sequence = this.writer.updateDocuments(new Term(Indexable.FIELD_ID, id), documents.getAll());
+			this.partDigests.put(item.getId(), documents.digests);
+			return sequence;
+		}
+		
+		int n = documents.digests.length;
+		int changed = 0;
+		for (int i = 0; i < n; i++) {
+			if (i >= previous.length || !Arrays.equals(previous[i], documents.digests[i])) {
+				Term term = new Term(Indexable.FIELD_PART, getPartName(id, i));
+				List<Document> docs = documents.parts.get(i);
+				if (docs.isEmpty()) {
+					this.writer.deleteDocuments(term);
+				} else {
+					this.writer.updateDocuments(term, docs);
+				}
+				changed++;
+			}
+		}
+		for (int i = n; i < previous.length; i++) {
+			this.writer.deleteDocuments(new Term(Indexable.FIELD_PART, getPartName(id, i)));
+		}
+		long sequence = this.writer.updateDocument(new Term(Indexable.FIELD_PART, getPartName(id, FINGERPRINT_PART)), documents.fingerprint);
+		this.partDigests.put(item.getId(), documents.digests);
+		
+		LOGGER.debug("Reindexed {} of {} part(s) of {}", changed, n, item.getName());
+		return sequence;
+	}
+	
+	/**
+	 * Returns the documents for the given item by part along with its fingerprint document.
+	 * @param item the item
+	 * @return {@link ItemDocuments}
+	 */
+	private ItemDocuments getDocuments(Indexable item) {
+		List<Supplier<List<Document>>> parts = item.getIndexParts();
+		List<List<Document>> documents = new ArrayList<>(parts.size());
+		byte[][] digests = new byte[parts.size()][];
+		for (int i = 0; i < parts.size(); i++) {
+			List<Document> docs = getPart(item, i, parts.get(i));
+			digests[i] = digest(docs);
+			documents.add(docs);
+		}
+		return new ItemDocuments(documents, digests, createFingerprintDocument(item, getFingerprint(item, digests)));
+	}
+	
+	/**
+	 * Returns the documents for the given part of the given item, tagged with the part.
+	 * @param item the item
+	 * @param index the index of the part
+	 * @param part the part
+	 * @return List&lt;Document&gt;
+	 */
+	private static List<Document> getPart(Indexable item, int index, Supplier<List<Document>> part) {
+		List<Document> docs = part.get();
+		if (docs == null) {
+			return Collections.emptyList();
+		}
+		String name = getPartName(item.getId().toString(), index);
+		for (Document doc : docs) {
+			doc.add(new StringField(Indexable.FIELD_PART, name, Field.Store.NO));
+		}
+		return docs;
+	}
+	
+	/**
+	 * Returns the value of the part field for the given part of an item.
+	 * @param id the item id
+	 * @param part the part
+	 * @return String
+	 */
+	private static String getPartName(String id, Object part) {
+		return id + FINGERPRINT_SEPARATOR + part;
+	}
+	
+	/**
+	 * Returns a digest of the content of the given documents.
+	 * @param docs the documents
+	 * @return byte[]
+	 */
+	private static byte[] digest(List<Document> docs) {
+		MessageDigest digest = createMessageDigest();
+		if (docs != null) {
+			for (Document doc : docs) {
+				for (IndexableField field : doc) {
+					digest.update(field.name().getBytes(StandardCharsets.UTF_8));
+					String value = field.stringValue();
+					Number number = field.numericValue();
+					BytesRef bytes = field.binaryValue();
+					if (value != null) {
+						digest.update(value.getBytes(StandardCharsets.UTF_8));
+					} else if (number != null) {
+						digest.update(number.toString().getBytes(StandardCharsets.UTF_8));
+					} else if (bytes != null) {
+						digest.update(bytes.bytes, bytes.offset, bytes.length);
+					}
+					digest.update((byte)0);
+				}
+				digest.update((byte)1);
+			}
+		}
+		return digest.digest();
+	}
+	
+	/**
+	 * Returns the fingerprint for the given item given the digests of its parts.
+	 * <p>
+	 * The fingerprint is made up of the id, a stamp (see {@link #getStamp(Indexable)})
+	 * and a hash of the content.
+	 * @param item the item
+	 * @param digests the content digests of each part of the item
+	 * @return String
+	 */
+	private static String getFingerprint(Indexable item, byte[][] digests) {
+		MessageDigest digest = createMessageDigest();
+		for (byte[] part : digests) {
+			digest.update(part);
+		}
+		return item.getId().toString() +
+				FINGERPRINT_SEPARATOR +
+				getStamp(item) +
+				FINGERPRINT_SEPARATOR +
+				String.format("%064x", new BigInteger(1, digest.digest()));
+	}
+	
+	/**
+	 * Returns the stamp part of the fingerprint for the given item.
+	 * <p>
+	 * This is a hash of the {@link #INDEX_SCHEMA_VERSION} and the item's index stamp if
+	 * it has one, otherwise its modified date.
+	 * @param item the item
+	 * @return String
+	 */
+	private static String getStamp(Indexable item) {
+		String stamp = item.getIndexStamp();
+		if (stamp != null) {
+			MessageDigest digest = createMessageDigest();
+			stamp = INDEX_SCHEMA_VERSION + " " + stamp;
+			return String.format("%064x", new BigInteger(1, digest.digest(stamp.getBytes(StandardCharsets.UTF_8))));
+		}
+		Instant modified = item.getModifiedDate();
+		return String.valueOf(modified != null ? modified.toEpochMilli() : 0);
+	}
+	
+	/**
+	 * Returns the stamp part of the given fingerprint.
+	 * @param fingerprint the fingerprint
+	 * @return String
+	 */
+	private static String getStamp(String fingerprint) {
+		int start = fingerprint.indexOf(FINGERPRINT_SEPARATOR);
+		int end = fingerprint.lastIndexOf(FINGERPRINT_SEPARATOR);
+		return start < end ? fingerprint.substring(start + 1, end) : "";
+	}
+	
+	private static MessageDigest createMessageDigest() {
+		try {
+			return MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+		} catch (NoSuchAlgorithmException ex) {
+			// all JVMs are required to support SHA-256
+			throw new IllegalStateException(ex);
+		}
+	}
+	
+	private static Document createFingerprintDocument(Indexable item, String fingerprint) {
+		Document document = new Document();
+		document.add(new StringField(Indexable.FIELD_ID, item.getId().toString(), Field.Store.YES));
+		document.add(new StringField(Indexable.FIELD_FINGERPRINT, fingerprint, Field.Store.YES));
+		document.add(new StringField(Indexable.FIELD_PART, getPartName(item.getId().toString(), FINGERPRINT_PART), Field.Store.NO));
+		return document;
+	}
+	
+	/**
+	 * Returns all the terms for the given field that belong to at least one live (non-deleted) document.
+	 * @param reader the reader
+	 * @param field the field
+	 * @return Set&lt;String&gt;
+	 * @throws IOException if an IO error occurs
+	 */
+	private static Set<String> getLiveTerms(IndexReader reader, String field) throws IOException {
+		Set<String> values = new HashSet<>();
+		for (LeafReaderContext context : reader.leaves()) {
+			LeafReader leaf = context.reader();
+			Terms terms = leaf.terms(field);
+			if (terms == null) continue;
+			
+			Bits live = leaf.getLiveDocs();
+			TermsEnum te = terms.iterator();
+			PostingsEnum pe = null;
+			BytesRef term = null;
+			while ((term = te.next()) != null) {
+				pe = te.postings(pe, PostingsEnum.NONE);
+				int doc;
+				while ((doc = pe.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+					if (live == null || live.get(doc)) {
+						values.add(term.utf8ToString());
+						break;
+					}
 				}
-				writer.updateDocuments(new Term(Indexable.FIELD_ID, item.getId().toString()), docs);	
 			}
 		}
+		return values;
 	}
 	
+	/**
+	 * Executes the given search returning the first page of hits.
+	 * <p>
+	 * The returned hits only contain the key (stored) fields of the matched documents; the
+	 * text and highlighted matches are loaded on demand by {@link SearchResult#getMatches()}
+	 * or {@link #highlight(List)}.
+	 * @param criteria the search criteria
+	 * @return {@link SearchResults}
+	 * @throws IOException if an IO error occurs
+	 * @see SearchResults#getNextCursor()
+	 */
 	public SearchResults search(SearchCriteria criteria) throws IOException {
 		Query query = criteria.createQuery(this.analyzer);
-		if (query == null) 
+		if (query == null)
 			return new SearchResults(criteria, Collections.emptyList());
 		
+		// NOTE: this doesn't need to be synchronized with the index, the acquired searcher
+		// is a point-in-time snapshot of the index
+		IndexSearcher searcher = this.searcherManager.acquire();
+		try {
+			// hold on to the searcher so the hits can be highlighted and paged later
+			long version = this.searchers.record(searcher);
+			return this.search(searcher, version, criteria, query, null, 0);
+		} finally {
+			this.searcherManager.release(searcher);
+		}
+	}
+		
+	/**
+	 * Returns the page of hits after the given cursor.
+	 * <p>
+	 * Only the hits of the requested page are collected, so the cost of a page doesn't
+	 * depend on how many pages came before it. If the view of the index the previous page
+	 * came from has expired, the query is run again on the current view and the hits
+	 * before the cursor's offset are skipped. Hits can be repeated or missed at the page
+	 * boundary in that case if the index changed in between.
+	 * @param cursor the cursor from the previous page
+	 * @return {@link SearchResults}
+	 * @throws IOException if an IO error occurs
+	 */
+	public SearchResults search(SearchCursor cursor) throws IOException {
+		IndexSearcher searcher = this.acquireSearcher(cursor.getVersion());
+		if (searcher != null) {
+			try {
+				return this.search(searcher, cursor.getVersion(), cursor.getCriteria(), cursor.getQuery(), cursor.getAfter(), cursor.getOffset());
+			} finally {
+				this.releaseSearcher(searcher);
+			}
+		}
+		
+		LOGGER.debug("The searcher for the previous page has expired, using the current searcher instead");
+		searcher = this.searcherManager.acquire();
+		try {
+			long version = this.searchers.record(searcher);
+			// NOTE: the document ids of the cursor are from a different view of the index
+			// so they can't be used here; collect the previous pages again and skip them
+			SearchCriteria criteria = cursor.getCriteria();
+			int offset = cursor.getOffset();
+			TopDocs result = searcher.search(cursor.getQuery(), offset + criteria.getMaxResults() + 1);
+			return this.createResults(searcher, version, criteria, cursor.getQuery(), result, offset, offset);
+		} finally {
+			this.searcherManager.release(searcher);
+		}
+	}
+	
+	private SearchResults search(IndexSearcher searcher, long version, SearchCriteria criteria, Query query, ScoreDoc after, int offset) throws IOException {
+		ResultCacheKey key = new ResultCacheKey(query, criteria.getMaxResults(), after);
+		SearchResults cached = this.resultCache.get(version, key);
+		if (cached != null) {
+			LOGGER.debug("Search results for '{}' found in the cache", query);
+			return cached;
+		}
+		
+		// NOTE: a null after is the same as a normal search
+		TopDocs result = searcher.searchAfter(after, query, criteria.getMaxResults() + 1);
+		SearchResults searchResults = this.createResults(searcher, version, criteria, query, result, 0, offset);
+		this.resultCache.put(version, key, searchResults);
+		return searchResults;
+	}
+	
+	/**
+	 * Returns a page of results for the given hits.
+	 * @param searcher the searcher that produced the hits
+	 * @param version the version of the searcher
+	 * @param criteria the search criteria
+	 * @param query the query
+	 * @param result the hits
+	 * @param skip the number of hits to skip
+	 * @param offset the number of hits in the previous pages
+	 * @return {@link SearchResults}
+	 * @throws IOException if an IO error occurs
+	 */
+	private SearchResults createResults(IndexSearcher searcher, long version, SearchCriteria criteria, Query query, TopDocs result, int skip, int offset) throws IOException {
 		List<SearchResult> results = new ArrayList<SearchResult>();
+		Set<String> docValueFields = criteria.getDocValueFields();
+		
+		for (int i = skip; i < result.scoreDocs.length; i++) {
+			ScoreDoc doc = result.scoreDocs[i];
+			Document document = null;
+			if (docValueFields != null) {
+				document = getDocValues(searcher.getIndexReader(), doc.doc, docValueFields);
+			}
+			if (document == null) {
+				KeyFieldVisitor visitor = new KeyFieldVisitor();
+				searcher.doc(doc.doc, visitor);
+				document = visitor.getDocument();
+			}
+			results.add(new SearchResult(document, doc.score, this, version, doc.doc, query));
+		}
+		
+		return new SearchResults(
+				criteria,
+				results,
+				offset,
+				result.totalHits.value,
+				result.totalHits.relation == TotalHits.Relation.EQUAL_TO);
+	}
+	
+	/**
+	 * Returns a document containing the given fields read from doc values.
+	 * <p>
+	 * Numeric doc values are returned as numeric fields and sorted doc values are
+	 * returned as string fields so they can be read the same as stored fields.
+	 * @param reader the reader
+	 * @param docId the index-level document id
+	 * @param fields the fields to read
+	 * @return Document or null if the document doesn't have doc values for all of the fields
+	 * @throws IOException if an IO error occurs
+	 */
+	private static Document getDocValues(IndexReader reader, int docId, Set<String> fields) throws IOException {
+		List<LeafReaderContext> leaves = reader.leaves();
+		LeafReaderContext context = leaves.get(ReaderUtil.subIndex(docId, leaves));
+		LeafReader leaf = context.reader();
+		int doc = docId - context.docBase;
 		
-		// NOTE: this doesn't need to be synchronized with the index, it will use a snapshot
-		// of the index at the time it's opened
-		try (IndexReader reader = DirectoryReader.open(this.directory)) {
-			IndexSearcher searcher = new IndexSearcher(reader);
+		Document document = new Document();
+		for (String field : fields) {
+			FieldInfo info = leaf.getFieldInfos().fieldInfo(field);
+			if (info == null) return null;
 			
-			TopDocs result = searcher.search(query, criteria.getMaxResults() + 1);
-			ScoreDoc[] docs = result.scoreDocs;
+			switch (info.getDocValuesType()) {
+				case NUMERIC:
+					NumericDocValues numeric = leaf.getNumericDocValues(field);
+					if (numeric == null || !numeric.advanceExact(doc)) return null;
+					document.add(new StoredField(field, numeric.longValue()));
+					break;
+				case SORTED:
+					SortedDocValues sorted = leaf.getSortedDocValues(field);
+					if (sorted == null || !sorted.advanceExact(doc)) return null;
+					document.add(new StoredField(field, sorted.binaryValue().utf8ToString()));
+					break;
+				default:
+					return null;
+			}
+		}
+		return document;
+	}
+	
+	/**
+	 * Returns the number of searches that were answered from the result cache.
+	 * @return long
+	 */
+	public long getResultCacheHits() {
+		return this.resultCache.hits.get();
+	}
+	
+	/**
+	 * Returns the number of searches that were not in the result cache.
+	 * @return long
+	 */
+	public long getResultCacheMisses() {
+		return this.resultCache.misses.get();
+	}
+	
+	/**
+	 * Computes the highlighted matches for the given hits that don't have them yet.
+	 * <p>
+	 * This is intended to be called for the page of hits that's about to be displayed.
+	 * @param results the hits
+	 */
+	public void highlight(List<SearchResult> results) {
+		Map<Long, List<SearchResult>> byVersion = new LinkedHashMap<>();
+		for (SearchResult result : results) {
+			if (result.isHighlighted()) continue;
+			byVersion.computeIfAbsent(result.getVersion(), (v) -> new ArrayList<>()).add(result);
+		}
+		
+		for (Map.Entry<Long, List<SearchResult>> entry : byVersion.entrySet()) {
+			IndexSearcher searcher = this.acquireSearcher(entry.getKey());
+			try {
+				for (SearchResult result : entry.getValue()) {
+					result.setMatches(this.highlight(searcher, result));
+				}
+			} finally {
+				this.releaseSearcher(searcher);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the highlighted matches for the given hit.
+	 * @param result the hit
+	 * @return List&lt;{@link SearchTextMatch}&gt;
+	 */
+	List<SearchTextMatch> highlight(SearchResult result) {
+		IndexSearcher searcher = this.acquireSearcher(result.getVersion());
+		try {
+			return this.highlight(searcher, result);
+		} finally {
+			this.releaseSearcher(searcher);
+		}
+	}
+	
+	private List<SearchTextMatch> highlight(IndexSearcher searcher, SearchResult result) {
+		List<SearchTextMatch> matches = new ArrayList<SearchTextMatch>();
+		if (searcher == null) {
+			// the hit is from a searcher that has since been released
+			LOGGER.debug("Unable to highlight search result; its searcher has expired");
+			return matches;
+		}
+		
+		try {
+			int docId = result.getDocId();
+			IndexReader reader = searcher.getIndexReader();
+			String text = reader.document(docId, Set.of(Indexable.FIELD_TEXT)).get(Indexable.FIELD_TEXT);
+			if (text == null) {
+				return matches;
+			}
 			
-			QueryScorer scorer = new QueryScorer(query);
-			Highlighter highlighter = new Highlighter(scorer);
+			// NOTE: this uses the term vectors if the document has them, otherwise it re-analyzes the text
+			TokenStream tokens = TokenSources.getTokenStream(Indexable.FIELD_TEXT, reader.getTermVectors(docId), text, this.analyzer, -1);
+			Highlighter highlighter = new Highlighter(new QueryScorer(result.getQuery()));
+			String[] fragments = highlighter.getBestFragments(tokens, text, MAX_FRAGMENTS);
 			
-			for (ScoreDoc doc : docs) {
-				Document document = searcher.doc(doc.doc);
-				
-				// get the text
-				String text = document.get(Indexable.FIELD_TEXT);
-				
-				// get the text around the match
-				List<SearchTextMatch> matches = new ArrayList<SearchTextMatch>();
-				
-				try {
-					TokenStream tokens = TokenSources.getTokenStream(Indexable.FIELD_TEXT, null, text, this.analyzer, -1);
-					String[] fragments = highlighter.getBestFragments(tokens, text, 10);
-					
-					for (String fragment : fragments) {
-						matches.add(new SearchTextMatch(Indexable.FIELD_TEXT, text, fragment));
-					}
-				} catch (IllegalArgumentException e) {
-					// https://issues.apache.org/jira/browse/LUCENE-9568
-					LOGGER.warn("Failed to get highlighted text for search '" + criteria.getTerms() + "': " + e.getMessage());
-				} catch (Exception e) {
-					LOGGER.error("Failed to get matching text for terms: '" + criteria.getTerms() + "'", e);
+			for (String fragment : fragments) {
+				matches.add(new SearchTextMatch(Indexable.FIELD_TEXT, text, fragment));
+			}
+		} catch (IllegalArgumentException e) {
+			// https://issues.apache.org/jira/browse/LUCENE-9568
+			LOGGER.warn("Failed to get highlighted text for search '" + result.getQuery() + "': " + e.getMessage());
+		} catch (Exception e) {
+			LOGGER.error("Failed to get matching text for query: '" + result.getQuery() + "'", e);
+		}
+		
+		return matches;
+	}
+	
+	private IndexSearcher acquireSearcher(long version) {
+		try {
+			return this.searchers.acquire(version);
+		} catch (Exception ex) {
+			// thrown if the index has been closed
+			LOGGER.debug("Failed to acquire searcher: " + ex.getMessage());
+			return null;
+		}
+	}
+	
+	private void releaseSearcher(IndexSearcher searcher) {
+		if (searcher == null) return;
+		try {
+			this.searchers.release(searcher);
+		} catch (IOException ex) {
+			LOGGER.warn("Failed to release searcher: " + ex.getMessage(), ex);
+		}
+	}
+	
+	/**
+	 * Represents a queued change to the index; a null item represents a delete.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class QueuedChange {
+		/** The item id */
+		private final UUID id;
+		
+		/** The future completed when the change has been applied */
+		private final CompletableFuture<Void> future;
+		
+		/** The item to index; null for delete */
+		private Indexable item;
+		
+		public QueuedChange(UUID id) {
+			this.id = id;
+			this.future = new CompletableFuture<Void>();
+		}
+	}
+	
+	/**
+	 * The documents of an item by part along with its fingerprint document.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class ItemDocuments {
+		/** The documents of each part */
+		private final List<List<Document>> parts;
+		
+		/** The content digests of each part */
+		private final byte[][] digests;
+		
+		/** The fingerprint document */
+		private final Document fingerprint;
+		
+		public ItemDocuments(List<List<Document>> parts, byte[][] digests, Document fingerprint) {
+			this.parts = parts;
+			this.digests = digests;
+			this.fingerprint = fingerprint;
+		}
+		
+		/**
+		 * Returns all the documents, with the fingerprint document last.
+		 * @return List&lt;Document&gt;
+		 */
+		public List<Document> getAll() {
+			List<Document> documents = new ArrayList<>();
+			for (List<Document> docs : this.parts) {
+				documents.addAll(docs);
+			}
+			documents.add(this.fingerprint);
+			return documents;
+		}
+	}
+	
+	/**
+	 * The key for cached search results.
+	 * <p>
+	 * The query is built from the analyzed terms so it's already normalized
+	 * (case, punctuation, etc.) and includes any filters of the criteria.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class ResultCacheKey {
+		/** The query */
+		private final Query query;
+		
+		/** The page size */
+		private final int maxResults;
+		
+		/** The document the page starts after; -1 for the first page */
+		private final int afterDoc;
+		
+		/** The score the page starts after */
+		private final float afterScore;
+		
+		public ResultCacheKey(Query query, int maxResults, ScoreDoc after) {
+			this.query = query;
+			this.maxResults = maxResults;
+			this.afterDoc = after != null ? after.doc : -1;
+			this.afterScore = after != null ? after.score : 0;
+		}
+		
+		@Override
+		public int hashCode() {
+			int hash = this.query.hashCode();
+			hash = 31 * hash + this.maxResults;
+			hash = 31 * hash + this.afterDoc;
+			hash = 31 * hash + Float.hashCode(this.afterScore);
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) return true;
+			if (obj instanceof ResultCacheKey) {
+				ResultCacheKey other = (ResultCacheKey)obj;
+				return this.maxResults == other.maxResults &&
+					   this.afterDoc == other.afterDoc &&
+					   Float.compare(this.afterScore, other.afterScore) == 0 &&
+					   this.query.equals(other.query);
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * A least-recently-used cache of search results for a single version of the index.
+	 * <p>
+	 * Results from a newer version of the index clear the cache and results from an
+	 * older version are ignored.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class ResultCache {
+		/** The cached results */
+		private final Map<ResultCacheKey, SearchResults> results;
+		
+		/** The number of cache hits */
+		private final AtomicLong hits;
+		
+		/** The number of cache misses */
+		private final AtomicLong misses;
+		
+		/** The version of the index the cached results are from */
+		private long version;
+		
+		public ResultCache(int maximumSize) {
+			this.results = new LinkedHashMap<ResultCacheKey, SearchResults>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<ResultCacheKey, SearchResults> eldest) {
+					return this.size() > maximumSize;
 				}
-				
-				results.add(new SearchResult(document, matches, doc.score));
+			};
+			this.hits = new AtomicLong();
+			this.misses = new AtomicLong();
+			this.version = -1;
+		}
+		
+		public synchronized SearchResults get(long version, ResultCacheKey key) {
+			SearchResults results = version == this.version ? this.results.get(key) : null;
+			if (results != null) {
+				this.hits.incrementAndGet();
+			} else {
+				this.misses.incrementAndGet();
 			}
+			return results;
+		}
+		
+		public synchronized void clear() {
+			this.results.clear();
+			this.version = -1;
 		}
 		
-		return new SearchResults(criteria, results);
+		public synchronized void put(long version, ResultCacheKey key, SearchResults results) {
+			if (version > this.version) {
+				// the index has changed
+				this.results.clear();
+				this.version = version;
+			}
+			if (version == this.version) {
+				this.results.put(key, results);
+			}
+		}
+	}
+	
+	/**
+	 * Loads all stored fields except the (potentially large) text fields.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class KeyFieldVisitor extends DocumentStoredFieldVisitor {
+		@Override
+		public Status needsField(FieldInfo fieldInfo) throws IOException {
+			if (Indexable.FIELD_TEXT.equals(fieldInfo.name) || Indexable.FIELD_TAGS.equals(fieldInfo.name)) {
+				return Status.NO;
+			}
+			return super.needsField(fieldInfo);
+		}
+	}
+	
+	/**
+	 * Reports progress in whole percentages to an optional listener.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class ProgressReporter {
+		/** The listener; can be null */
+		private final DoubleConsumer listener;
+		
+		/** The total units of work (the last unit is reserved for completion) */
+		private final int total;
+		
+		/** The completed units of work */
+		private final AtomicInteger completed;
+		
+		/** The last percentage reported */
+		private final AtomicInteger reported;
+		
+		public ProgressReporter(DoubleConsumer listener, int total) {
+			this.listener = listener;
+			this.total = total + 1;
+			this.completed = new AtomicInteger();
+			this.reported = new AtomicInteger();
+		}
+		
+		public void increment() {
+			if (this.listener == null) return;
+			// only report whole percentages to avoid flooding the listener
+			int percent = (int)(100.0 * this.completed.incrementAndGet() / this.total);
+			if (this.reported.getAndAccumulate(percent, Math::max) < percent) {
+				this.listener.accept(percent / 100.0);
+			}
+		}
+		
+		public void complete() {
+			if (this.listener == null) return;
+			this.listener.accept(1.0);
+		}
 	}
 }
@@ -5,30 +5,102 @@ import java.util.List;
 import java.util.UUID;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 
+/**
+ * A single search hit.
+ * <p>
+ * Hits returned from {@link SearchIndex#search(SearchCriteria)} only carry the key
+ * fields of the matched document (no text). The highlighted matches are computed the
+ * first time {@link #getMatches()} is called so that only the hits that are actually
+ * displayed pay the cost of highlighting.
+ * @author William Bittle
+ * @version 3.0.0
+ */
 public final class SearchResult {
 	/** The matched document */
 	private final Document document;
 	
-	/** The matched text */
-	private final List<SearchTextMatch> matches;
-	
 	/** The matching score */
 	private final float score;
 	
+	/** The index the hit came from; null if the matches were supplied */
+	private final SearchIndex index;
+	
+	/** The version of the searcher that produced the hit */
+	private final long version;
+	
+	/** The index-level document id */
+	private final int docId;
+	
+	/** The query that produced the hit */
+	private final Query query;
+	
+	/** The matched text; null until highlighted */
+	private volatile List<SearchTextMatch> matches;
+	
 	public SearchResult(Document document, List<SearchTextMatch> matches, float score) {
 		this.document = document;
 		this.matches = matches;
 		this.score = score;
+		this.index = null;
+		this.version = -1;
+		this.docId = -1;
+		this.query = null;
+	}
+	
+	SearchResult(Document document, float score, SearchIndex index, long version, int docId, Query query) {
+		this.document = document;
+		this.matches = null;
+		this.score = score;
+		this.index = index;
+		this.version = version;
+		this.docId = docId;
+		this.query = query;
 	}
 
 	public Document getDocument() {
 		return document;
 	}
 	
+	/**
+	 * Returns the highlighted matches for this hit, computing them if necessary.
+	 * <p>
+	 * This can block on index IO the first time it's called for a hit. Use
+	 * {@link SearchIndex#highlight(List)} to compute the matches for a page of
+	 * hits at once off of the UI thread.
+	 * @return List&lt;{@link SearchTextMatch}&gt;
+	 */
 	public List<SearchTextMatch> getMatches() {
+		List<SearchTextMatch> matches = this.matches;
+		if (matches == null) {
+			synchronized (this) {
+				matches = this.matches;
+				if (matches == null) {
+					matches = this.index.highlight(this);
+					this.matches = matches;
+				}
+			}
+		}
 		return Collections.unmodifiableList(matches);
 	}
+	
+	/**
+	 * Returns true if the matches for this hit have already been computed.
+	 * @return boolean
+	 */
+	public boolean isHighlighted() {
+		return this.matches != null;
+	}
+	
+	void setMatches(List<SearchTextMatch> matches) {
+		synchronized (this) {
+			if (this.matches == null) {
+				this.matches = matches;
+			}
+		}
+	}
 
 	public float getScore() {
 		return score;
@@ -39,10 +111,33 @@ public final class SearchResult {
 	}
 	
 	public String getMatchText() {
-		return this.document.get(Indexable.FIELD_TEXT);
+		String text = this.document.get(Indexable.FIELD_TEXT);
+		if (text == null) {
+			List<SearchTextMatch> matches = this.getMatches();
+			if (!matches.isEmpty()) {
+				text = matches.get(0).getValue();
+			}
+		}
+		return text;
 	}
 	
 	public String getMatchDataType() {
 		return this.document.get(Indexable.FIELD_TYPE);
 	}
+	
+	long getVersion() {
+		return this.version;
+	}
+	
+	int getDocId() {
+		return this.docId;
+	}
+	
+	Query getQuery() {
+		return this.query;
+	}
+	
+	ScoreDoc getScoreDoc() {
+		return new ScoreDoc(this.docId, this.score);
+	}
 }
@@ -2,13 +2,45 @@ package org.praisenter.data.search;
 
 import java.util.List;
 
+/**
+ * A page of search results.
+ * <p>
+ * Each page holds at most {@link SearchCriteria#getMaxResults()} results. When there are
+ * more, use {@link #getNextCursor()} to fetch the next page.
+ * @author William Bittle
+ * @version 3.0.0
+ */
 public final class SearchResults {
 	private final SearchCriteria criteria;
 	private final List<SearchResult> results;
 	private final boolean hasMore;
 	private final int numberOfResults;
 	
+	/** The total number of matching results (across all pages) */
+	private final long totalResults;
+	
+	/** True if the total is exact; false if it's a lower bound */
+	private final boolean totalResultsExact;
+	
+	/** The cursor to the next page; null if there are no more results */
+	private final SearchCursor nextCursor;
+	
 	public SearchResults(SearchCriteria criteria, List<SearchResult> results) {
+		this(criteria, results, 0, -1, false);
+	}
+	
+	/**
+	 * Full constructor.
+	 * <p>
+	 * The results should contain one more than the maximum results (if available)
+	 * to determine if there are more pages.
+	 * @param criteria the criteria
+	 * @param results the results
+	 * @param offset the number of results in the previous pages
+	 * @param totalResults the total number of matching results; or -1 if only this page is known
+	 * @param totalResultsExact true if the total is exact
+	 */
+	SearchResults(SearchCriteria criteria, List<SearchResult> results, int offset, long totalResults, boolean totalResultsExact) {
 		this.criteria = criteria;
 		this.results = results;
 		
@@ -22,6 +54,22 @@ public final class SearchResults {
 		}
 		
 		this.numberOfResults = size;
+		if (totalResults < 0) {
+			this.totalResults = results.size();
+			this.totalResultsExact = !this.hasMore;
+		} else {
+			this.totalResults = totalResults;
+			this.totalResultsExact = totalResultsExact;
+		}
+		
+		SearchCursor cursor = null;
+		if (this.hasMore && !results.isEmpty()) {
+			SearchResult last = results.get(results.size() - 1);
+			if (last.getQuery() != null) {
+				cursor = new SearchCursor(criteria, last.getQuery(), last.getVersion(), last.getScoreDoc(), offset + results.size());
+			}
+		}
+		this.nextCursor = cursor;
 	}
 
 	public SearchCriteria getCriteria() {
@@ -39,4 +87,30 @@ public final class SearchResults {
 	public int getNumberOfResults() {
 		return this.numberOfResults;
 	}
+	
+	/**
+	 * Returns the total number of matching results across all pages.
+	 * @return long
+	 * @see #isTotalResultsExact()
+	 */
+	public long getTotalResults() {
+		return this.totalResults;
+	}
+	
+	/**
+	 * Returns true if {@link #getTotalResults()} is exact rather than a lower bound.
+	 * @return boolean
+	 */
+	public boolean isTotalResultsExact() {
+		return this.totalResultsExact;
+	}
+	
+	/**
+	 * Returns the cursor used to fetch the next page of results or null if
+	 * there are no more results.
+	 * @return {@link SearchCursor}
+	 */
+	public SearchCursor getNextCursor() {
+		return this.nextCursor;
+	}
 }
@@ -1,6 +1,8 @@
 package org.praisenter.data.slide;
 
-public interface SlideConfiguration {
+import org.praisenter.data.StorageConfiguration;
+
+public interface SlideConfiguration extends StorageConfiguration {
 	public int getThumbnailWidth();
 	public int getThumbnailHeight();
 }
@@ -8,7 +8,6 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -31,15 +30,17 @@ import org.praisenter.LockMap;
 import org.praisenter.data.DataFormatProvider;
 import org.praisenter.data.DataImportResult;
 import org.praisenter.data.DataReadResult;
+import org.praisenter.data.DirectoryLoader;
+import org.praisenter.data.DirectorySnapshot;
 import org.praisenter.data.KnownFormat;
-import org.praisenter.data.PersistAdapter;
 import org.praisenter.data.PraisenterFormatProvider;
 import org.praisenter.data.UnknownFormatException;
+import org.praisenter.data.WatchablePersistAdapter;
 import org.praisenter.data.json.JsonIO;
 import org.praisenter.utility.MimeType;
 import org.praisenter.utility.Streams;
 
-public final class SlidePersistAdapter implements PersistAdapter<Slide> {
+public final class SlidePersistAdapter implements WatchablePersistAdapter<Slide> {
 	private static final Logger LOGGER = LogManager.getLogger();
 	private static final String EXTENSION = "json";
 	
@@ -71,24 +72,63 @@ public final class SlidePersistAdapter implements PersistAdapter<Slide> {
 	
 	@Override
 	public List<Slide> load() throws IOException {
-		List<Slide> items = new ArrayList<Slide>();
-		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.pathResolver.getBasePath())) {
-			for (Path file : stream) {
-				if (Files.isRegularFile(file)) {
-					String mimeType = MimeType.get(file);
-					if (MimeType.JSON.is(mimeType)) {
-						try (InputStream is = Files.newInputStream(file)) {
-							Slide s = JsonIO.read(is, Slide.class);
-							s.setThumbnailPath(this.pathResolver.getThumbPath(s));
-							items.add(s);
-						} catch (Exception ex) {
-							LOGGER.error("Failed to load '" + file.toAbsolutePath() + "' due to: " + ex.getMessage(), ex);
-						}
-					}
-				}
+		return this.load(null);
+	}
+	
+	@Override
+	public List<Slide> load(DirectorySnapshot snapshot) throws IOException {
+		return DirectoryLoader.load(this.pathResolver.getBasePath(), this::readFile, Slide.class, (s) -> {
+			s.setThumbnailPath(this.pathResolver.getThumbPath(s));
+		}, snapshot);
+	}
+	
+	/**
+	 * Reads the slide in the given file without setting up its thumbnail.
+	 * @param file the file
+	 * @return {@link Slide}
+	 * @throws IOException if an IO error occurs
+	 */
+	private Slide readFile(Path file) throws IOException {
+		String mimeType = MimeType.getTrusted(file);
+		if (!MimeType.JSON.is(mimeType)) {
+			return null;
+		}
+		try (InputStream is = Files.newInputStream(file)) {
+			return JsonIO.read(is, Slide.class);
+		}
+	}
+	
+	@Override
+	public Slide read(Path path) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		
+		Slide slide = this.readFile(path);
+		if (slide == null) {
+			return null;
+		}
+		
+		// the thumbnail may not have been copied along with the slide
+		synchronized (this.locks.get(slide.getId())) {
+			Path thumbnailPath = this.pathResolver.getThumbPath(slide);
+			if (!Files.exists(thumbnailPath)) {
+				BufferedImage image = this.renderer.renderThumbnail(slide, this.configuration.getThumbnailWidth(), this.configuration.getThumbnailHeight());
+				ImageIO.write(image, this.pathResolver.getThumbExtension(), thumbnailPath.toFile());
 			}
+			slide.setThumbnailPath(thumbnailPath);
 		}
-		return items;
+		return slide;
+	}
+	
+	@Override
+	public Path getWatchPath() {
+		return this.pathResolver.getBasePath();
+	}
+	
+	@Override
+	public UUID getId(Path path) {
+		return this.pathResolver.getId(path);
 	}
 	
 	@Override
@@ -103,7 +143,7 @@ public final class SlidePersistAdapter implements PersistAdapter<Slide> {
 			ImageIO.write(image, this.pathResolver.getThumbExtension(), thumbnailPath.toFile());
 			// NOTE: need to set the thumbnail path because it won't be set
 			item.setThumbnailPath(thumbnailPath);
-			JsonIO.write(path, item);
+			JsonIO.write(path, item, this.configuration.getStorageFormat());
 		}
 	}
 	
@@ -119,7 +159,18 @@ public final class SlidePersistAdapter implements PersistAdapter<Slide> {
 				// in the case of the slide being new where the field
 				// will stay null until the editor is closed and re-opened
 				item.setThumbnailPath(thumbnailPath);
-				JsonIO.write(path, item);
+				JsonIO.write(path, item, this.configuration.getStorageFormat());
+			}
+		}
+	}
+	
+	@Override
+	public void rewrite(Slide item) throws IOException {
+		synchronized (this.exportLock) {
+			Path path = this.pathResolver.getPath(item);
+			synchronized (this.locks.get(item.getId())) {
+				Slide stored = JsonIO.read(path, Slide.class);
+				JsonIO.write(path, stored, this.configuration.getStorageFormat());
 			}
 		}
 	}
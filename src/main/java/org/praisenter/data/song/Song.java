@@ -301,7 +301,7 @@ public final class Song implements ReadOnlySong, Indexable, Persistable, Copyabl
 			// check the text
 			String alltext = text.toString();
 			if (!StringManipulator.isNullOrEmpty(alltext)) {
-				document.add(new TextField(FIELD_TEXT, alltext, Field.Store.YES));
+				document.add(new Field(FIELD_TEXT, alltext, TEXT_FIELD_TYPE));
 			}
 			
 			documents.add(document);
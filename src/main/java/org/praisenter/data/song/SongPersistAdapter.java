@@ -7,7 +7,6 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -29,18 +28,22 @@ import org.praisenter.data.BasicPathResolver;
 import org.praisenter.data.DataFormatProvider;
 import org.praisenter.data.DataImportResult;
 import org.praisenter.data.DataReadResult;
+import org.praisenter.data.DirectoryLoader;
+import org.praisenter.data.DirectorySnapshot;
 import org.praisenter.data.KnownFormat;
-import org.praisenter.data.PersistAdapter;
 import org.praisenter.data.PraisenterFormatProvider;
+import org.praisenter.data.StorageConfiguration;
 import org.praisenter.data.UnknownFormatException;
+import org.praisenter.data.WatchablePersistAdapter;
 import org.praisenter.data.json.JsonIO;
 import org.praisenter.utility.MimeType;
 import org.praisenter.utility.Streams;
 
-public final class SongPersistAdapter implements PersistAdapter<Song> {
+public final class SongPersistAdapter implements WatchablePersistAdapter<Song> {
 	private static final Logger LOGGER = LogManager.getLogger();
 	private static final String EXTENSION = "json";
 
+	private final StorageConfiguration configuration;
 	private final BasicPathResolver<Song> pathResolver;
 	
 	private final LockMap<UUID> locks;
@@ -48,7 +51,8 @@ public final class SongPersistAdapter implements PersistAdapter<Song> {
 	
 	private final Map<KnownFormat, DataFormatProvider<Song>> formatProviders;
 	
-	public SongPersistAdapter(Path path) {
+	public SongPersistAdapter(Path path, StorageConfiguration configuration) {
+		this.configuration = configuration;
 		this.pathResolver = new BasicPathResolver<>(path, "songs", EXTENSION);
 		this.locks = new LockMap<>();
 		this.exportLock = new Object();
@@ -75,22 +79,32 @@ public final class SongPersistAdapter implements PersistAdapter<Song> {
 	
 	@Override
 	public List<Song> load() throws IOException {
-		List<Song> songs = new ArrayList<Song>();
-		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.pathResolver.getBasePath())) {
-			for (Path file : stream) {
-				if (Files.isRegularFile(file)) {
-					if (MimeType.JSON.check(file)) {
-						try (InputStream is = Files.newInputStream(file)) {
-							Song song = JsonIO.read(is, Song.class);
-							songs.add(song);
-						} catch (Exception ex) {
-							LOGGER.warn("Failed to load song '" + file.toAbsolutePath().toString() + "'", ex);
-						}
-					}
-				}
-			}
+		return this.load(null);
+	}
+	
+	@Override
+	public List<Song> load(DirectorySnapshot snapshot) throws IOException {
+		return DirectoryLoader.load(this.pathResolver.getBasePath(), this::read, Song.class, null, snapshot);
+	}
+	
+	@Override
+	public Song read(Path path) throws IOException {
+		if (!Files.isRegularFile(path) || !MimeType.JSON.checkTrusted(path)) {
+			return null;
+		}
+		try (InputStream is = Files.newInputStream(path)) {
+			return JsonIO.read(is, Song.class);
 		}
-		return songs;
+	}
+	
+	@Override
+	public Path getWatchPath() {
+		return this.pathResolver.getBasePath();
+	}
+	
+	@Override
+	public UUID getId(Path path) {
+		return this.pathResolver.getId(path);
 	}
 	
 	@Override
@@ -100,7 +114,7 @@ public final class SongPersistAdapter implements PersistAdapter<Song> {
 			if (Files.exists(path)) {
 				throw new FileAlreadyExistsException(path.toAbsolutePath().toString());
 			}
-			JsonIO.write(path, item);
+			JsonIO.write(path, item, this.configuration.getStorageFormat());
 		}
 	}
 	
@@ -109,7 +123,18 @@ public final class SongPersistAdapter implements PersistAdapter<Song> {
 		synchronized (this.exportLock) {
 			Path path = this.pathResolver.getPath(item);
 			synchronized (this.locks.get(item.getId())) {
-				JsonIO.write(path, item);
+				JsonIO.write(path, item, this.configuration.getStorageFormat());
+			}
+		}
+	}
+	
+	@Override
+	public void rewrite(Song item) throws IOException {
+		synchronized (this.exportLock) {
+			Path path = this.pathResolver.getPath(item);
+			synchronized (this.locks.get(item.getId())) {
+				Song stored = JsonIO.read(path, Song.class);
+				JsonIO.write(path, stored, this.configuration.getStorageFormat());
 			}
 		}
 	}
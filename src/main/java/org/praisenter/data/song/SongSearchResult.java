@@ -1,24 +1,20 @@
 package org.praisenter.data.song;
 
-import java.util.Collections;
 import java.util.List;
 
+import org.praisenter.data.search.SearchResult;
 import org.praisenter.data.search.SearchTextMatch;
 
 public final class SongSearchResult implements Comparable<SongSearchResult> {
 	/** The song */
 	private final ReadOnlySong song;
 	
-	/** The matched text */
-	private final List<SearchTextMatch> matches;
+	/** The search result (with lazily highlighted text) */
+	private final SearchResult result;
 	
-	/** The matching score */
-	private final float score;
-	
-	public SongSearchResult(ReadOnlySong song, List<SearchTextMatch> matches, float score) {
+	public SongSearchResult(ReadOnlySong song, SearchResult result) {
 		this.song = song;
-		this.matches = matches;
-		this.score = score;
+		this.result = result;
 	}
 	
 	@Override
@@ -34,11 +30,19 @@ public final class SongSearchResult implements Comparable<SongSearchResult> {
 	}
 	
 	public List<SearchTextMatch> getMatches() {
-		return Collections.unmodifiableList(matches);
+		return this.result.getMatches();
 	}
 
+	public boolean isHighlighted() {
+		return this.result.isHighlighted();
+	}
+	
 	public float getScore() {
-		return score;
+		return this.result.getScore();
+	}
+	
+	public SearchResult getResult() {
+		return this.result;
 	}
 
 }
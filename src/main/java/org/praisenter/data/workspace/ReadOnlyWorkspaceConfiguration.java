@@ -1,6 +1,8 @@
 package org.praisenter.data.workspace;           
 
 import org.praisenter.data.Identifiable;
+import org.praisenter.data.bible.BibleCacheConfiguration;
+import org.praisenter.data.json.StorageFormat;
 import org.praisenter.data.media.MediaConfiguration;
 import org.praisenter.data.slide.SlideConfiguration;
 
@@ -11,7 +13,7 @@ import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.collections.ObservableList;
 
-public interface ReadOnlyWorkspaceConfiguration extends MediaConfiguration, SlideConfiguration, Identifiable {
+public interface ReadOnlyWorkspaceConfiguration extends BibleCacheConfiguration, MediaConfiguration, SlideConfiguration, Identifiable {
 	public String getFormat();
 	public String getVersion();
 	
@@ -27,6 +29,8 @@ public interface ReadOnlyWorkspaceConfiguration extends MediaConfiguration, Slid
 	public double getApplicationFontSize();
 	public boolean isApplicationMaximized();
 	public boolean isDebugModeEnabled();
+	public boolean isSearchAsYouTypeEnabled();
+	public boolean isReloadExternalChangesEnabled();
 
 	public boolean isWaitForTransitionsToCompleteEnabled();
 	public PlaceholderTransitionBehavior getPlaceholderTransitionBehavior();
@@ -36,6 +40,7 @@ public interface ReadOnlyWorkspaceConfiguration extends MediaConfiguration, Slid
 	
 	public ReadOnlyBooleanProperty renumberBibleWarningEnabledProperty();
 	public ReadOnlyBooleanProperty reorderBibleWarningEnabledProperty();
+	public ReadOnlyIntegerProperty loadedBibleLimitProperty();
 	
 	public ReadOnlyIntegerProperty thumbnailWidthProperty();
 	public ReadOnlyIntegerProperty thumbnailHeightProperty();
@@ -58,6 +63,9 @@ public interface ReadOnlyWorkspaceConfiguration extends MediaConfiguration, Slid
 	public ReadOnlyDoubleProperty applicationFontSizeProperty();
 	public ReadOnlyBooleanProperty applicationMaximizedProperty();
 	public ReadOnlyBooleanProperty debugModeEnabledProperty();
+	public ReadOnlyBooleanProperty searchAsYouTypeEnabledProperty();
+	public ReadOnlyObjectProperty<StorageFormat> storageFormatProperty();
+	public ReadOnlyBooleanProperty reloadExternalChangesEnabledProperty();
 
 	public ReadOnlyBooleanProperty waitForTransitionsToCompleteEnabledProperty();
 	public ReadOnlyObjectProperty<PlaceholderTransitionBehavior> placeholderTransitionBehaviorProperty();
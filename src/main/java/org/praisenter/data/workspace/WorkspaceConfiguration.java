@@ -7,6 +7,9 @@ import java.util.UUID;
 import org.praisenter.Constants;
 import org.praisenter.Version;
 import org.praisenter.data.Identifiable;
+import org.praisenter.data.StorageConfiguration;
+import org.praisenter.data.bible.BibleCacheConfiguration;
+import org.praisenter.data.json.StorageFormat;
 import org.praisenter.data.media.MediaConfiguration;
 import org.praisenter.data.slide.SlideConfiguration;
 
@@ -41,6 +44,7 @@ public final class WorkspaceConfiguration implements ReadOnlyWorkspaceConfigurat
 	
 	private final BooleanProperty renumberBibleWarningEnabled;
 	private final BooleanProperty reorderBibleWarningEnabled;
+	private final IntegerProperty loadedBibleLimit;
 	
 	private final IntegerProperty thumbnailWidth;
 	private final IntegerProperty thumbnailHeight;
@@ -63,6 +67,9 @@ public final class WorkspaceConfiguration implements ReadOnlyWorkspaceConfigurat
 	private final DoubleProperty applicationFontSize;
 	private final BooleanProperty applicationMaximized;
 	private final BooleanProperty debugModeEnabled;
+	private final BooleanProperty searchAsYouTypeEnabled;
+	private final ObjectProperty<StorageFormat> storageFormat;
+	private final BooleanProperty reloadExternalChangesEnabled;
 
 	private final BooleanProperty waitForTransitionsToCompleteEnabled;
 	private final ObjectProperty<PlaceholderTransitionBehavior> placeholderTransitionBehavior;
@@ -79,6 +86,7 @@ public final class WorkspaceConfiguration implements ReadOnlyWorkspaceConfigurat
 		
 		this.renumberBibleWarningEnabled = new SimpleBooleanProperty(true);
 		this.reorderBibleWarningEnabled = new SimpleBooleanProperty(true);
+		this.loadedBibleLimit = new SimpleIntegerProperty(BibleCacheConfiguration.DEFAULT_LOADED_BIBLE_LIMIT);
 		
 		this.thumbnailWidth = new SimpleIntegerProperty(Constants.THUMBNAIL_SIZE);
 		this.thumbnailHeight = new SimpleIntegerProperty(Constants.THUMBNAIL_SIZE);
@@ -101,6 +109,9 @@ public final class WorkspaceConfiguration implements ReadOnlyWorkspaceConfigurat
 		this.applicationFontSize = new SimpleDoubleProperty(12);
 		this.applicationMaximized = new SimpleBooleanProperty(false);
 		this.debugModeEnabled = new SimpleBooleanProperty(false);
+		this.searchAsYouTypeEnabled = new SimpleBooleanProperty(true);
+		this.storageFormat = new SimpleObjectProperty<>(StorageConfiguration.DEFAULT_STORAGE_FORMAT);
+		this.reloadExternalChangesEnabled = new SimpleBooleanProperty(false);
 
 		this.waitForTransitionsToCompleteEnabled = new SimpleBooleanProperty();
 		this.placeholderTransitionBehavior = new SimpleObjectProperty<>(PlaceholderTransitionBehavior.PLACEHOLDERS);
@@ -217,6 +228,22 @@ public final class WorkspaceConfiguration implements ReadOnlyWorkspaceConfigurat
 	public BooleanProperty reorderBibleWarningEnabledProperty() {
 		return this.reorderBibleWarningEnabled;
 	}
+	
+	@Override
+	@JsonProperty
+	public int getLoadedBibleLimit() {
+		return this.loadedBibleLimit.get();
+	}
+	
+	@JsonProperty
+	public void setLoadedBibleLimit(int limit) {
+		this.loadedBibleLimit.set(limit);
+	}
+	
+	@Override
+	public IntegerProperty loadedBibleLimitProperty() {
+		return this.loadedBibleLimit;
+	}
 
 	@Override
 	@JsonProperty
@@ -538,6 +565,54 @@ public final class WorkspaceConfiguration implements ReadOnlyWorkspaceConfigurat
 		return this.debugModeEnabled;
 	}
 
+	@Override
+	@JsonProperty
+	public boolean isSearchAsYouTypeEnabled() {
+		return this.searchAsYouTypeEnabled.get();
+	}
+	
+	@JsonProperty
+	public void setSearchAsYouTypeEnabled(boolean enabled) {
+		this.searchAsYouTypeEnabled.set(enabled);
+	}
+	
+	@Override
+	public BooleanProperty searchAsYouTypeEnabledProperty() {
+		return this.searchAsYouTypeEnabled;
+	}
+	
+	@Override
+	@JsonProperty
+	public StorageFormat getStorageFormat() {
+		return this.storageFormat.get();
+	}
+	
+	@JsonProperty
+	public void setStorageFormat(StorageFormat format) {
+		this.storageFormat.set(format);
+	}
+	
+	@Override
+	public ObjectProperty<StorageFormat> storageFormatProperty() {
+		return this.storageFormat;
+	}
+	
+	@Override
+	@JsonProperty
+	public boolean isReloadExternalChangesEnabled() {
+		return this.reloadExternalChangesEnabled.get();
+	}
+	
+	@JsonProperty
+	public void setReloadExternalChangesEnabled(boolean enabled) {
+		this.reloadExternalChangesEnabled.set(enabled);
+	}
+	
+	@Override
+	public BooleanProperty reloadExternalChangesEnabledProperty() {
+		return this.reloadExternalChangesEnabled;
+	}
+	
 	@Override
 	@JsonProperty
 	public boolean isWaitForTransitionsToCompleteEnabled() {
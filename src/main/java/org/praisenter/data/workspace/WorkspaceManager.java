@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -15,6 +16,9 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.DoubleConsumer;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.logging.log4j.LogManager;
@@ -24,7 +28,12 @@ import org.apache.lucene.analysis.CharArraySet;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.store.FSDirectory;
 import org.praisenter.async.AsyncHelper;
+import org.praisenter.data.BatchObservableList;
+import org.praisenter.data.BatchResult;
+import org.praisenter.data.DataChangeResult;
 import org.praisenter.data.DataImportResult;
+import org.praisenter.data.DirectorySnapshot;
+import org.praisenter.data.IdIndex;
 import org.praisenter.data.KnownFormat;
 import org.praisenter.data.PersistAdapter;
 import org.praisenter.data.Persistable;
@@ -37,7 +46,9 @@ import org.praisenter.data.media.Media;
 import org.praisenter.data.media.MediaPersistAdapter;
 import org.praisenter.data.search.Indexable;
 import org.praisenter.data.search.SearchCriteria;
+import org.praisenter.data.search.SearchCursor;
 import org.praisenter.data.search.SearchIndex;
+import org.praisenter.data.search.SearchResult;
 import org.praisenter.data.search.SearchResults;
 import org.praisenter.data.slide.Slide;
 import org.praisenter.data.slide.SlidePersistAdapter;
@@ -61,10 +72,14 @@ public final class WorkspaceManager {
 	
 	private final ConcurrentMap<Class<?>, PersistentStore<?>> adapters;
 	
+	/** The snapshot used to speed up loading; null once it's been saved */
+	private volatile WorkspaceSnapshot snapshot;
+	
 	private final Map<UUID, Persistable> itemLookup;
 	
-	private final ObservableList<Persistable> items;
+	private final BatchObservableList<Persistable> items;
 	private final ObservableList<Persistable> itemsReadOnly;
+	private final IdIndex<Persistable> itemIndex;
 	
 	private final ObservableSet<Tag> tags;
 	private final ObservableSet<Tag> tagsReadOnly;
@@ -74,7 +89,8 @@ public final class WorkspaceManager {
 			WorkspaceConfiguration workspaceConfiguration,
 			SearchIndex searchIndex,
 			Set<Path> otherWorkspaces,
-			boolean isNewWorkspace) {
+			boolean isNewWorkspace,
+			WorkspaceSnapshot snapshot) {
 		this.pathResolver = pathResolver;
 		this.workspaceConfiguration = workspaceConfiguration;
 		this.searchIndex = searchIndex;
@@ -82,14 +98,26 @@ public final class WorkspaceManager {
 		this.newWorkspace = isNewWorkspace;
 		
 		this.adapters = new ConcurrentHashMap<>();
+		this.snapshot = snapshot;
 		
 		this.itemLookup = new HashMap<>();
 		
-		this.items = FXCollections.observableArrayList();
+		this.items = new BatchObservableList<>();
 		this.itemsReadOnly = FXCollections.unmodifiableObservableList(this.items);
+		this.itemIndex = new IdIndex<>(this.items);
 		
 		this.tags = FXCollections.observableSet(new HashSet<>());
 		this.tagsReadOnly = FXCollections.unmodifiableObservableSet(this.tags);
+		
+		this.workspaceConfiguration.reloadExternalChangesEnabledProperty().addListener((obs, ov, nv) -> {
+			for (PersistentStore<?> store : this.adapters.values()) {
+				if (nv) {
+					this.watch(store);
+				} else {
+					store.unwatch();
+				}
+			}
+		});
 	}
 	
 	public static WorkspaceManager open(Path basePath, Set<Path> otherWorkspaces) throws IOException {
@@ -153,12 +181,17 @@ public final class WorkspaceManager {
 			throw ex;
 		}
 		
+		// read the snapshot of the last load
+		LOGGER.info("Reading workspace snapshot...");
+		WorkspaceSnapshot snapshot = WorkspaceSnapshot.read(pathResolver.getSnapshotFilePath());
+		
 		return new WorkspaceManager(
 				pathResolver,
 				workspaceConfiguration,
 				searchIndex,
 				Collections.unmodifiableSet(otherWorkspaces),
-				isNewWorkspace);
+				isNewWorkspace,
+				snapshot);
 	}
 	
 	public WorkspacePathResolver getWorkspacePathResolver() {
@@ -188,11 +221,11 @@ public final class WorkspaceManager {
 	}
 	
 	public CompletableFuture<Void> registerBiblePersistAdapter() {
-		return this.registerPersistAdapter(Bible.class, new BiblePersistAdapter(this.pathResolver.getBiblesPath()));
+		return this.registerPersistAdapter(Bible.class, new BiblePersistAdapter(this.pathResolver.getBiblesPath(), this.workspaceConfiguration));
 	}
 
 	public CompletableFuture<Void> registerSongPersistAdapter() {
-		return this.registerPersistAdapter(Song.class, new SongPersistAdapter(this.pathResolver.getSongsPath()));
+		return this.registerPersistAdapter(Song.class, new SongPersistAdapter(this.pathResolver.getSongsPath(), this.workspaceConfiguration));
 	}
 	
 	public CompletableFuture<Void> registerMediaPersistAdapter() {
@@ -205,7 +238,9 @@ public final class WorkspaceManager {
 	
 	public <T extends Persistable> CompletableFuture<Void> registerPersistAdapter(Class<T> clazz, PersistAdapter<T> adapter) {
 		PersistentStore<T> store = new PersistentStore<T>(adapter, this.searchIndex);
-		return store.initialize().thenApply((items) -> {
+		WorkspaceSnapshot snapshot = this.snapshot;
+		DirectorySnapshot directorySnapshot = snapshot != null ? snapshot.getDirectorySnapshot(clazz.getName()) : null;
+		return store.initialize(directorySnapshot).thenApply((items) -> {
 			this.adapters.put(clazz, store);
 			return items;
 		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait((items) -> {
@@ -221,8 +256,81 @@ public final class WorkspaceManager {
 			
 			// add all items to the full list
 			this.items.addAll(items);
+			
+			if (this.workspaceConfiguration.isReloadExternalChangesEnabled()) {
+				this.watch(store);
+			}
 		}));
 	}
+	
+	/**
+	 * Starts watching the given store's folder for changes made by other programs.
+	 * <p>
+	 * Failures are logged; the changes will be picked up by the next load instead.
+	 * @param store the store
+	 * @see PersistentStore#watch(java.util.function.Consumer)
+	 */
+	private <T extends Persistable> void watch(PersistentStore<T> store) {
+		try {
+			store.watch(this::onExternalChange);
+		} catch (Exception ex) {
+			LOGGER.warn("Failed to watch for changes made outside of Praisenter: " + ex.getMessage(), ex);
+		}
+	}
+	
+	/**
+	 * Updates the workspace's lists with the items that were reloaded after being
+	 * changed outside of Praisenter.
+	 * @param result the reloaded items
+	 */
+	private <T extends Persistable> void onExternalChange(DataChangeResult<T> result) {
+		for (T item : result.getCreated()) {
+			this.itemLookup.put(item.getId(), item);
+			this.addItemTags(item);
+		}
+		for (T item : result.getDeleted()) {
+			this.itemLookup.remove(item.getId());
+		}
+		
+		// the positions aren't updated until the batch completes, so replace
+		// before removing and add to the end last
+		this.items.batch(() -> {
+			for (T item : result.getUpdated()) {
+				this.updateListItem(item);
+				this.addItemTags(item);
+			}
+			this.items.removeIndices(result.getDeleted().stream()
+					.mapToInt((item) -> this.itemIndex.indexOf(item.getId()))
+					.toArray());
+			this.items.addAll(result.getCreated());
+		});
+	}
+	
+	/**
+	 * Saves a snapshot of the items loaded by the registered persist adapters so that
+	 * the next load only has to read the files that have changed.
+	 * <p>
+	 * This should be called once, after all the persist adapters have been registered.
+	 * Failures are logged; the next load will just read every file.
+	 * @return CompletableFuture&lt;Void&gt;
+	 */
+	public CompletableFuture<Void> saveSnapshot() {
+		WorkspaceSnapshot snapshot = this.snapshot;
+		// release the snapshot's memory once it's saved
+		this.snapshot = null;
+		if (snapshot == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		
+		return CompletableFuture.runAsync(() -> {
+			Path path = this.pathResolver.getSnapshotFilePath();
+			try {
+				snapshot.write(path);
+			} catch (Exception ex) {
+				LOGGER.warn("Failed to save the workspace snapshot '" + path.toAbsolutePath() + "': " + ex.getMessage(), ex);
+			}
+		});
+	}
 
 	public ObservableList<Persistable> getItemsUnmodifiable() {
 		return this.itemsReadOnly;
@@ -292,10 +400,144 @@ public final class WorkspaceManager {
 			this.itemLookup.remove(item.getId());
 			
 			// remove from the main list
-			this.items.removeIf(i -> i.getId().equals(item.getId()));
+			int index = this.itemIndex.indexOf(item.getId());
+			if (index >= 0) {
+				this.items.remove(index);
+			}
+		}));
+	}
+	
+	/**
+	 * Creates all the given items.
+	 * <p>
+	 * The items can be of different types. Each type's items are created as a batch
+	 * (see {@link PersistentStore#createAll(List)}) and the workspace's lists are
+	 * updated once all batches are complete.
+	 * @param items the items
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;T&gt;&gt;
+	 */
+	public <T extends Persistable> CompletableFuture<BatchResult<T>> createAll(List<T> items) {
+		return this.batch(items, PersistentStore::createAll).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
+			for (T item : result.getSucceeded()) {
+				this.itemLookup.put(item.getId(), item);
+				this.addItemTags(item);
+			}
+			this.items.addAll(result.getSucceeded());
+			return result;
+		}));
+	}
+	
+	/**
+	 * Updates all the given items.
+	 * <p>
+	 * The items can be of different types. Each type's items are updated as a batch
+	 * (see {@link PersistentStore#updateAll(List)}) and the workspace's lists are
+	 * updated once all batches are complete.
+	 * @param items the items
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;T&gt;&gt;
+	 */
+	public <T extends Persistable> CompletableFuture<BatchResult<T>> updateAll(List<T> items) {
+		return this.batch(items, PersistentStore::updateAll).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
+			this.items.batch(() -> {
+				for (T item : result.getSucceeded()) {
+					this.updateListItem(item);
+					this.addItemTags(item);
+				}
+			});
+			return result;
+		}));
+	}
+	
+	/**
+	 * Deletes all the given items.
+	 * <p>
+	 * The items can be of different types. Each type's items are deleted as a batch
+	 * (see {@link PersistentStore#deleteAll(List)}) and the workspace's lists are
+	 * updated once all batches are complete.
+	 * @param items the items
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;T&gt;&gt;
+	 */
+	public <T extends Persistable> CompletableFuture<BatchResult<T>> deleteAll(List<T> items) {
+		return this.batch(items, PersistentStore::deleteAll).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
+			for (T item : result.getSucceeded()) {
+				this.itemLookup.remove(item.getId());
+			}
+			this.items.removeIndices(result.getSucceeded().stream()
+					.mapToInt((item) -> this.itemIndex.indexOf(item.getId()))
+					.toArray());
+			return result;
 		}));
 	}
 	
+	/**
+	 * Groups the given items by type, performs the given operation on each group's
+	 * store and combines the results.
+	 * @param items the items
+	 * @param operation the batch operation
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;T&gt;&gt;
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends Persistable> CompletableFuture<BatchResult<T>> batch(List<T> items, BiFunction<PersistentStore<T>, List<T>, CompletableFuture<BatchResult<T>>> operation) {
+		Map<Class<?>, List<T>> groups = new LinkedHashMap<>();
+		for (T item : items) {
+			groups.computeIfAbsent(item.getClass(), (c) -> new ArrayList<>()).add(item);
+		}
+		
+		List<CompletableFuture<BatchResult<T>>> futures = new ArrayList<>();
+		for (Map.Entry<Class<?>, List<T>> group : groups.entrySet()) {
+			Class<?> clazz = group.getKey();
+			PersistentStore<T> store = (PersistentStore<T>)this.adapters.get(clazz);
+			if (store == null) throw new UnsupportedOperationException("A persistence adapter was not found for class '" + clazz + "'.");
+			futures.add(operation.apply(store, group.getValue()));
+		}
+		
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply((v) -> {
+			BatchResult<T> result = new BatchResult<>();
+			for (CompletableFuture<BatchResult<T>> future : futures) {
+				BatchResult<T> r = future.join();
+				result.getSucceeded().addAll(r.getSucceeded());
+				result.getFailed().addAll(r.getFailed());
+				result.getErrors().addAll(r.getErrors());
+			}
+			return result;
+		});
+	}
+	
+	/**
+	 * Rewrites every item in the workspace in the configured storage format.
+	 * <p>
+	 * Files in any format can always be read, so this isn't required after changing
+	 * the format; it converts the existing files all at once instead of as each item
+	 * is next saved. Must be called on the Java FX UI thread.
+	 * @param progress the progress callback
+	 * @return CompletableFuture&lt;{@link BatchResult}&lt;{@link Persistable}&gt;&gt;
+	 */
+	public CompletableFuture<BatchResult<Persistable>> rewriteAll(DoubleConsumer progress) {
+		int total = this.items.size();
+		AtomicInteger completed = new AtomicInteger();
+		Runnable onItem = () -> progress.accept((double)completed.incrementAndGet() / total);
+		
+		List<CompletableFuture<? extends BatchResult<? extends Persistable>>> futures = new ArrayList<>();
+		for (PersistentStore<?> store : this.adapters.values()) {
+			futures.add(this.rewriteAll(store, onItem));
+		}
+		
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply((v) -> {
+			BatchResult<Persistable> result = new BatchResult<>();
+			for (CompletableFuture<? extends BatchResult<? extends Persistable>> future : futures) {
+				BatchResult<? extends Persistable> r = future.join();
+				result.getSucceeded().addAll(r.getSucceeded());
+				result.getFailed().addAll(r.getFailed());
+				result.getErrors().addAll(r.getErrors());
+			}
+			return result;
+		});
+	}
+	
+	private <T extends Persistable> CompletableFuture<BatchResult<T>> rewriteAll(PersistentStore<T> store, Runnable progress) {
+		return store.rewriteAll(new ArrayList<>(store.getItemsUnmodifiable()), progress);
+	}
+	
 	@SuppressWarnings("unchecked")
 	public <T extends Persistable> CompletableFuture<DataImportResult<T>> importData(Path path, Class<T> clazz) {
 		PersistentStore<T> store = (PersistentStore<T>)this.adapters.get(clazz);
@@ -306,13 +548,15 @@ public final class WorkspaceManager {
 				this.itemLookup.put(item.getId(), item);
 			}
 			
-			// add created
-			this.items.addAll(result.getCreated());
+			this.items.batch(() -> {
+				// add created
+				this.items.addAll(result.getCreated());
 			
-			// update updated
-			for (Persistable item : result.getUpdated()) {
-				this.updateListItem(item);
-			}
+				// update updated
+				for (Persistable item : result.getUpdated()) {
+					this.updateListItem(item);
+				}
+			});
 			
 			// make sure we capture any new tags from the import
 			this.addDataImportResultTags(result);
@@ -369,14 +613,8 @@ public final class WorkspaceManager {
 	private void updateListItem(Persistable item) {
 		this.itemLookup.put(item.getId(), item);
 		
-		int index = -1;
-		for (int i = 0; i < this.items.size(); i++) {
-			Persistable test = this.items.get(i);
-			if (test.getId().equals(item.getId())) {
-				index = i;
-			}
-		}
-		if (index >= 0 && index < this.items.size()) {
+		int index = this.itemIndex.indexOf(item.getId());
+		if (index >= 0) {
 			this.items.set(index, item);
 		}
 	}
@@ -442,17 +680,87 @@ public final class WorkspaceManager {
 		});
 	}
 	
+	/**
+	 * Returns the next page of search results for the given cursor.
+	 * @param cursor the cursor from the previous page
+	 * @return CompletableFuture&lt;{@link SearchResults}&gt;
+	 * @see SearchResults#getNextCursor()
+	 */
+	public CompletableFuture<SearchResults> search(SearchCursor cursor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return this.searchIndex.search(cursor);
+			} catch (Exception ex) {
+				throw new CompletionException(ex);
+			}
+		});
+	}
+	
+	/**
+	 * Computes the highlighted matches for the given search results in the background.
+	 * <p>
+	 * Search results are returned without highlighting; call this for the results
+	 * about to be displayed to avoid computing them on the UI thread.
+	 * @param results the search results
+	 * @return CompletableFuture&lt;Void&gt;
+	 */
+	public CompletableFuture<Void> highlight(List<SearchResult> results) {
+		return CompletableFuture.runAsync(() -> {
+			this.searchIndex.highlight(results);
+		});
+	}
+	
+	/**
+	 * Returns a future that completes when all pending search index changes
+	 * have been applied and are visible to searches.
+	 * @return CompletableFuture&lt;Void&gt;
+	 */
+	public CompletableFuture<Void> flushSearchIndex() {
+		return this.searchIndex.flush();
+	}
+	
 	public CompletableFuture<Void> reindex() {
+		return this.reindex(null);
+	}
+	
+	/**
+	 * Rebuilds the search index from all items in the workspace.
+	 * <p>
+	 * The documents are built in parallel and the given progress callback
+	 * (optional) is called with values between 0.0 and 1.0 as it proceeds.
+	 * @param progress the progress callback; can be null
+	 * @return CompletableFuture&lt;Void&gt;
+	 */
+	public CompletableFuture<Void> reindex(DoubleConsumer progress) {
 		List<? extends Indexable> items = new ArrayList<Persistable>(this.items);
 		return CompletableFuture.runAsync(() -> {
 			try {
-				this.searchIndex.reindex(items);
+				this.searchIndex.reindex(items, progress);
 			} catch (IOException e) {
 				throw new CompletionException(e);
 			}	
 		});
 	}
 	
+	/**
+	 * Updates the search index to match the current items in the workspace, reindexing
+	 * only those that have changed and removing any that no longer exist.
+	 * <p>
+	 * This should be called after all persist adapters have been registered.
+	 * @param progress the progress callback; can be null
+	 * @return CompletableFuture&lt;Void&gt;
+	 */
+	public CompletableFuture<Void> reconcileSearchIndex(DoubleConsumer progress) {
+		List<? extends Indexable> items = new ArrayList<Persistable>(this.items);
+		return CompletableFuture.runAsync(() -> {
+			try {
+				this.searchIndex.reconcile(items, progress);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+	
 	@SuppressWarnings("unchecked")
 	public <T extends Persistable> Path getFilePath(T item) {
 		PersistentStore<T> store = (PersistentStore<T>)this.adapters.get(item.getClass());
@@ -460,6 +768,19 @@ public final class WorkspaceManager {
 		return store.getFilePath(item);
 	}
 	
+	/**
+	 * Releases any resources held by this workspace, like the search index.
+	 * @throws IOException if an IO error occurs
+	 */
+	public void close() throws IOException {
+		for (PersistentStore<?> store : this.adapters.values()) {
+			store.unwatch();
+		}
+		
+		LOGGER.info("Closing the search index...");
+		this.searchIndex.close();
+	}
+	
 	public Persistable getPersistableById(UUID id) {
 		this.throwIfNotJavaFXThread();
 		return this.itemLookup.get(id);
@@ -10,6 +10,7 @@ public final class WorkspacePathResolver {
 	private static final String BIBLES_RELATIVE_PATH = "bibles";
 	private static final String LOGS_RELATIVE_PATH = "logs";
 	private static final String CONFIGURATION_FILE = "workspace.json";
+	private static final String SNAPSHOT_FILE = "_snapshot.bin";
 	
 	private final Path workspacePath;
 	
@@ -28,6 +29,10 @@ public final class WorkspacePathResolver {
 	public Path getConfigurationFilePath() {
 		return this.workspacePath.resolve(WorkspacePathResolver.CONFIGURATION_FILE);
 	}
+	
+	public Path getSnapshotFilePath() {
+		return this.workspacePath.resolve(WorkspacePathResolver.SNAPSHOT_FILE);
+	}
 
 	public Path getSearchIndexPath() {
 		return this.workspacePath.resolve(WorkspacePathResolver.SEARCH_INDEX_RELATIVE_PATH);
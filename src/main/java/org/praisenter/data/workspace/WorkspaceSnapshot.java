@@ -0,0 +1,126 @@
+package org.praisenter.data.workspace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.praisenter.data.DirectorySnapshot;
+
+/**
+ * A single file snapshot of the items loaded from each of the workspace's folders.
+ * <p>
+ * The snapshot is written after a successful load and read at the start of the next
+ * one so that unchanged files don't have to be detected and read individually (see
+ * {@link DirectorySnapshot}). A missing, outdated or corrupt snapshot is ignored and
+ * everything is loaded from the folders as usual.
+ * @author William Bittle
+ * @version 3.0.0
+ */
+final class WorkspaceSnapshot {
+	/** The class-level logger */
+	private static final Logger LOGGER = LogManager.getLogger();
+	
+	/** The magic number ("PRWS") */
+	private static final int MAGIC = 0x50525753;
+	
+	/** The version of the snapshot format */
+	private static final int FORMAT_VERSION = 1;
+	
+	/** The snapshots from the last load by name */
+	private final Map<String, DirectorySnapshot> previous;
+	
+	/** The snapshots for this load by name */
+	private final Map<String, DirectorySnapshot> current;
+	
+	/**
+	 * Minimal constructor.
+	 * @param previous the snapshots from the last load
+	 */
+	private WorkspaceSnapshot(Map<String, DirectorySnapshot> previous) {
+		this.previous = previous;
+		this.current = new HashMap<>();
+	}
+	
+	/**
+	 * Reads the snapshot at the given path.
+	 * <p>
+	 * Returns an empty snapshot if the file doesn't exist or can't be read.
+	 * @param path the path
+	 * @return {@link WorkspaceSnapshot}
+	 */
+	public static WorkspaceSnapshot read(Path path) {
+		if (!Files.isRegularFile(path)) {
+			return new WorkspaceSnapshot(Collections.emptyMap());
+		}
+		
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				LOGGER.info("Ignoring workspace snapshot '" + path.toAbsolutePath() + "' because it's from a different version");
+				return new WorkspaceSnapshot(Collections.emptyMap());
+			}
+			
+			Map<String, DirectorySnapshot> snapshots = new HashMap<>();
+			int n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				String name = in.readUTF();
+				snapshots.put(name, DirectorySnapshot.read(in));
+			}
+			return new WorkspaceSnapshot(snapshots);
+		} catch (Exception ex) {
+			LOGGER.warn("Failed to read workspace snapshot '" + path.toAbsolutePath() + "'; a full load will be performed: " + ex.getMessage(), ex);
+			return new WorkspaceSnapshot(Collections.emptyMap());
+		}
+	}
+	
+	/**
+	 * Returns the snapshot of the given folder to use for this load.
+	 * @param name the folder's name
+	 * @return {@link DirectorySnapshot}
+	 */
+	public synchronized DirectorySnapshot getDirectorySnapshot(String name) {
+		DirectorySnapshot snapshot = this.previous.get(name);
+		if (snapshot == null) {
+			snapshot = new DirectorySnapshot();
+		}
+		this.current.put(name, snapshot);
+		return snapshot;
+	}
+	
+	/**
+	 * Writes the snapshot of this load to the given path.
+	 * <p>
+	 * The file is written to a temporary file first and then moved into place.
+	 * @param path the path
+	 * @throws IOException if an IO error occurs
+	 */
+	public synchronized void write(Path path) throws IOException {
+		Map<String, DirectorySnapshot> snapshots = new TreeMap<>(this.current);
+		Path temp = path.resolveSibling(path.getFileName().toString() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(snapshots.size());
+				for (Map.Entry<String, DirectorySnapshot> e : snapshots.entrySet()) {
+					out.writeUTF(e.getKey());
+					e.getValue().write(out);
+				}
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			Files.deleteIfExists(temp);
+			throw ex;
+		}
+	}
+}
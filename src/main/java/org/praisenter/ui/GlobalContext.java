@@ -1,6 +1,7 @@
 package org.praisenter.ui;
 
 import java.io.File;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -361,6 +362,13 @@ public final class GlobalContext {
 		// NOTE: dispose of images AFTER we've disposed of the display targets
 		// otherwise, the images will get loaded again before cleanup
 		this.imageCache.clear();
+		
+		// release the workspace resources (search index, etc.)
+		try {
+			this.workspaceManager.close();
+		} catch (Exception ex) {
+			LOGGER.warn("Failed to close the workspace: " + ex.getMessage(), ex);
+		}
 	}
 	
 	/**
@@ -680,60 +688,88 @@ public final class GlobalContext {
 	
 	public CompletableFuture<Void> save(DocumentContext<?> context) {
 		// make sure there are changes to save first
-		if (!context.hasUnsavedChanges()) {
+		if (!context.hasUnsavedChanges() || context.getDocument() == null) {
 			return CompletableFuture.completedFuture(null);
 		}
 		
-		// if there are, then attempt to save
+		// saves are written one at a time per document and the state to save
+		// is only captured when a save starts, so all the saves requested while
+		// one is being written are written together
+		context.setSaveQueueDepth(context.getSaveQueueDepth() + 1);
+		return context.getSaveExecutionManager().execute(() -> {
+			return CompletableFuture.completedFuture(null).thenCompose(AsyncHelper.onJavaFXThreadAndWait((o) -> {
+				return this.write(context);
+			})).thenCompose((future) -> future);
+		});
+	}
+	
+	/**
+	 * Writes the current state of the given document.
+	 * <p>
+	 * This must be called on the Java FX UI thread.
+	 * @param context the document
+	 * @return CompletableFuture&lt;Void&gt;
+	 */
+	private CompletableFuture<Void> write(DocumentContext<?> context) {
+		// this covers all the saves requested so far
+		final int requests = context.getSaveQueueDepth();
+		
 		Persistable data = context.getDocument();
-		if (data != null) {
-			// update the modified on
-			data.setModifiedDate(Instant.now());
-			// now create a copy to be saved
-			final Persistable copy = data.copy();
-			final Object position = context.getUndoManager().storePosition();
+		if (data == null || !context.hasUnsavedChanges()) {
+			context.setSaveQueueDepth(context.getSaveQueueDepth() - requests);
+			return CompletableFuture.completedFuture(null);
+		}
 			
-			BackgroundTask task = new BackgroundTask();
-			task.setName(Translations.get("task.saving", copy.getName()));
-			task.setMessage(Translations.get("task.saving", copy.getName()));
-			this.addBackgroundTask(task);
+		// update the modified on
+		data.setModifiedDate(Instant.now());
+		// now take a copy of its current state to be saved
+		final Persistable copy = data.snapshot();
+		final Object position = context.getUndoManager().storePosition();
+		final boolean isNew = context.isNew();
 			
-			return context.getSaveExecutionManager().execute(() -> {
-				CompletableFuture<Void> future;
+		BackgroundTask task = new BackgroundTask();
+		task.setName(Translations.get("task.saving", copy.getName()));
+		task.setMessage(Translations.get("task.saving", copy.getName()));
+		this.addBackgroundTask(task);
 				
-				// check if the document has been saved before
-				if (context.isNew()) {
-					future = this.getWorkspaceManager().create(copy);
-				} else {
-					future = this.getWorkspaceManager().update(copy);
-				}
+		final long start = System.nanoTime();
+		CompletableFuture<Void> future;
 				
-				// regardless of create/update, we want to handle success and error the same
-				return future.thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
-					context.getUndoManager().markPosition(position);
-					if (context.isNew()) {
-						context.setNew(false);
-					}
-					task.setProgress(1);
-				})).handle((ob, t) -> {
-					return t;
-				}).thenCompose(AsyncHelper.onJavaFXThreadAndWait((t) -> {
-					this.onActionStateChanged("SAVE_COMPLETE");
-					
-					if (t != null) {
-						LOGGER.error("Failed to save '" + copy.getName() + "'", t);
-						context.getUndoManager().clearPosition(position);
-						task.setException(t);
-					}
-					return t;
-				})).thenAccept((t) -> {
-					if (t != null) {
-						throw new CompletionException(t);
-					}
-				});
-			});
+		// check if the document has been saved before
+		if (isNew) {
+			future = this.getWorkspaceManager().create(copy);
+		} else {
+			future = this.getWorkspaceManager().update(copy);
 		}
-		return CompletableFuture.completedFuture(null);
+					
+		// regardless of create/update, we want to handle success and error the same
+		return future.thenApply((v) -> {
+			return Duration.ofNanos(System.nanoTime() - start);
+		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait((latency) -> {
+			context.getUndoManager().markPosition(position);
+			if (isNew) {
+				context.setNew(false);
+			}
+			context.setLastSaveLatency(latency);
+			task.setProgress(1);
+			LOGGER.debug("Saved '{}' in {}ms covering {} request(s)", copy.getName(), latency.toMillis(), requests);
+		})).handle((ob, t) -> {
+			return t;
+		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait((t) -> {
+			context.setSaveQueueDepth(context.getSaveQueueDepth() - requests);
+			this.onActionStateChanged("SAVE_COMPLETE");
+			
+			if (t != null) {
+				LOGGER.error("Failed to save '" + copy.getName() + "'", t);
+				context.getUndoManager().clearPosition(position);
+				task.setException(t);
+			}
+			return t;
+		})).thenAccept((t) -> {
+			if (t != null) {
+				throw new CompletionException(t);
+			}
+		});
 	}
 
 	public CompletableFuture<Void> reindex() {
@@ -742,7 +778,7 @@ public final class GlobalContext {
 		task.setMessage(Translations.get("task.reindex"));
 		this.addBackgroundTask(task);
 		
-		return this.workspaceManager.reindex().thenRun(() -> {
+		return this.workspaceManager.reindex(task::setProgress).thenRun(() -> {
 			task.setProgress(1);
 		}).exceptionally((ex) -> {
 			LOGGER.error("Failed to reindex the lucene search index: " + ex.getMessage(), ex);
@@ -752,6 +788,51 @@ public final class GlobalContext {
 		});
 	}
 	
+	/**
+	 * Rewrites all the items in the workspace in the configured storage format
+	 * as a background task.
+	 * @return CompletableFuture&lt;Void&gt;
+	 */
+	public CompletableFuture<Void> rewriteWorkspaceFiles() {
+		BackgroundTask task = new BackgroundTask();
+		task.setName(Translations.get("task.storage.rewrite"));
+		task.setMessage(Translations.get("task.storage.rewrite"));
+		this.addBackgroundTask(task);
+		
+		return this.workspaceManager.rewriteAll(task::setProgress).thenAccept((result) -> {
+			for (int i = 0; i < result.getFailed().size(); i++) {
+				Exception ex = result.getErrors().get(i);
+				LOGGER.error("Failed to rewrite '" + result.getFailed().get(i).getName() + "': " + ex.getMessage(), ex);
+			}
+			if (!result.getErrors().isEmpty()) {
+				task.setException(result.getErrors().get(0));
+			} else {
+				task.setProgress(1);
+			}
+		}).exceptionally((ex) -> {
+			LOGGER.error("Failed to rewrite the workspace files: " + ex.getMessage(), ex);
+			task.setException(ex);
+			if (ex instanceof CompletionException) throw (CompletionException)ex;
+			throw new CompletionException(ex);
+		});
+	}
+	
+	public CompletableFuture<Void> reconcileSearchIndex() {
+		BackgroundTask task = new BackgroundTask();
+		task.setName(Translations.get("task.reconcile"));
+		task.setMessage(Translations.get("task.reconcile"));
+		this.addBackgroundTask(task);
+		
+		return this.workspaceManager.reconcileSearchIndex(task::setProgress).thenRun(() -> {
+			task.setProgress(1);
+		}).exceptionally((ex) -> {
+			LOGGER.error("Failed to reconcile the lucene search index: " + ex.getMessage(), ex);
+			task.setException(ex);
+			if (ex instanceof CompletionException) throw (CompletionException)ex;
+			throw new CompletionException(ex);
+		});
+	}
+	
 	public CompletableFuture<Void> save() {
 		DocumentContext<?> ctx = this.currentDocument.get();
 		if (ctx != null) {
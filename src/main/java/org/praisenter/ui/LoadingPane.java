@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -208,50 +209,63 @@ final class LoadingPane extends Pane {
 		}));
 	}
 	
-	private CompletableFuture<Void> loadBibles() {
+	private CompletableFuture<Void> loadData() {
 		return AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.message.set(Translations.get("task.loading.bible"));
+			this.message.set(Translations.get("task.loading.data"));
 		}).apply(null).thenCompose((v) -> {
-			LOGGER.info("Loading bibles");
-			return this.context.workspaceManager.registerBiblePersistAdapter();
-		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.progress.set(0.3);
-		}));
+			// each store lives in its own folder, so they can all be loaded
+			// at the same time. Slides only look up their media when they are
+			// rendered (never during load), so they don't need to wait on media.
+			List<CompletableFuture<Void>> loads = List.of(
+				this.loadBibles(),
+				this.loadSongs(),
+				this.loadMedia(),
+				this.loadSlides());
+			
+			// advance the progress as each one finishes
+			AtomicInteger completed = new AtomicInteger(0);
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[loads.size()];
+			for (int i = 0; i < futures.length; i++) {
+				futures[i] = loads.get(i).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
+					this.progress.set(0.1 + 0.7 * completed.incrementAndGet() / futures.length);
+				}));
+			}
+			return CompletableFuture.allOf(futures);
+		}).thenRun(() -> {
+			// NOTE: we don't wait for this, it's only used by the next start up
+			this.context.workspaceManager.saveSnapshot();
+		});
+	}
+	
+	private CompletableFuture<Void> loadBibles() {
+		LOGGER.info("Loading bibles");
+		return this.context.workspaceManager.registerBiblePersistAdapter();
 	}
 
 	private CompletableFuture<Void> loadSongs() {
-		return AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.message.set(Translations.get("task.loading.song"));
-		}).apply(null).thenCompose((v) -> {
-			LOGGER.info("Loading songs");
-			return this.context.workspaceManager.registerSongPersistAdapter();
-		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.progress.set(0.5);
-		}));
+		LOGGER.info("Loading songs");
+		return this.context.workspaceManager.registerSongPersistAdapter();
 	}
 	
 	private CompletableFuture<Void> loadMedia() {
-		return AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.message.set(Translations.get("task.loading.media"));
-		}).apply(null).thenCompose((v) -> {
-			LOGGER.info("Loading media");
-			return this.context.workspaceManager.registerMediaPersistAdapter();
-		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.progress.set(0.7);
-		}));
+		LOGGER.info("Loading media");
+		return this.context.workspaceManager.registerMediaPersistAdapter();
 	}
 	
 	private CompletableFuture<Void> loadSlides() {
-		return AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.message.set(Translations.get("task.loading.slide"));
-		}).apply(null).thenCompose((v) -> {
-			LOGGER.info("Loading slides");
-			return this.context.workspaceManager.registerSlidePersistAdapter(new JavaFXSlideRenderer(this.context));
-		}).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
-			this.progress.set(0.8);
-		}));
+		LOGGER.info("Loading slides");
+		return this.context.workspaceManager.registerSlidePersistAdapter(new JavaFXSlideRenderer(this.context));
 	}
 
+	private CompletableFuture<Void> reconcileSearchIndex() {
+		return AsyncHelper.onJavaFXThreadAndWait(() -> {
+			// NOTE: we don't wait for this, it runs as a background task
+			// and searches will pick up the changes as they are made
+			LOGGER.info("Reconciling the search index in the background");
+			this.context.reconcileSearchIndex();
+		}).apply(null);
+	}
+	
 	private CompletableFuture<Void> loadDisplayManager() {
 		return AsyncHelper.onJavaFXThreadAndWait(() -> {
 			this.message.set(Translations.get("task.loading.displays"));
@@ -340,13 +354,9 @@ final class LoadingPane extends Pane {
 		.thenCompose((v) -> {
 			return this.performUpgrade();
 		}).thenCompose((v) -> {
-			return this.loadBibles();
-		}).thenCompose((v) -> {
-			return this.loadSongs();
-		}).thenCompose((v) -> {
-			return this.loadMedia();
+			return this.loadData();
 		}).thenCompose((v) -> {
-			return this.loadSlides();
+			return this.reconcileSearchIndex();
 		}).thenCompose((v) -> {
 			return this.loadDisplayManager();
 		}).thenCompose((v) -> {
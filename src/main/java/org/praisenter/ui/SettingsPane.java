@@ -5,6 +5,7 @@ import java.util.Locale;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.praisenter.data.json.StorageFormat;
 import org.praisenter.data.workspace.PlaceholderTransitionBehavior;
 import org.praisenter.data.workspace.WorkspaceConfiguration;
 import org.praisenter.ui.controls.FormField;
@@ -194,6 +195,40 @@ public class SettingsPane extends BorderPane {
 			configuration.setReorderBibleWarningEnabled(nv);
 		});
 		
+		// loaded bible limit
+		Spinner<Integer> spnLoadedBibleLimit = new Spinner<>(1, 100, configuration.getLoadedBibleLimit(), 1);
+		spnLoadedBibleLimit.setEditable(true);
+		spnLoadedBibleLimit.getValueFactory().setConverter(LastValueNumberStringConverter.forInteger((originalValueText) -> {
+			Platform.runLater(() -> {
+				spnLoadedBibleLimit.getEditor().setText(originalValueText);
+			});
+		}));
+		spnLoadedBibleLimit.valueProperty().addListener((obs, ov, nv) -> {
+			configuration.setLoadedBibleLimit(nv);
+		});
+		
+		// storage format
+		ObservableList<Option<StorageFormat>> storageFormats = FXCollections.observableArrayList();
+		for (StorageFormat format : StorageFormat.values()) {
+			storageFormats.add(new Option<StorageFormat>(Translations.get("settings.storageFormat." + format), format));
+		}
+		ComboBox<Option<StorageFormat>> cmbStorageFormat = new ComboBox<Option<StorageFormat>>(storageFormats);
+		cmbStorageFormat.setValue(new Option<>(null, configuration.getStorageFormat()));
+		
+		cmbStorageFormat.valueProperty().addListener((obs, ov, nv) -> {
+			if (nv != null) {
+				configuration.setStorageFormat(nv.getValue());
+			}
+		});
+		
+		Button btnRewriteFiles = new Button(Translations.get("settings.storageFormat.rewrite"));
+		btnRewriteFiles.setOnAction(e -> {
+			btnRewriteFiles.setDisable(true);
+			context.rewriteWorkspaceFiles().whenComplete((v, ex) -> {
+				Platform.runLater(() -> btnRewriteFiles.setDisable(false));
+			});
+		});
+		
 		// debug mode
 		CheckBox chkDebugMode = new CheckBox();
 		chkDebugMode.setSelected(configuration.isDebugModeEnabled());
@@ -201,9 +236,26 @@ public class SettingsPane extends BorderPane {
 			configuration.setDebugModeEnabled(nv);
 		});
 		
+		// search as you type
+		CheckBox chkSearchAsYouType = new CheckBox();
+		chkSearchAsYouType.setSelected(configuration.isSearchAsYouTypeEnabled());
+		chkSearchAsYouType.selectedProperty().addListener((obs, ov, nv) -> {
+			configuration.setSearchAsYouTypeEnabled(nv);
+		});
+		
+		// reload external changes
+		CheckBox chkReloadExternalChanges = new CheckBox();
+		chkReloadExternalChanges.setSelected(configuration.isReloadExternalChangesEnabled());
+		chkReloadExternalChanges.selectedProperty().addListener((obs, ov, nv) -> {
+			configuration.setReloadExternalChangesEnabled(nv);
+		});
+		
 		VBox boxGeneral = new VBox(
 				new FormField(Translations.get("settings.theme"), Translations.get("settings.theme.description"), cmbTheme, btnRefreshThemes, btnReloadCss),
 				new FormField(Translations.get("settings.locale"), Translations.get("settings.locale.description"), cmbLocales, btnRefreshLocales),
+				new FormField(Translations.get("settings.searchAsYouType"), Translations.get("settings.searchAsYouType.description"), chkSearchAsYouType),
+				new FormField(Translations.get("settings.storageFormat"), Translations.get("settings.storageFormat.description"), cmbStorageFormat, btnRewriteFiles),
+				new FormField(Translations.get("settings.reloadExternalChanges"), Translations.get("settings.reloadExternalChanges.description"), chkReloadExternalChanges),
 				new FormField(Translations.get("settings.debug"), Translations.get("settings.debug.description"), chkDebugMode));
 		FormFieldGroup pneGeneral = new FormFieldGroup(Translations.get("settings.general"), boxGeneral);
 		
@@ -228,7 +280,8 @@ public class SettingsPane extends BorderPane {
 		
 		VBox boxBible = new VBox(
 				new FormField(Translations.get("settings.bible.renumberWarning"), Translations.get("settings.bible.renumberWarning.description"), chkBibleRenumberWarning),
-				new FormField(Translations.get("settings.bible.reorderWarning"), Translations.get("settings.bible.reorderWarning.description"), chkBibleReorderWarning));
+				new FormField(Translations.get("settings.bible.reorderWarning"), Translations.get("settings.bible.reorderWarning.description"), chkBibleReorderWarning),
+				new FormField(Translations.get("settings.bible.loadedLimit"), Translations.get("settings.bible.loadedLimit.description"), spnLoadedBibleLimit));
 		FormFieldGroup pneBible = new FormFieldGroup(Translations.get("settings.bible"), boxBible);
 		pneBible.setExpanded(false);
 		
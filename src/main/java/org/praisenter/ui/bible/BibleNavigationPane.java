@@ -15,12 +15,12 @@ import org.praisenter.data.bible.BibleConfiguration;
 import org.praisenter.data.bible.BibleReferenceSet;
 import org.praisenter.data.bible.BibleReferenceTextStore;
 import org.praisenter.data.bible.BibleReferenceVerse;
-import org.praisenter.data.bible.Chapter;
 import org.praisenter.data.bible.LocatedVerse;
 import org.praisenter.data.bible.LocatedVerseTriplet;
 import org.praisenter.data.bible.ReadOnlyBible;
 import org.praisenter.data.bible.ReadOnlyBook;
-import org.praisenter.data.bible.Verse;
+import org.praisenter.data.bible.ReadOnlyChapter;
+import org.praisenter.data.bible.ReadOnlyVerse;
 import org.praisenter.ui.EmptyItemList;
 import org.praisenter.ui.GlobalContext;
 import org.praisenter.ui.Glyphs;
@@ -149,10 +149,10 @@ public final class BibleNavigationPane extends GridPane {
 				return true;
 			int cn = this.chapter.get();
 			String vn = this.verse.get();
-			Chapter chapter = book.getChapter(cn);
+			ReadOnlyChapter chapter = book.getChapter(cn);
 			if (chapter == null)
 				return false;
-			Verse verse = chapter.getVerse(vn);
+			ReadOnlyVerse verse = chapter.getVerse(vn);
 			return verse != null;
 		}, this.book, this.chapter, this.verse));
 
@@ -231,7 +231,7 @@ public final class BibleNavigationPane extends GridPane {
 			if (book == null)
 				return null;
 			int cn = this.chapter.get();
-			Chapter chapter = book.getChapter(cn);
+			ReadOnlyChapter chapter = book.getChapter(cn);
 			if (chapter == null)
 				return INVALID_CHAPTER;
 			return null;
@@ -243,21 +243,21 @@ public final class BibleNavigationPane extends GridPane {
 			if (book == null)
 				return "";
 			int cn = this.chapter.get();
-			Chapter chapter = book.getChapter(cn);
+			ReadOnlyChapter chapter = book.getChapter(cn);
 			if (chapter == null)
 				return "";
-			return String.valueOf(chapter.getVerses().size());
+			return String.valueOf(chapter.getVersesUnmodifiable().size());
 		}, this.book, this.chapter));
 		lblVerses.graphicProperty().bind(Bindings.createObjectBinding(() -> {
 			ReadOnlyBook book = this.book.get();
 			if (book == null)
 				return null;
 			int cn = this.chapter.get();
-			Chapter chapter = book.getChapter(cn);
+			ReadOnlyChapter chapter = book.getChapter(cn);
 			if (chapter == null)
 				return INVALID_VERSE;
 			String vn = this.verse.get();
-			Verse verse = chapter.getVerse(vn);
+			ReadOnlyVerse verse = chapter.getVerse(vn);
 			if (verse == null)
 				return INVALID_VERSE;
 			return null;
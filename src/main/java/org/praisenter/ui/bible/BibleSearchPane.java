@@ -3,14 +3,23 @@ package org.praisenter.ui.bible;
 import java.text.DecimalFormat;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexableField;
 import org.praisenter.async.AsyncHelper;
+import org.praisenter.async.InOrderExecutionManager;
 import org.praisenter.data.PersistableComparator;
 import org.praisenter.data.bible.Bible;
 import org.praisenter.data.bible.BibleConfiguration;
@@ -18,7 +27,9 @@ import org.praisenter.data.bible.BibleSearchResult;
 import org.praisenter.data.bible.BibleTextSearchCriteria;
 import org.praisenter.data.bible.LocatedVerse;
 import org.praisenter.data.bible.ReadOnlyBook;
+import org.praisenter.data.search.SearchCursor;
 import org.praisenter.data.search.SearchResult;
+import org.praisenter.data.search.SearchResults;
 import org.praisenter.data.search.SearchTextMatch;
 import org.praisenter.data.search.SearchType;
 import org.praisenter.ui.GlobalContext;
@@ -28,6 +39,7 @@ import org.praisenter.ui.controls.AutoCompleteComboBox;
 import org.praisenter.ui.controls.ProgressOverlay;
 import org.praisenter.ui.translations.Translations;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
@@ -65,6 +77,7 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
 
 // FEATURE (M-M) add searching to the bible editor for finding and editing easily
 
@@ -73,6 +86,11 @@ public final class BibleSearchPane extends VBox {
 	private static final String BIBLE_SEARCH_CRITERIA_CSS = "p-bible-search-criteria";
 	
 	private static final Logger LOGGER = LogManager.getLogger();
+	
+	private static final int PAGE_SIZE = 100;
+	private static final int HIGHLIGHT_PAGE_SIZE = 30;
+	private static final int SEARCH_DELAY_MILLIS = 300;
+	private static final int MIN_SEARCH_LENGTH = 3;
 
 	private static final DecimalFormat SCORE_FORMAT = new DecimalFormat(Translations.get("search.score.format"));
 
@@ -86,6 +104,21 @@ public final class BibleSearchPane extends VBox {
 	private final ObjectProperty<ReadOnlyBook> book;
 	private final ObjectProperty<Option<SearchType>> searchType;
 	private final StringProperty terms;
+	private final ObservableList<BibleSearchResult> results;
+	
+	// paging
+	
+	private SearchCursor nextPage;
+	private boolean pageLoading;
+	
+	// highlighting
+	
+	private final Set<SearchResult> highlighting;
+	
+	// searching
+	
+	private final InOrderExecutionManager searchExecutionManager;
+	private final AtomicInteger searchVersion;
 	
 	// value
 	
@@ -103,6 +136,11 @@ public final class BibleSearchPane extends VBox {
 		this.book = new SimpleObjectProperty<ReadOnlyBook>();
 		this.searchType = new SimpleObjectProperty<Option<SearchType>>();
 		this.terms = new SimpleStringProperty();
+		this.results = FXCollections.observableArrayList();
+		this.highlighting = new HashSet<SearchResult>();
+		
+		this.searchExecutionManager = new InOrderExecutionManager();
+		this.searchVersion = new AtomicInteger();
 		
 		this.value = new SimpleObjectProperty<BibleSearchResult>();
 		this.append = new SimpleBooleanProperty(false);
@@ -119,10 +157,10 @@ public final class BibleSearchPane extends VBox {
 		this.bible.addListener((obs, ov, nv) -> {
 			ReadOnlyBook book = this.book.get();
 			if (ov != null) {
-				Bindings.unbindContent(this.books, ov.getBooks());
+				Bindings.unbindContent(this.books, ov.getBooksUnmodifiable());
 			}
 			if (nv != null) {
-				Bindings.bindContent(this.books, nv.getBooks());
+				Bindings.bindContent(this.books, nv.getBooksUnmodifiable());
 				ReadOnlyBook newBook = nv.getMatchingBook(book);
 				if (newBook != null) {
 					this.book.set(newBook);
@@ -201,7 +239,7 @@ public final class BibleSearchPane extends VBox {
 		txtVerse.setEditable(false);
 		txtVerse.setPromptText(Translations.get("bible.search.results.placeholder"));
 
-		TableView<BibleSearchResult> table = new TableView<BibleSearchResult>();
+		TableView<BibleSearchResult> table = new TableView<BibleSearchResult>(this.results);
 		
 		// columns
 		TableColumn<BibleSearchResult, Number> score = new TableColumn<BibleSearchResult, Number>(Translations.get("search.score"));
@@ -246,6 +284,10 @@ public final class BibleSearchPane extends VBox {
 				super.updateItem(item, empty);
 				if (item == null || empty) {
 					setGraphic(null);
+				} else if (!item.isHighlighted()) {
+					// show the plain text until the matches are computed in the background
+					setGraphic(new Text(item.getVerse().getText()));
+					highlight(getTableView(), getIndex());
 				} else {
 					List<SearchTextMatch> matches = item.getMatches();
 					SearchTextMatch match = null;
@@ -306,6 +348,12 @@ public final class BibleSearchPane extends VBox {
 			        }
 		    	}
 		    });
+		    // fetch the next page when the last row is shown
+		    row.indexProperty().addListener((obs, ov, nv) -> {
+		    	if (nv.intValue() >= this.results.size() - 1) {
+		    		this.nextPage();
+		    	}
+		    });
 		    return row ;
 		});
 		
@@ -333,7 +381,13 @@ public final class BibleSearchPane extends VBox {
 		
 		this.getChildren().addAll(top, splt, lblResults);
 		
+		// waits for a pause in typing before searching
+		PauseTransition delay = new PauseTransition(Duration.millis(SEARCH_DELAY_MILLIS));
+		
 		EventHandler<ActionEvent> handler = e -> {
+			// no need to wait anymore if we're searching now
+			delay.stop();
+			
 			Bible bible = this.bible.get();
 			ReadOnlyBook book = this.book.get();
 			String text = this.terms.get();
@@ -342,25 +396,45 @@ public final class BibleSearchPane extends VBox {
 			if (text != null && text.length() != 0 && type != null) {
 				overlay.setVisible(true);
 				
-				final int maxResults = 100;
 				BibleTextSearchCriteria criteria = new BibleTextSearchCriteria(
 						text,
 						type.getValue(),
-						maxResults,
+						PAGE_SIZE,
 						bible != null ? bible.getId() : null, 
 						book != null ? book.getNumber() : -1);
 				
-				context.getWorkspaceManager().search(criteria).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
-					table.setItems(FXCollections.observableArrayList(this.getSearchResults(result.getResults())));
-					lblResults.setText(MessageFormat.format(Translations.get("bible.search.results.output"), result.hasMore() ? maxResults + "+" : result.getNumberOfResults()));
-					overlay.setVisible(false);
-				})).exceptionally(t -> {
-					LOGGER.error("Failed to search bibles using terms '" + text + "' due to: " + t.getMessage(), t);
-					Platform.runLater(() -> {
-						Alert alert = Dialogs.exception(this.context.getStage(), t);
-						alert.show();
+				// any pages of the previous search are no longer needed
+				this.nextPage = null;
+				
+				// only the results of the most recent search should be shown
+				final int version = this.searchVersion.incrementAndGet();
+				final Map<UUID, Bible> lookup = this.getBibles();
+				this.searchExecutionManager.execute(() -> {
+					// skip the search if it was superseded while it was waiting
+					if (version != this.searchVersion.get()) {
+						return CompletableFuture.completedFuture(null);
+					}
+					
+					return context.getWorkspaceManager().search(criteria).thenCompose((result) -> this.getSearchResults(result, lookup).thenCompose(AsyncHelper.onJavaFXThreadAndWait((rows) -> {
+						if (version != this.searchVersion.get()) {
+							LOGGER.debug("Ignoring results of superseded search '{}'", text);
+							return;
+						}
+						
+						this.nextPage = result.getNextCursor();
+						this.results.setAll(rows);
+						lblResults.setText(MessageFormat.format(Translations.get("bible.search.results.output"), result.isTotalResultsExact() ? result.getTotalResults() : result.getTotalResults() + "+"));
+						overlay.setVisible(false);
+					}))).exceptionally(t -> {
+						LOGGER.error("Failed to search bibles using terms '" + text + "' due to: " + t.getMessage(), t);
+						Platform.runLater(() -> {
+							if (version != this.searchVersion.get()) return;
+							overlay.setVisible(false);
+							Alert alert = Dialogs.exception(this.context.getStage(), t);
+							alert.show();
+						});
+						return null;
 					});
-					return null;
 				});
 			}
 		};
@@ -372,45 +446,193 @@ public final class BibleSearchPane extends VBox {
 		
 		txtSearch.setOnAction(handler);
 		btnSearch.setOnAction(handler);
+		
+		// search as you type
+		delay.setOnFinished(handler);
+		Runnable typing = () -> {
+			if (!context.getWorkspaceConfiguration().isSearchAsYouTypeEnabled()) {
+				return;
+			}
+			String text = this.terms.get();
+			if (text != null && text.trim().length() >= MIN_SEARCH_LENGTH) {
+				delay.playFromStart();
+			} else {
+				// drop the pending search and any that are still running
+				// so their results don't show up for the shorter text
+				delay.stop();
+				this.searchVersion.incrementAndGet();
+				overlay.setVisible(false);
+			}
+		};
+		this.terms.addListener((obs, ov, nv) -> typing.run());
+		this.searchType.addListener((obs, ov, nv) -> typing.run());
+		this.bible.addListener((obs, ov, nv) -> typing.run());
+		this.book.addListener((obs, ov, nv) -> typing.run());
 	}
 	
-	private List<BibleSearchResult> getSearchResults(List<SearchResult> results) {
-		List<BibleSearchResult> output = new ArrayList<BibleSearchResult>();
-		for (SearchResult result : results) {
-			Document document = result.getDocument();
-			Bible bible = this.context.getWorkspaceManager().getItem(Bible.class, UUID.fromString(document.get(Bible.FIELD_ID)));
+	/**
+	 * Computes the highlighted matches for a page of results, starting at the given
+	 * row, in the background and refreshes the given table when they're done.
+	 * <p>
+	 * Rows that are already highlighted or being highlighted are skipped.
+	 * @param table the table showing the results
+	 * @param index the index of the first row
+	 */
+	private void highlight(TableView<BibleSearchResult> table, int index) {
+		List<SearchResult> page = new ArrayList<SearchResult>();
+		int end = Math.min(index + HIGHLIGHT_PAGE_SIZE, table.getItems().size());
+		for (int i = Math.max(index, 0); i < end; i++) {
+			SearchResult result = table.getItems().get(i).getResult();
+			if (!result.isHighlighted() && this.highlighting.add(result)) {
+				page.add(result);
+			}
+		}
+		
+		if (page.isEmpty()) return;
+		
+		this.context.getWorkspaceManager().highlight(page).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
+			this.highlighting.removeAll(page);
+			table.refresh();
+		})).exceptionally(t -> {
+			LOGGER.error("Failed to highlight bible search results due to: " + t.getMessage(), t);
+			Platform.runLater(() -> {
+				this.highlighting.removeAll(page);
+			});
+			return null;
+		});
+	}
+	
+	/**
+	 * Fetches the next page of results for the current search (if there is one) and
+	 * appends them to the current results.
+	 */
+	private void nextPage() {
+		SearchCursor cursor = this.nextPage;
+		if (cursor == null || this.pageLoading) return;
+		
+		this.pageLoading = true;
+		Map<UUID, Bible> lookup = this.getBibles();
+		this.context.getWorkspaceManager().search(cursor).thenCompose((result) -> this.getSearchResults(result, lookup).thenCompose(AsyncHelper.onJavaFXThreadAndWait((rows) -> {
+			// ignore the page if a new search was started in the meantime
+			if (this.nextPage == cursor) {
+				this.nextPage = result.getNextCursor();
+				this.results.addAll(rows);
+			}
+			this.pageLoading = false;
+		}))).exceptionally(t -> {
+			LOGGER.error("Failed to get the next page of bible search results due to: " + t.getMessage(), t);
+			Platform.runLater(() -> {
+				this.pageLoading = false;
+			});
+			return null;
+		});
+	}
+	
+	/**
+	 * Returns the bibles in the workspace by id.
+	 * <p>
+	 * Must be called on the Java FX UI thread. The search results are matched to
+	 * the bibles in the background, so they're looked up ahead of time.
+	 * @return Map&lt;UUID, {@link Bible}&gt;
+	 */
+	private Map<UUID, Bible> getBibles() {
+		Map<UUID, Bible> bibles = new HashMap<UUID, Bible>();
+		for (Bible bible : this.bibles) {
+			bibles.put(bible.getId(), bible);
+		}
+		return bibles;
+	}
+	
+	/**
+	 * Finds the verses for the given results in the background, after highlighting
+	 * the first rows.
+	 * <p>
+	 * Finding a verse may load the content of its bible, so this is kept off the
+	 * Java FX UI thread; only the rows are added there.
+	 * @param results the search results
+	 * @param bibles the bibles by id
+	 * @return CompletableFuture&lt;List&lt;{@link BibleSearchResult}&gt;&gt;
+	 */
+	private CompletableFuture<List<BibleSearchResult>> getSearchResults(SearchResults results, Map<UUID, Bible> bibles) {
+		// highlight the first rows before they're shown, the rest are highlighted in the background as they're displayed
+		List<SearchResult> hits = results.getResults();
+		return this.context.getWorkspaceManager().highlight(hits.subList(0, Math.min(HIGHLIGHT_PAGE_SIZE, hits.size()))).thenApplyAsync((v) -> {
+			return this.getSearchResults(hits, bibles);
+		});
+	}
+	
+	private List<BibleSearchResult> getSearchResults(List<SearchResult> results, Map<UUID, Bible> bibles) {
+		// group the results by bible so that each bible's content is only loaded
+		// once, even when more bibles are searched than can be loaded at a time
+		Map<Bible, List<Integer>> groups = new LinkedHashMap<Bible, List<Integer>>();
+		for (int i = 0; i < results.size(); i++) {
+			String id = results.get(i).getDocument().get(Bible.FIELD_ID);
+			Bible bible = bibles.get(UUID.fromString(id));
 			if (bible == null) {
-				LOGGER.warn("Unable to find bible '{}'. A re-index might fix this problem.", document.get(Bible.FIELD_ID));
+				LOGGER.warn("Unable to find bible '{}'. A re-index might fix this problem.", id);
 				continue;
 			}
+			groups.computeIfAbsent(bible, (b) -> new ArrayList<Integer>()).add(i);
+		}
 			
-			// get the details
-			int bookNumber = document.getField(Bible.FIELD_BOOK_NUMBER).numericValue().intValue();
-			int chapterNumber = document.getField(Bible.FIELD_VERSE_CHAPTER).numericValue().intValue();
-			String verseNumber = document.getField(Bible.FIELD_VERSE_NUMBER).stringValue();
-			
-			LocatedVerse verse = null;
-			if (bible != null) {
-				verse = bible.getVerse(bookNumber, chapterNumber, verseNumber);
+		BibleSearchResult[] rows = new BibleSearchResult[results.size()];
+		for (Map.Entry<Bible, List<Integer>> group : groups.entrySet()) {
+			for (int i : group.getValue()) {
+				rows[i] = this.getSearchResult(group.getKey(), results.get(i));
 			}
+		}
 			
-			// just continue if its not found
-			if (verse == null) {
-				LOGGER.warn("Unable to find {} {}:{} in '{}'. A re-index might fix this problem.", bookNumber, chapterNumber, verseNumber, bible != null ? bible.getName() : "null");
-				continue;
+		// keep the order of the results
+		List<BibleSearchResult> output = new ArrayList<BibleSearchResult>();
+		for (BibleSearchResult row : rows) {
+			if (row != null) {
+				output.add(row);
 			}
-			
-			output.add(new BibleSearchResult(
-					verse.getBible(),
-					verse.getBook(), 
-					verse.getChapter(), 
-					verse.getVerse(), 
-					result.getMatches(), 
-					result.getScore()));
 		}
 		return output;
 	}
 	
+	private BibleSearchResult getSearchResult(Bible bible, SearchResult result) {
+		Document document = result.getDocument();
+		
+		// get the details
+		int bookNumber = document.getField(Bible.FIELD_BOOK_NUMBER).numericValue().intValue();
+		int chapterNumber = document.getField(Bible.FIELD_VERSE_CHAPTER).numericValue().intValue();
+		String verseNumber = document.getField(Bible.FIELD_VERSE_NUMBER).stringValue();
+		
+		LocatedVerse verse = null;
+		
+		// use the ordinal if we have it, but verify it since the index
+		// could be behind the bible if it was just changed
+		IndexableField ordinal = document.getField(Bible.FIELD_VERSE_ORDINAL);
+		if (ordinal != null) {
+			verse = bible.getVerse(ordinal.numericValue().intValue());
+			if (verse != null && (
+				verse.getBook().getNumber() != bookNumber ||
+				verse.getChapter().getNumber() != chapterNumber ||
+				!verse.getVerse().getNumber().equalsIgnoreCase(verseNumber))) {
+				verse = null;
+			}
+		}
+		
+		if (verse == null) {
+			verse = bible.getVerse(bookNumber, chapterNumber, verseNumber);
+		}
+		
+		// just continue if its not found
+		if (verse == null) {
+			LOGGER.warn("Unable to find {} {}:{} in '{}'. A re-index might fix this problem.", bookNumber, chapterNumber, verseNumber, bible.getName());
+			return null;
+		}
+		
+		return new BibleSearchResult(
+				verse.getBible(),
+				verse.getBook(),
+				verse.getChapter(),
+				verse.getVerse(),
+				result);
+	}
+	
 	public BibleSearchResult getValue() {
 		return this.value.get();
 	}
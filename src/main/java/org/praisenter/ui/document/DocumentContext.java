@@ -1,5 +1,7 @@
 package org.praisenter.ui.document;
 
+import java.time.Duration;
+
 import org.praisenter.async.InOrderExecutionManager;
 import org.praisenter.data.Persistable;
 import org.praisenter.ui.undo.UndoManager;
@@ -37,6 +39,8 @@ public final class DocumentContext<T extends Persistable> {
 	
 	protected final UndoManager undoManager;
 	protected final InOrderExecutionManager saveExecutionManager;
+	protected final IntegerProperty saveQueueDepth;
+	protected final ObjectProperty<Duration> lastSaveLatency;
 	
 	@SuppressWarnings("unchecked")
 	public DocumentContext(T document) {
@@ -59,6 +63,8 @@ public final class DocumentContext<T extends Persistable> {
 		this.undoManager.setTarget(document);
 		
 		this.saveExecutionManager = new InOrderExecutionManager();
+		this.saveQueueDepth = new SimpleIntegerProperty();
+		this.lastSaveLatency = new SimpleObjectProperty<>();
 		
 		this.selectedItems.addListener((Change<? extends Object> c) -> {
 			Class<?> clazz = null;
@@ -208,4 +214,39 @@ public final class DocumentContext<T extends Persistable> {
 	public InOrderExecutionManager getSaveExecutionManager() {
 		return this.saveExecutionManager;
 	}
+	
+	/**
+	 * Returns the number of saves that have been requested but not written yet.
+	 * <p>
+	 * Saves requested while another save is being written are written together.
+	 * @return int
+	 */
+	public int getSaveQueueDepth() {
+		return this.saveQueueDepth.get();
+	}
+	
+	public void setSaveQueueDepth(int depth) {
+		this.saveQueueDepth.set(depth);
+	}
+	
+	public ReadOnlyIntegerProperty saveQueueDepthProperty() {
+		return this.saveQueueDepth;
+	}
+	
+	/**
+	 * Returns the time it took to write the last successful save or null if
+	 * this document hasn't been saved yet.
+	 * @return Duration
+	 */
+	public Duration getLastSaveLatency() {
+		return this.lastSaveLatency.get();
+	}
+	
+	public void setLastSaveLatency(Duration latency) {
+		this.lastSaveLatency.set(latency);
+	}
+	
+	public ReadOnlyObjectProperty<Duration> lastSaveLatencyProperty() {
+		return this.lastSaveLatency;
+	}
 }
@@ -530,40 +530,40 @@ public final class LibraryList extends BorderPane implements ActionPane {
 				task.setName(btName);
 				task.setMessage(btName);
 				
-				CompletableFuture<?>[] futures = new CompletableFuture<?>[n];
-				int i = 0;
-				for (Persistable item : items) {
-					futures[i++] = this.context.getWorkspaceManager().delete(item).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
-						// close the document if its open
+				this.context.addBackgroundTask(task);
+				return this.context.getWorkspaceManager().deleteAll(items).thenCompose(AsyncHelper.onJavaFXThreadAndWait((r) -> {
+					// close the documents if they are open
+					for (Persistable item : r.getSucceeded()) {
 						this.context.closeDocument(item);
-					})).exceptionally((t) -> {
-						LOGGER.error("Failed to delete item '" + item.getName() + "': " + t.getMessage(), t);
-						throw new CompletionException(t);
-					});
-				}
+					}
 				
-				this.context.addBackgroundTask(task);
-				return CompletableFuture.allOf(futures).thenRun(() -> {
-					task.setProgress(1.0);
-				}).exceptionally((t) -> {
-					// log the exception
-					LOGGER.error("Failed to delete one or more items (see prior error logs for details)");
+					if (r.getErrors().isEmpty()) {
+						task.setProgress(1.0);
+						return;
+					}
 					
-					// get the root exceptions from the futures
-					List<Throwable> exceptions = AsyncHelper.getExceptions(futures);
+					// log the exceptions
+					for (int i = 0; i < r.getFailed().size(); i++) {
+						Exception ex = r.getErrors().get(i);
+						LOGGER.error("Failed to delete item '" + r.getFailed().get(i).getName() + "': " + ex.getMessage(), ex);
+					}
 					
 					// update the task
-					task.setException(exceptions.get(0));
+					task.setException(r.getErrors().get(0));
 					
 					// present them to the user
+					Alert errorAlert = Dialogs.exception(
+							this.context.getStage(),
+							null, null,	null,
+							new ArrayList<Throwable>(r.getErrors()));
+					errorAlert.show();
+				})).exceptionally((t) -> {
+					LOGGER.error("Failed to delete one or more items: " + t.getMessage(), t);
+					task.setException(t);
 					Platform.runLater(() -> {
-						Alert errorAlert = Dialogs.exception(
-								this.context.getStage(), 
-								null, null,	null, 
-								exceptions);
+						Alert errorAlert = Dialogs.exception(this.context.getStage(), t);
 						errorAlert.show();
 					});
-					
 					return null;
 				});
 			}
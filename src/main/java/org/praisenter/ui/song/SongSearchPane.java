@@ -3,14 +3,21 @@ package org.praisenter.ui.song;
 import java.text.DecimalFormat;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.document.Document;
 import org.praisenter.async.AsyncHelper;
+import org.praisenter.async.InOrderExecutionManager;
+import org.praisenter.data.search.SearchCursor;
 import org.praisenter.data.search.SearchResult;
+import org.praisenter.data.search.SearchResults;
 import org.praisenter.data.search.SearchTextMatch;
 import org.praisenter.data.search.SearchType;
 import org.praisenter.data.song.Song;
@@ -22,6 +29,7 @@ import org.praisenter.ui.controls.Dialogs;
 import org.praisenter.ui.controls.ProgressOverlay;
 import org.praisenter.ui.translations.Translations;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.ObjectProperty;
@@ -54,6 +62,7 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
 
 // FEATURE (M-M) add searching to the song editor for finding and editing easily
 
@@ -62,6 +71,11 @@ public final class SongSearchPane extends VBox {
 	private static final String SONG_SEARCH_CRITERIA_CSS = "p-song-search-criteria";
 	
 	private static final Logger LOGGER = LogManager.getLogger();
+	
+	private static final int PAGE_SIZE = 100;
+	private static final int HIGHLIGHT_PAGE_SIZE = 30;
+	private static final int SEARCH_DELAY_MILLIS = 300;
+	private static final int MIN_SEARCH_LENGTH = 3;
 
 	private static final DecimalFormat SCORE_FORMAT = new DecimalFormat(Translations.get("search.score.format"));
 
@@ -75,6 +89,20 @@ public final class SongSearchPane extends VBox {
 	
 	private final Runnable search;
 	
+	// paging
+	
+	private SearchCursor nextPage;
+	private boolean pageLoading;
+	
+	// highlighting
+	
+	private final Set<SearchResult> highlighting;
+	
+	// searching
+	
+	private final InOrderExecutionManager searchExecutionManager;
+	private final AtomicInteger searchVersion;
+	
 	// value
 	
 	private final ObjectProperty<SongSearchResult> value;
@@ -87,6 +115,10 @@ public final class SongSearchPane extends VBox {
 		this.searchType = new SimpleObjectProperty<Option<SearchType>>();
 		this.terms = new SimpleStringProperty();
 		this.results = FXCollections.observableArrayList();
+		this.highlighting = new HashSet<SearchResult>();
+		
+		this.searchExecutionManager = new InOrderExecutionManager();
+		this.searchVersion = new AtomicInteger();
 		
 		this.value = new SimpleObjectProperty<SongSearchResult>();
 		
@@ -169,6 +201,10 @@ public final class SongSearchPane extends VBox {
 				super.updateItem(item, empty);
 				if (item == null || empty) {
 					setGraphic(null);
+				} else if (!item.isHighlighted()) {
+					// show the plain text until the matches are computed in the background
+					setGraphic(new Text(item.getSong().getName()));
+					highlight(getTableView(), getIndex());
 				} else {
 					List<SearchTextMatch> matches = item.getMatches();
 					SearchTextMatch match = null;
@@ -225,6 +261,12 @@ public final class SongSearchPane extends VBox {
 		        	this.value.set(rowData);
 		        }
 		    });
+		    // fetch the next page when the last row is shown
+		    row.indexProperty().addListener((obs, ov, nv) -> {
+		    	if (nv.intValue() >= this.results.size() - 1) {
+		    		this.nextPage();
+		    	}
+		    });
 		    return row ;
 		});
 		
@@ -241,30 +283,55 @@ public final class SongSearchPane extends VBox {
 		
 		this.getChildren().addAll(top, stack, lblResults);
 		
+		// waits for a pause in typing before searching
+		PauseTransition delay = new PauseTransition(Duration.millis(SEARCH_DELAY_MILLIS));
+		
 		this.search = () -> {
+			// no need to wait anymore if we're searching now
+			delay.stop();
+			
 			String text = this.terms.get();
 			Option<SearchType> type = this.searchType.get();
 			
 			if (text != null && text.length() != 0 && type != null) {
 				overlay.setVisible(true);
 				
-				final int maxResults = 100;
 				SongTextSearchCriteria criteria = new SongTextSearchCriteria(
 						text,
 						type.getValue(),
-						maxResults);
+						PAGE_SIZE);
 				
-				context.getWorkspaceManager().search(criteria).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
-					this.results.setAll(this.getSearchResults(result.getResults()));
-					lblResults.setText(MessageFormat.format(Translations.get("song.search.results.output"), result.hasMore() ? maxResults + "+" : result.getNumberOfResults()));
-					overlay.setVisible(false);
-				})).exceptionally(t -> {
-					LOGGER.error("Failed to search songs using terms '" + text + "' due to: " + t.getMessage(), t);
-					Platform.runLater(() -> {
-						Alert alert = Dialogs.exception(this.context.getStage(), t);
-						alert.show();
+				// any pages of the previous search are no longer needed
+				this.nextPage = null;
+				
+				// only the results of the most recent search should be shown
+				final int version = this.searchVersion.incrementAndGet();
+				this.searchExecutionManager.execute(() -> {
+					// skip the search if it was superseded while it was waiting
+					if (version != this.searchVersion.get()) {
+						return CompletableFuture.completedFuture(null);
+					}
+					
+					return context.getWorkspaceManager().search(criteria).thenCompose(this::highlight).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
+						if (version != this.searchVersion.get()) {
+							LOGGER.debug("Ignoring results of superseded search '{}'", text);
+							return;
+						}
+						
+						this.nextPage = result.getNextCursor();
+						this.results.setAll(this.getSearchResults(result.getResults()));
+						lblResults.setText(MessageFormat.format(Translations.get("song.search.results.output"), result.isTotalResultsExact() ? result.getTotalResults() : result.getTotalResults() + "+"));
+						overlay.setVisible(false);
+					})).exceptionally(t -> {
+						LOGGER.error("Failed to search songs using terms '" + text + "' due to: " + t.getMessage(), t);
+						Platform.runLater(() -> {
+							if (version != this.searchVersion.get()) return;
+							overlay.setVisible(false);
+							Alert alert = Dialogs.exception(this.context.getStage(), t);
+							alert.show();
+						});
+						return null;
 					});
-					return null;
 				});
 			}
 		};
@@ -280,6 +347,89 @@ public final class SongSearchPane extends VBox {
 		
 		txtSearch.setOnAction(handler);
 		btnSearch.setOnAction(handler);
+		
+		// search as you type
+		delay.setOnFinished(handler);
+		Runnable typing = () -> {
+			if (!context.getWorkspaceConfiguration().isSearchAsYouTypeEnabled()) {
+				return;
+			}
+			String text = this.terms.get();
+			if (text != null && text.trim().length() >= MIN_SEARCH_LENGTH) {
+				delay.playFromStart();
+			} else {
+				// drop the pending search and any that are still running
+				// so their results don't show up for the shorter text
+				delay.stop();
+				this.searchVersion.incrementAndGet();
+				overlay.setVisible(false);
+			}
+		};
+		this.terms.addListener((obs, ov, nv) -> typing.run());
+		this.searchType.addListener((obs, ov, nv) -> typing.run());
+	}
+	
+	private CompletableFuture<SearchResults> highlight(SearchResults results) {
+		// highlight the first rows before they're shown, the rest are highlighted in the background as they're displayed
+		List<SearchResult> hits = results.getResults();
+		return this.context.getWorkspaceManager().highlight(hits.subList(0, Math.min(HIGHLIGHT_PAGE_SIZE, hits.size()))).thenApply((v) -> results);
+	}
+	
+	/**
+	 * Computes the highlighted matches for a page of results, starting at the given
+	 * row, in the background and refreshes the given table when they're done.
+	 * <p>
+	 * Rows that are already highlighted or being highlighted are skipped.
+	 * @param table the table showing the results
+	 * @param index the index of the first row
+	 */
+	private void highlight(TableView<SongSearchResult> table, int index) {
+		List<SearchResult> page = new ArrayList<SearchResult>();
+		int end = Math.min(index + HIGHLIGHT_PAGE_SIZE, table.getItems().size());
+		for (int i = Math.max(index, 0); i < end; i++) {
+			SearchResult result = table.getItems().get(i).getResult();
+			if (!result.isHighlighted() && this.highlighting.add(result)) {
+				page.add(result);
+			}
+		}
+		
+		if (page.isEmpty()) return;
+		
+		this.context.getWorkspaceManager().highlight(page).thenCompose(AsyncHelper.onJavaFXThreadAndWait(() -> {
+			this.highlighting.removeAll(page);
+			table.refresh();
+		})).exceptionally(t -> {
+			LOGGER.error("Failed to highlight song search results due to: " + t.getMessage(), t);
+			Platform.runLater(() -> {
+				this.highlighting.removeAll(page);
+			});
+			return null;
+		});
+	}
+	
+	/**
+	 * Fetches the next page of results for the current search (if there is one) and
+	 * appends them to the current results.
+	 */
+	private void nextPage() {
+		SearchCursor cursor = this.nextPage;
+		if (cursor == null || this.pageLoading) return;
+		
+		this.pageLoading = true;
+		this.context.getWorkspaceManager().search(cursor).thenCompose(this::highlight).thenCompose(AsyncHelper.onJavaFXThreadAndWait((result) -> {
+			// ignore the page if a new search was started in the meantime
+			if (this.nextPage == cursor) {
+				this.nextPage = result.getNextCursor();
+				this.results.addAll(this.getSearchResults(result.getResults()));
+			}
+			this.pageLoading = false;
+		})).exceptionally(t -> {
+			LOGGER.error("Failed to get the next page of song search results due to: " + t.getMessage(), t);
+			Platform.runLater(() -> {
+				this.pageLoading = false;
+			});
+			return null;
+		});
 	}
 	
 	private List<SongSearchResult> getSearchResults(List<SearchResult> results) {
@@ -295,8 +445,7 @@ public final class SongSearchPane extends VBox {
 			
 			output.add(new SongSearchResult(
 					song,
-					result.getMatches(), 
-					result.getScore()));
+					result));
 		}
 		
 		return output;
@@ -305,6 +454,7 @@ public final class SongSearchPane extends VBox {
 	public void clear() {
 		this.terms.set(null);
 		this.results.clear();
+		this.nextPage = null;
 	}
 	
 	public void search() {
@@ -1,7 +1,12 @@
 package org.praisenter.utility;
 
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 
 import javax.activation.FileTypeMap;
 import javax.activation.MimetypesFileTypeMap;
@@ -26,6 +31,70 @@ public enum MimeType {
 	private static final Logger LOGGER = LogManager.getLogger();
 	private static final Tika TIKA = new Tika();
 	
+	/** The maximum number of paths to remember the mime type of */
+	private static final int CACHE_SIZE = 1024;
+	
+	/** The detected mime types by path in least to most recently used order */
+	private static final Map<Path, CacheEntry> CACHE = new LinkedHashMap<Path, CacheEntry>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, CacheEntry> eldest) {
+			return this.size() > CACHE_SIZE;
+		}
+	};
+	
+	/**
+	 * The mime type of a path along with the file size and last modified time
+	 * it was detected for.
+	 * @author William Bittle
+	 * @version 3.0.0
+	 */
+	private static final class CacheEntry {
+		/** The file size in bytes */
+		private final long size;
+		
+		/** The file's last modified time in milliseconds */
+		private final long modified;
+		
+		/** The mime type */
+		private final String mimeType;
+		
+		/**
+		 * Full constructor.
+		 * @param size the file size in bytes
+		 * @param modified the file's last modified time in milliseconds
+		 * @param mimeType the mime type
+		 */
+		public CacheEntry(long size, long modified, String mimeType) {
+			this.size = size;
+			this.modified = modified;
+			this.mimeType = mimeType;
+		}
+	}
+	
+	/**
+	 * Returns the mime type for the given extension if it's one that can be trusted
+	 * for files written by this application or null otherwise.
+	 * @param path the path
+	 * @return String
+	 */
+	private static final String getTrustedExtensionMimeType(Path path) {
+		Path name = path.getFileName();
+		if (name == null) return null;
+		
+		String ext = name.toString();
+		int i = ext.lastIndexOf('.');
+		if (i < 0) return null;
+		ext = ext.substring(i + 1).toLowerCase(Locale.ROOT);
+		
+		switch (ext) {
+			case "json": return JSON.mimeType;
+			case "xml": return XML.mimeType;
+			case "zip": return ZIP.mimeType;
+			default: return null;
+		}
+	}
+	
 	/**
 	 * Attempts to reconcile the mime types detected by Tika and mime.types.
 	 * <p>
@@ -56,10 +125,62 @@ public enum MimeType {
 	
 	/**
 	 * Returns the mime-type for the given path.
+	 * <p>
+	 * The result is cached by path, file size and last modified time so that
+	 * unchanged files are only inspected once.
 	 * @param path the path
 	 * @return String
 	 */
 	public static final String get(Path path) {
+		Path key = path.toAbsolutePath().normalize();
+		long size = -1;
+		long modified = -1;
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+			size = attributes.size();
+			modified = attributes.lastModifiedTime().toMillis();
+		} catch (Exception ex) {
+			// it may not exist, so just let Tika handle it
+			return detect(path);
+		}
+		
+		synchronized (CACHE) {
+			CacheEntry entry = CACHE.get(key);
+			if (entry != null && entry.size == size && entry.modified == modified) {
+				return entry.mimeType;
+			}
+		}
+		
+		String mimeType = detect(path);
+		synchronized (CACHE) {
+			CACHE.put(key, new CacheEntry(size, modified, mimeType));
+		}
+		return mimeType;
+	}
+	
+	/**
+	 * Returns the mime-type for the given path, trusting the file extension if it's
+	 * one that this application writes (json, xml or zip).
+	 * <p>
+	 * This should only be used for files that this application owns (the files in
+	 * the workspace folders for example). Use {@link #get(Path)} for everything else.
+	 * @param path the path
+	 * @return String
+	 */
+	public static final String getTrusted(Path path) {
+		String mimeType = getTrustedExtensionMimeType(path);
+		if (mimeType != null) {
+			return mimeType;
+		}
+		return get(path);
+	}
+	
+	/**
+	 * Detects the mime-type for the given path using the mime.types mapping and Tika.
+	 * @param path the path
+	 * @return String
+	 */
+	private static final String detect(Path path) {
 		// get the mime type based on the mime.types mapping
 		FileTypeMap map = MimetypesFileTypeMap.getDefaultFileTypeMap();
 		String mime = map.getContentType(path.toString());
@@ -132,6 +253,17 @@ public enum MimeType {
 		return this.mimeType.equalsIgnoreCase(mimeType);
 	}
 	
+	/**
+	 * Returns true if the given path matches this mime-type, trusting the file
+	 * extension if it's one that this application writes.
+	 * @param path the path
+	 * @return boolean
+	 * @see #getTrusted(Path)
+	 */
+	public final boolean checkTrusted(Path path) {
+		return this.is(getTrusted(path));
+	}
+	
 	/**
 	 * Returns true if the given file name matches this mime-type.
 	 * @param name the file name